@@ -0,0 +1,175 @@
+package com.saha.amit.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded store of downstream responses for the edge cache. Entries are weighed by body size and evicted by
+ * Caffeine's size-based policy once {@code max-size} is reached, and expire at their own freshness lifetime.
+ * Bodies are kept on the heap or, with {@code off-heap}, in direct buffers that are written out without copying.
+ * <p>
+ * The keys are also indexed by route and principal, so invalidating after a write only touches that principal's
+ * entries instead of scanning the whole cache.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    /**
+     * Rough per-entry cost of key, headers and bookkeeping.
+     */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * @param variant request headers the response may vary by ({@code Accept}, {@code Accept-Encoding})
+     */
+    public record Key(String routeId, String principal, String uri, String variant) {
+    }
+
+    private record Scope(String routeId, String principal) {
+    }
+
+    public record Entry(HttpStatusCode status, HttpHeaders headers, ByteBuffer body, String etag,
+                        long storedAtMillis, long expiresAtMillis) {
+
+        public DataBuffer body(DataBufferFactory bufferFactory) {
+            return bufferFactory.wrap(body.duplicate());
+        }
+
+        public long ageSeconds() {
+            return Math.max(0, (System.currentTimeMillis() - storedAtMillis) / 1000);
+        }
+
+        int weight() {
+            return body.capacity() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Key, Entry> entries;
+
+    /**
+     * Keys of the entries per route and principal. Kept in step with the cache under the scope's lock: added
+     * together with the entry, dropped when the entry is gone.
+     */
+    private final ConcurrentHashMap<Scope, Set<Key>> keysByScope = new ConcurrentHashMap<>();
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("Gateway response cache disabled");
+            return;
+        }
+        log.info("Starting gateway response cache maxSize={} maxBodySize={} offHeap={}",
+                properties.getMaxSize(), properties.getMaxBodySize(), properties.isOffHeap());
+        entries = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfter(Expiry.creating((Key key, Entry entry) ->
+                        Duration.ofMillis(Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis()))))
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> unindex(key))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "gateway.response");
+    }
+
+    public boolean isEnabled() {
+        return entries != null;
+    }
+
+    /**
+     * @return the fresh entry, or {@code null}
+     */
+    public Entry get(Key key) {
+        if (entries == null) {
+            return null;
+        }
+        Entry entry = entries.getIfPresent(key);
+        return entry != null && entry.expiresAtMillis() > System.currentTimeMillis() ? entry : null;
+    }
+
+    public void put(Key key, HttpStatusCode status, HttpHeaders headers, byte[] body, String etag, Duration ttl) {
+        if (entries == null) {
+            return;
+        }
+        ByteBuffer stored = properties.isOffHeap()
+                ? ByteBuffer.allocateDirect(body.length).put(body).flip()
+                : ByteBuffer.wrap(body);
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(status, HttpHeaders.readOnlyHttpHeaders(headers), stored.asReadOnlyBuffer(), etag,
+                now, now + ttl.toMillis());
+        keysByScope.compute(new Scope(key.routeId(), key.principal()), (scope, keys) -> {
+            Set<Key> scopeKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            scopeKeys.add(key);
+            entries.put(key, entry);
+            return scopeKeys;
+        });
+    }
+
+    /**
+     * Drops every entry of the principal on the route; called after a successful write through it.
+     */
+    public void invalidate(String routeId, String principal) {
+        if (entries != null) {
+            Set<Key> keys = keysByScope.remove(new Scope(routeId, principal));
+            if (keys != null) {
+                entries.invalidateAll(keys);
+            }
+        }
+    }
+
+    private void unindex(Key key) {
+        keysByScope.computeIfPresent(new Scope(key.routeId(), key.principal()), (scope, keys) -> {
+            // Removal is notified asynchronously; an entry stored again under the key meanwhile stays indexed
+            if (!entries.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Strong ETag over the body: the first 128 bits of its SHA-256.
+     */
+    public static String etag(byte[] body) {
+        byte[] hash = SHA_256.get().digest(body);
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+    }
+}
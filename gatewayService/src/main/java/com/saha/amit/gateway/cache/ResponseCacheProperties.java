@@ -0,0 +1,109 @@
+package com.saha.amit.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Edge response cache settings, e.g.
+ * <pre>
+ * app.gateway.response-cache.routes.customers.ttl=PT30S
+ * </pre>
+ * Route settings are rebound on config refresh; {@code max-size} and {@code off-heap} apply at startup.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Total size of the cached bodies.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Larger responses are streamed through, neither cached nor tagged.
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+    /**
+     * Keep cached bodies in direct buffers instead of the heap.
+     */
+    private boolean offHeap;
+
+    /**
+     * Route id to its settings. Routes not listed only cache responses that carry {@code max-age}/{@code s-maxage}.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        private boolean enabled = true;
+
+        /**
+         * Freshness of responses without {@code max-age}/{@code s-maxage}; unset means they are not cached.
+         */
+        private Duration ttl;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package com.saha.amit.gateway.config;
 
 import com.saha.amit.gateway.filter.InitGatewayFilter;
+import com.saha.amit.gateway.filter.RateLimitPolicyGatewayFilter;
+import com.saha.amit.gateway.filter.RequestCoalescingGatewayFilter;
+import com.saha.amit.gateway.filter.ResponseCacheGatewayFilter;
+import com.saha.amit.gateway.ratelimit.LocalTokenBucketRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
-import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
-import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
 import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.server.ResponseStatusException;
-import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 
@@ -23,29 +28,36 @@ public class GatewayRoutesConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(GatewayRoutesConfig.class);
 
-    // 1️⃣ Simple key resolver — rate limit based on X-Client-Id header
+    // 1️⃣ Rate limiter — 10 requests/sec, burst up to 20 unless a policy (app.gateway.rate-limit.*) says otherwise.
+    //    local:  in-process token buckets, no Redis on the request path (default)
+    //    hybrid: local buckets, consumption reconciled across instances through Redis every sync-interval
+    //    redis:  RedisRateLimiter, one Redis round trip per request
     @Bean
-    public KeyResolver clientIdKeyResolver() {
-        return exchange -> {
-            String clientId =
-                    exchange.getRequest().getHeaders().getFirst("X-Client-Id");
-            logger.info("🔑 KeyResolver resolved key = {}", clientId);
-            return Mono.justOrEmpty(clientId)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(
-                            HttpStatus.BAD_REQUEST, "Missing X-Client-Id"
-                    )));
+    @Primary
+    public RateLimiter<?> clientRateLimiter(
+            @Value("${app.gateway.rate-limiter.mode:local}") String mode,
+            @Value("${app.gateway.rate-limiter.replenish-rate:10}") int replenishRate,
+            @Value("${app.gateway.rate-limiter.burst-capacity:20}") int burstCapacity,
+            @Value("${app.gateway.rate-limiter.max-keys:100000}") long maxKeys,
+            @Value("${app.gateway.rate-limiter.idle-timeout:PT10M}") Duration idleTimeout,
+            @Value("${app.gateway.rate-limiter.sync-interval:PT1S}") Duration syncInterval,
+            ObjectProvider<ReactiveStringRedisTemplate> redisTemplate) {
+
+        logger.info("🚦 Rate limiter mode={} replenishRate={} burstCapacity={}", mode, replenishRate, burstCapacity);
+        return switch (mode) {
+            case "redis" -> new RedisRateLimiter(replenishRate, burstCapacity);
+            case "local", "hybrid" -> {
+                LocalTokenBucketRateLimiter rateLimiter =
+                        new LocalTokenBucketRateLimiter(replenishRate, burstCapacity, maxKeys, idleTimeout);
+                if (mode.equals("hybrid")) {
+                    rateLimiter.startSync(redisTemplate.getObject(), syncInterval);
+                }
+                yield rateLimiter;
+            }
+            default -> throw new IllegalArgumentException("Unknown app.gateway.rate-limiter.mode: " + mode);
         };
     }
 
-
-    // 2️⃣ Redis rate limiter — 10 requests/sec, burst up to 20
-    @Bean
-    public RedisRateLimiter clientRateLimiter() {
-        return new RedisRateLimiter(
-                10, 20
-        );
-    }
-
     @Bean
     public GlobalFilter logClientIdFilter() {
         return (exchange, chain) -> {
@@ -57,28 +69,13 @@ public class GatewayRoutesConfig {
     }
 
 
-    // 3️⃣ Custom factory bean (renamed to avoid conflict with GatewayAutoConfiguration)
-    @Bean
-    public RequestRateLimiterGatewayFilterFactory customRequestRateLimiterGatewayFilterFactory(
-            RedisRateLimiter clientRateLimiter,
-            KeyResolver clientIdKeyResolver) {
-
-        RequestRateLimiterGatewayFilterFactory factory =
-                new RequestRateLimiterGatewayFilterFactory(
-                        clientRateLimiter,
-                        clientIdKeyResolver
-                );
-
-        factory.setEmptyKeyStatusCode(HttpStatus.TOO_MANY_REQUESTS.name());
-        return factory;
-    }
-
-
-    // 4️⃣ Define all routes and apply rate limiter
+    // 2️⃣ Define all routes and apply the rate limit policies (per route, client tier and method)
     @Bean
     public RouteLocator customRouteLocator(
             RouteLocatorBuilder routes,
-            RequestRateLimiterGatewayFilterFactory customRequestRateLimiterGatewayFilterFactory) {
+            RateLimitPolicyGatewayFilter rateLimitPolicyGatewayFilter,
+            ResponseCacheGatewayFilter responseCacheGatewayFilter,
+            RequestCoalescingGatewayFilter requestCoalescingGatewayFilter) {
 
         return routes.routes()
                 // Orders route
@@ -93,9 +90,12 @@ public class GatewayRoutesConfig {
                                                 HttpStatus.SERVICE_UNAVAILABLE))
                                 .circuitBreaker(cb -> cb.setName("ordersCb")
                                         .setFallbackUri("forward:/fallback/orders"))
-                                // ✅ Apply custom rate limiter
-                                .filter(customRequestRateLimiterGatewayFilterFactory
-                                        .apply(new RequestRateLimiterGatewayFilterFactory.Config()))
+                                // ✅ Apply rate limit policies
+                                .filter(rateLimitPolicyGatewayFilter)
+                                // ✅ Answer repeated GETs from the edge cache (ETag / 304)
+                                .filter(responseCacheGatewayFilter)
+                                // ✅ Collapse identical concurrent GETs into one upstream call
+                                .filter(requestCoalescingGatewayFilter)
                         )
                         .uri("lb://order-service"))
 
@@ -119,9 +119,12 @@ public class GatewayRoutesConfig {
                                                 HttpStatus.SERVICE_UNAVAILABLE,
                                                 HttpStatus.GATEWAY_TIMEOUT)
                                         .setBackoff(Duration.ofMillis(100), Duration.ofMillis(1000), 2, true))
-                                // ✅ Apply custom rate limiter
-                                .filter(customRequestRateLimiterGatewayFilterFactory
-                                        .apply(new RequestRateLimiterGatewayFilterFactory.Config()))
+                                // ✅ Apply rate limit policies
+                                .filter(rateLimitPolicyGatewayFilter)
+                                // ✅ Answer repeated GETs from the edge cache (ETag / 304)
+                                .filter(responseCacheGatewayFilter)
+                                // ✅ Collapse identical concurrent GETs into one upstream call
+                                .filter(requestCoalescingGatewayFilter)
                         )
                         .uri("lb://customer-service"))
                 // Don't remember why I added these prefix rewrite routes. Commenting out for now.
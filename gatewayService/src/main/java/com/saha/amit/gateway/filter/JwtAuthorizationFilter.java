@@ -1,13 +1,21 @@
 package com.saha.amit.gateway.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -19,17 +27,94 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.List;
 
+/**
+ * Authenticates requests carrying a {@code Bearer} JWT.
+ * <p>
+ * The signing key and parser are built once. Verified tokens are cached by their SHA-256 digest until their
+ * {@code exp} (at most {@code app.jwt.cache.max-ttl}), so repeated requests with the same access token skip
+ * parsing and signature verification. Tokens that are not shaped like a signed JWT are rejected before they
+ * reach the parser.
+ */
 @Component
 public class JwtAuthorizationFilter implements WebFilter {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthorizationFilter.class);
     private static final String SECRET_KEY = "oycBHAYRCc8fMxKkRVx9FA4EC+pWAgmeRGxQFbLGb5Y=";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final Key signingKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY));
+
+    /**
+     * Immutable and thread-safe once built.
+     */
+    private final JwtParser jwtParser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${app.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    /**
+     * Upper bound on how long a verified token is trusted without re-verification, also for tokens without
+     * {@code exp}.
+     */
+    @Value("${app.jwt.cache.max-ttl:PT5M}")
+    private Duration cacheMaxTtl;
+
+    @Value("${app.jwt.max-token-length:8192}")
+    private int maxTokenLength;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * The security context built for a verified token, reused for every request presenting it.
+     */
+    private record VerifiedToken(Context securityContext, long expiresAtMillis) {
+    }
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtAuthorizationFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!cacheEnabled) {
+            log.info("JWT verification cache disabled");
+            return;
+        }
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedToken token) -> {
+                    Duration untilExpiry = Duration.ofMillis(Math.max(0, token.expiresAtMillis() - System.currentTimeMillis()));
+                    return untilExpiry.compareTo(cacheMaxTtl) < 0 ? untilExpiry : cacheMaxTtl;
+                }))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "gateway.jwt.verified");
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -39,34 +124,38 @@ public class JwtAuthorizationFilter implements WebFilter {
 
         String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
             log.debug("No JWT token found in Authorization header for path {}", exchange.getRequest().getPath());
             return chain.filter(exchange);
         }
 
-        String token = authHeader.substring(7);
-        log.info("🔐 Validating JWT token for request to {}", token);
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        if (!isWellFormed(token)) {
+            log.debug("❌ Rejected JWT that is not a well-formed signed token for path {}", exchange.getRequest().getPath());
+            return respondUnauthorized(exchange, "Malformed token");
+        }
+
+        String digest = verifiedTokens == null ? null : digest(token);
+        if (digest != null) {
+            VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+            if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return chain.filter(exchange).contextWrite(cached.securityContext());
+            }
+        }
+
+        log.debug("🔐 Validating JWT token for request to {}", exchange.getRequest().getPath());
 
         try {
-            Key key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY));
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
             String userId = claims.getSubject();
             String email = claims.get("email", String.class);
-            String issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toString() : "N/A";
-            String expiry = claims.getExpiration() != null ? claims.getExpiration().toString() : "N/A";
-
-            log.info("✅ JWT validated successfully for userId={} email={} issuedAt={} expiresAt={}",
-                    userId, email, issuedAt, expiry);
 
-            // Log all custom claims
-            claims.forEach((keyName, value) ->
-                    log.info("  -> Claim [{}] = {}", keyName, value)
-            );
+            if (log.isDebugEnabled()) {
+                log.debug("✅ JWT validated successfully for userId={} email={} issuedAt={} expiresAt={}",
+                        userId, email, claims.getIssuedAt(), claims.getExpiration());
+                claims.forEach((keyName, value) -> log.trace("  -> Claim [{}] = {}", keyName, value));
+            }
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
@@ -74,9 +163,16 @@ public class JwtAuthorizationFilter implements WebFilter {
                             null,
                             List.of(new SimpleGrantedAuthority("ROLE_USER"))
                     );
+            Context securityContext = ReactiveSecurityContextHolder.withAuthentication(authentication);
 
-            return chain.filter(exchange)
-                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            if (digest != null) {
+                long expiresAtMillis = claims.getExpiration() != null
+                        ? claims.getExpiration().getTime()
+                        : Long.MAX_VALUE;
+                verifiedTokens.put(digest, new VerifiedToken(securityContext, expiresAtMillis));
+            }
+
+            return chain.filter(exchange).contextWrite(securityContext);
 
         } catch (ExpiredJwtException e) {
             log.warn("❌ JWT expired for token issued to {}. Expired at {}", e.getClaims().getSubject(), e.getClaims().getExpiration());
@@ -96,6 +192,39 @@ public class JwtAuthorizationFilter implements WebFilter {
         }
     }
 
+    /**
+     * Cheap structural check: three non-empty base64url segments within {@code max-token-length}. Anything else
+     * would fail in the parser, only more expensively.
+     */
+    private boolean isWellFormed(String token) {
+        int length = token.length();
+        if (length == 0 || length > maxTokenLength) {
+            return false;
+        }
+        int dots = 0;
+        char previous = '.';
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (previous == '.' || ++dots > 2) {
+                    return false;
+                }
+            } else if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                return false;
+            }
+            previous = c;
+        }
+        return dots == 2 && previous != '.';
+    }
+
+    /**
+     * The cache never holds the bearer token itself.
+     */
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
     private Mono<Void> respondUnauthorized(ServerWebExchange exchange, String message) {
         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
         exchange.getResponse().getHeaders().add("Content-Type", "application/json");
@@ -0,0 +1,64 @@
+package com.saha.amit.gateway.filter;
+
+import com.saha.amit.gateway.ratelimit.RateLimitPolicies;
+import com.saha.amit.gateway.ratelimit.RateLimitPolicyEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Rate limits a route by the policy matching its route id, the client's tier and the request method (see
+ * {@link RateLimitPolicyEngine}). Clients are identified by {@code X-Client-Id}; requests without it are
+ * limited per remote address in the anonymous tier.
+ */
+@Component
+public class RateLimitPolicyGatewayFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitPolicyGatewayFilter.class);
+
+    private final RateLimitPolicyEngine rateLimitPolicyEngine;
+
+    public RateLimitPolicyGatewayFilter(RateLimitPolicyEngine rateLimitPolicyEngine) {
+        this.rateLimitPolicyEngine = rateLimitPolicyEngine;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "*";
+        String clientId = exchange.getRequest().getHeaders().getFirst("X-Client-Id");
+
+        RateLimitPolicies policies = rateLimitPolicyEngine.policies();
+        String tier = policies.tierOf(clientId);
+        RateLimitPolicies.RateLimitPolicy policy = policies.resolve(routeId, tier, exchange.getRequest().getMethod());
+        String key = clientId != null ? clientId : remoteAddress(exchange);
+
+        return rateLimitPolicyEngine.isAllowed(policy, key)
+                .flatMap(response -> {
+                    HttpHeaders headers = exchange.getResponse().getHeaders();
+                    response.getHeaders().forEach(headers::add);
+                    if (response.isAllowed()) {
+                        return chain.filter(exchange);
+                    }
+                    logger.debug("⛔ Rate limited {} {} for client={} tier={} policy={}",
+                            exchange.getRequest().getMethod(), exchange.getRequest().getPath(), key, tier, policy.id());
+                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    private static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        return address != null && address.getAddress() != null ? address.getAddress().getHostAddress() : "unknown";
+    }
+}
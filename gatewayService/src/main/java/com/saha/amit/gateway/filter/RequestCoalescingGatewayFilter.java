@@ -0,0 +1,230 @@
+package com.saha.amit.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collapses identical concurrent GETs into one upstream call. The first request for a key (method, path,
+ * query, authenticated principal and the {@code Accept}, {@code Accept-Encoding}, {@code If-None-Match} and
+ * {@code If-Modified-Since} headers) goes upstream as usual while its response body is copied aside. Requests
+ * that differ in content negotiation or validators may get a different response (another encoding, a
+ * {@code 304} instead of a {@code 200}) and so never share one. Identical requests arriving meanwhile wait for
+ * it and get the same status, headers and body, marked with {@code X-Gateway-Coalesced}.
+ * <p>
+ * Responses are only shared when they can be replayed: a body up to {@code max-body-size}, no
+ * {@code Set-Cookie}, no streaming content type. Otherwise, or when the first request fails, is cancelled or
+ * takes longer than {@code max-wait}, the waiting requests go upstream themselves.
+ */
+@Component
+public class RequestCoalescingGatewayFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingGatewayFilter.class);
+
+    static final String COALESCED_HEADER = "X-Gateway-Coalesced";
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.gateway.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.gateway.coalescing.max-body-size:1MB}")
+    private DataSize maxBodySize;
+
+    @Value("${app.gateway.coalescing.max-wait:PT5S}")
+    private Duration maxWait;
+
+    /**
+     * Completed with the shared response, or empty when it cannot be shared.
+     */
+    private final ConcurrentHashMap<String, Sinks.One<CoalescedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private record CoalescedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public RequestCoalescingGatewayFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled || exchange.getRequest().getMethod() != HttpMethod.GET
+                || exchange.getRequest().getHeaders().containsKey(HttpHeaders.RANGE)) {
+            return chain.filter(exchange);
+        }
+
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .defaultIfEmpty("")
+                .flatMap(principal -> {
+                    String key = key(exchange, principal);
+                    Sinks.One<CoalescedResponse> flight = Sinks.one();
+                    Sinks.One<CoalescedResponse> existing = inFlight.putIfAbsent(key, flight);
+                    if (existing == null) {
+                        return lead(exchange, chain, key, flight);
+                    }
+                    return follow(exchange, chain, existing);
+                });
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                            Sinks.One<CoalescedResponse> flight) {
+        count(exchange, "leader");
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!shareable(getStatusCode(), getHeaders())) {
+                    abandon(key, flight);
+                    return super.writeWith(body);
+                }
+                HttpStatusCode status = getStatusCode();
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(getHeaders());
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                AtomicBoolean sharing = new AtomicBoolean(true);
+                Flux<DataBuffer> tee = Flux.from(body).doOnNext(buffer -> {
+                    if (!sharing.get()) {
+                        return;
+                    }
+                    if (copy.size() + buffer.readableByteCount() > maxBodySize.toBytes()) {
+                        sharing.set(false);
+                        abandon(key, flight);
+                    } else {
+                        copyTo(buffer, copy);
+                    }
+                });
+                return super.writeWith(tee)
+                        .doOnSuccess(ignored -> {
+                            if (sharing.get() && inFlight.remove(key, flight)) {
+                                flight.tryEmitValue(new CoalescedResponse(status, headers, copy.toByteArray()));
+                            }
+                        });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                abandon(key, flight);
+                return super.writeAndFlushWith(body);
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                // No-op once shared; otherwise (no body, error, cancel) the waiting requests go upstream
+                .doFinally(signal -> abandon(key, flight));
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain,
+                              Sinks.One<CoalescedResponse> flight) {
+        return flight.asMono()
+                .timeout(maxWait, Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isEmpty()) {
+                        count(exchange, "fallback");
+                        return chain.filter(exchange);
+                    }
+                    count(exchange, "follower");
+                    return write(exchange.getResponse(), shared.get());
+                });
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CoalescedResponse shared) {
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        // Headers this request already got on its own way here (e.g. rate limit headers) are kept
+        shared.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    private boolean shareable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.is1xxInformational() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType != null && STREAMING_TYPES.stream().anyMatch(contentType::isCompatibleWith)) {
+            return false;
+        }
+        return headers.getContentLength() <= maxBodySize.toBytes();
+    }
+
+    private void abandon(String key, Sinks.One<CoalescedResponse> flight) {
+        // Removed first, so requests arriving from now on start their own flight
+        if (inFlight.remove(key, flight)) {
+            flight.tryEmitEmpty();
+        }
+    }
+
+    private static void copyTo(DataBuffer buffer, ByteArrayOutputStream copy) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                byte[] bytes = new byte[byteBuffer.remaining()];
+                byteBuffer.get(bytes);
+                copy.write(bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    private static String key(ServerWebExchange exchange, String principal) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        return exchange.getRequest().getMethod().name() + ' ' + exchange.getRequest().getURI().getRawPath()
+                + '?' + exchange.getRequest().getURI().getRawQuery()
+                + '\n' + headers.get(HttpHeaders.ACCEPT)
+                + '\n' + headers.get(HttpHeaders.ACCEPT_ENCODING)
+                + '\n' + headers.get(HttpHeaders.IF_NONE_MATCH)
+                + '\n' + headers.get(HttpHeaders.IF_MODIFIED_SINCE)
+                + '\n' + principal;
+    }
+
+    private void count(ServerWebExchange exchange, String outcome) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.coalescing.requests",
+                "route", route != null ? route.getId() : "unknown",
+                "outcome", outcome).increment();
+        logger.debug("Coalescing {} {} as {}",
+                exchange.getRequest().getMethod(), exchange.getRequest().getPath(), outcome);
+    }
+}
@@ -0,0 +1,299 @@
+package com.saha.amit.gateway.filter;
+
+import com.saha.amit.gateway.cache.ResponseCache;
+import com.saha.amit.gateway.cache.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Edge cache for GET responses, keyed by route, principal, URI and the {@code Accept}/{@code Accept-Encoding}
+ * variant, so cached responses are never shared between users.
+ * <p>
+ * Complete {@code 200} responses up to {@code max-body-size} are stored for their {@code s-maxage}/{@code max-age},
+ * or the route's {@code ttl} when the downstream sends neither, with an {@code ETag} (the downstream one, or a
+ * hash of the body). {@code no-store}, {@code no-cache}, {@code private}, {@code Set-Cookie} and {@code Vary} on
+ * other headers keep a response out of the cache; such responses stream straight through and are only buffered
+ * to hash an {@code ETag} when the request is conditional and the downstream sent none. A matching
+ * {@code If-None-Match} is answered with {@code 304}, from the cache or after a miss. Requests sending
+ * {@code no-cache} skip the lookup, and a successful write through a route drops that principal's entries of the
+ * route.
+ */
+@Component
+public class ResponseCacheGatewayFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheGatewayFilter.class);
+
+    static final String CACHE_STATUS_HEADER = "X-Gateway-Cache";
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(s-maxage|max-age)\\s*=\\s*\"?(\\d+)");
+
+    private static final Set<String> CACHEABLE_VARY = Set.of("accept", "accept-encoding");
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheGatewayFilter(ResponseCache responseCache, ResponseCacheProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.responseCache = responseCache;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        ResponseCacheProperties.Route routeSettings = properties.getRoutes().get(routeId);
+        if (!responseCache.isEnabled() || routeSettings != null && !routeSettings.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (method == HttpMethod.GET) {
+            return principal().flatMap(principal ->
+                    lookup(exchange, chain, routeId, routeSettings, principal));
+        }
+        if (method == HttpMethod.HEAD || method == HttpMethod.OPTIONS || method == HttpMethod.TRACE) {
+            return chain.filter(exchange);
+        }
+        return principal().flatMap(principal -> chain.filter(exchange)
+                .doOnSuccess(ignored -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status == null || status.is2xxSuccessful() || status.is3xxRedirection()) {
+                        responseCache.invalidate(routeId, principal);
+                    }
+                }));
+    }
+
+    private Mono<Void> lookup(ServerWebExchange exchange, GatewayFilterChain chain, String routeId,
+                              ResponseCacheProperties.Route routeSettings, String principal) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders requestHeaders = request.getHeaders();
+        ResponseCache.Key key = new ResponseCache.Key(routeId, principal, request.getURI().getRawPath() + '?' + request.getURI().getRawQuery(),
+                requestHeaders.getFirst(HttpHeaders.ACCEPT) + '\n' + requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        String requestCacheControl = lowerCase(requestHeaders.getCacheControl());
+        boolean noCache = requestCacheControl.contains("no-cache") || requestCacheControl.contains("max-age=0")
+                || "no-cache".equalsIgnoreCase(requestHeaders.getPragma());
+        boolean noStore = requestCacheControl.contains("no-store");
+
+        if (!noCache && !noStore) {
+            ResponseCache.Entry cached = responseCache.get(key);
+            if (cached != null) {
+                return serve(exchange, routeId, cached);
+            }
+        }
+        count(routeId, noCache || noStore ? "bypass" : "miss");
+
+        Duration routeTtl = routeSettings != null ? routeSettings.getTtl() : null;
+        long maxBodySize = properties.getMaxBodySize().toBytes();
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator caching = new ServerHttpResponseDecorator(response) {
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+                if (status.value() != HttpStatus.OK.value() || getHeaders().getContentLength() > maxBodySize
+                        || isStreaming(getHeaders().getContentType())) {
+                    return super.writeWith(body);
+                }
+                Duration ttl = noStore ? null : freshness(getHeaders(), routeTtl);
+                List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+                if (ttl == null) {
+                    // Not stored, so the body is only needed to tag a conditional request's response
+                    String etag = getHeaders().getETag();
+                    if (ifNoneMatch.isEmpty() || etag != null && !matches(ifNoneMatch, etag)) {
+                        return super.writeWith(body);
+                    }
+                    if (etag != null) {
+                        return Flux.<DataBuffer>from(body)
+                                .doOnNext(DataBufferUtils::release)
+                                .then(Mono.defer(() -> notModified(this, etag)));
+                    }
+                }
+                // The first list holds the whole body unless it outgrew max-body-size, then the rest streams on
+                AtomicLong size = new AtomicLong();
+                return Flux.<DataBuffer>from(body)
+                        .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBodySize)
+                        .defaultIfEmpty(List.of())
+                        .switchOnFirst((first, lists) -> size.get() > maxBodySize
+                                ? super.writeWith(lists.concatMapIterable(Function.identity())).flux()
+                                : lists.concatMap(buffers -> writeComplete(status, buffers, ttl)))
+                        .then();
+            }
+
+            private Mono<Void> writeComplete(HttpStatusCode status, List<DataBuffer> buffers, Duration ttl) {
+                byte[] bytes = copy(buffers);
+                HttpHeaders headers = getHeaders();
+                String etag = headers.getETag() != null ? headers.getETag() : ResponseCache.etag(bytes);
+                headers.setETag(etag);
+
+                if (ttl != null) {
+                    HttpHeaders stored = new HttpHeaders();
+                    stored.putAll(headers);
+                    stored.remove(HttpHeaders.TRANSFER_ENCODING);
+                    responseCache.put(key, status, stored, bytes, etag, ttl);
+                }
+
+                if (matches(requestHeaders.getIfNoneMatch(), etag)) {
+                    buffers.forEach(DataBufferUtils::release);
+                    return notModified(this, etag);
+                }
+                return super.writeWith(Flux.fromIterable(buffers));
+            }
+        };
+        return chain.filter(exchange.mutate().response(caching).build());
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, String routeId, ResponseCache.Entry cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        if (matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            count(routeId, "not-modified");
+            return notModified(response, cached.etag());
+        }
+        count(routeId, "hit");
+        response.setStatusCode(cached.status());
+        HttpHeaders headers = response.getHeaders();
+        // Headers this request already got on its own way here (e.g. rate limit headers) are kept
+        cached.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        return response.writeWith(Mono.fromSupplier(() -> cached.body(response.bufferFactory())));
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response, String etag) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        HttpHeaders headers = response.getHeaders();
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setETag(etag);
+        return response.setComplete();
+    }
+
+    /**
+     * @return how long the response may be served from the cache, {@code null} if it must not be stored
+     */
+    private static Duration freshness(HttpHeaders headers, Duration routeTtl) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        for (String vary : headers.getVary()) {
+            if (!CACHEABLE_VARY.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+        }
+        String cacheControl = lowerCase(headers.getCacheControl());
+        if (cacheControl.contains("no-store") || cacheControl.contains("no-cache") || cacheControl.contains("private")) {
+            return null;
+        }
+        Long maxAge = null;
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        while (matcher.find()) {
+            long seconds = Long.parseLong(matcher.group(2));
+            // s-maxage is meant for shared caches like this one and wins over max-age
+            if (matcher.group(1).equals("s-maxage") || maxAge == null) {
+                maxAge = seconds;
+            }
+            if (matcher.group(1).equals("s-maxage")) {
+                break;
+            }
+        }
+        Duration ttl = maxAge != null ? Duration.ofSeconds(maxAge) : routeTtl;
+        return ttl != null && ttl.isPositive() ? ttl : null;
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so {@code W/} is ignored.
+     */
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean isStreaming(MediaType contentType) {
+        return contentType != null && STREAMING_TYPES.stream().anyMatch(contentType::isCompatibleWith);
+    }
+
+    private static byte[] copy(List<? extends DataBuffer> buffers) {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        for (DataBuffer buffer : buffers) {
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer byteBuffer = iterator.next();
+                    byte[] bytes = new byte[byteBuffer.remaining()];
+                    byteBuffer.get(bytes);
+                    copy.write(bytes, 0, bytes.length);
+                }
+            }
+        }
+        return copy.toByteArray();
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Mono<String> principal() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .defaultIfEmpty("");
+    }
+
+    private void count(String routeId, String outcome) {
+        meterRegistry.counter("gateway.response.cache.requests", "route", routeId, "outcome", outcome).increment();
+        logger.debug("Response cache {} on route {}", outcome, routeId);
+    }
+}
@@ -0,0 +1,241 @@
+package com.saha.amit.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process alternative to {@link RedisRateLimiter}: one {@link TokenBucket} per route and key, so the
+ * decision costs a cache lookup and a CAS instead of a Redis round trip. Buckets are held in a bounded cache
+ * and dropped after {@code idleTimeout} without requests; an idle bucket is full anyway, so nothing is lost.
+ * <p>
+ * On its own the limit applies per gateway instance. In hybrid mode ({@link #startSync}) every instance
+ * periodically adds its consumption to a shared Redis counter per bucket and charges its local bucket with
+ * what the other instances consumed since the last sync. The cluster-wide limit is then approximate, off by at
+ * most one sync interval of traffic, while Redis stays off the request path.
+ * <p>
+ * A sync only covers the buckets that consumed tokens here since the previous one, sent as one script call per
+ * {@value #SYNC_BATCH_SIZE} buckets, so an idle gateway makes no Redis calls. A bucket skipped this way learns
+ * about the other instances' consumption once it is used again, charged as of its last sync so tokens that
+ * have refilled meanwhile are not taken twice. The script touches keys of many clients at once and therefore
+ * needs a standalone or replicated Redis, not Redis Cluster.
+ * <p>
+ * Responses carry the same headers as {@link RedisRateLimiter}.
+ */
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config>
+        implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalTokenBucketRateLimiter.class);
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final String SYNC_KEY_PREFIX = "local_rate_limiter.";
+
+    static final int SYNC_BATCH_SIZE = 500;
+
+    /**
+     * KEYS: one counter per bucket; ARGV: the tokens each consumed, then the key TTL in millis. Returns the totals.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> SYNC_SCRIPT = (RedisScript) RedisScript.of("""
+            local totals = {}
+            for i, key in ipairs(KEYS) do
+              totals[i] = redis.call('INCRBY', key, ARGV[i])
+              redis.call('PEXPIRE', key, ARGV[#ARGV])
+            end
+            return totals
+            """, List.class);
+
+    private final Config defaultConfig;
+
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    private final Duration idleTimeout;
+
+    private volatile Disposable sync;
+
+    private final AtomicBoolean syncHealthy = new AtomicBoolean(true);
+
+    record BucketKey(String routeId, String id) {
+    }
+
+    private record PendingSync(TokenBucket bucket, String redisKey, long consumed) {
+    }
+
+    public LocalTokenBucketRateLimiter(int replenishRate, int burstCapacity, long maxKeys, Duration idleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, (ConfigurationService) null);
+        this.defaultConfig = new Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity);
+        this.idleTimeout = idleTimeout;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return isAllowed(routeId, id, getConfig().getOrDefault(routeId, defaultConfig));
+    }
+
+    /**
+     * Checks {@code id} against the bucket {@code routeId} with the given limits instead of the configured ones;
+     * used for rate limit policies, which pass the policy id as {@code routeId}.
+     */
+    public Mono<Response> isAllowed(String routeId, String id, Config config) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(new BucketKey(routeId, id), key -> new TokenBucket(now));
+        long remaining = bucket.tryConsume(config, now);
+        boolean allowed = remaining != TokenBucket.DENIED;
+        return Mono.just(new Response(allowed, headers(config, allowed ? remaining : 0)));
+    }
+
+    /**
+     * Switches to hybrid mode: every {@code interval}, buckets used since the last sync are reconciled with Redis.
+     */
+    public void startSync(ReactiveStringRedisTemplate redisTemplate, Duration interval) {
+        // Keys outlive local eviction by a sync, so a bucket re-created on another instance still finds them
+        String keyTtlMillis = String.valueOf(idleTimeout.plus(interval).toMillis());
+        log.info("Syncing local rate limiter buckets with Redis every {}", interval);
+        sync = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> sync(redisTemplate, keyTtlMillis), 1)
+                .subscribe();
+    }
+
+    /**
+     * One sync round over the buckets used since the previous one.
+     */
+    Mono<Void> sync(ReactiveStringRedisTemplate redisTemplate, String keyTtlMillis) {
+        return Flux.fromIterable(drainUsedBuckets())
+                .buffer(SYNC_BATCH_SIZE)
+                .concatMap(batch -> sync(redisTemplate, batch, keyTtlMillis))
+                .then();
+    }
+
+    private List<PendingSync> drainUsedBuckets() {
+        List<PendingSync> pending = new ArrayList<>();
+        buckets.asMap().forEach((key, bucket) -> {
+            long consumed = bucket.drainUnsynced();
+            if (consumed > 0) {
+                pending.add(new PendingSync(bucket, SYNC_KEY_PREFIX + key.id() + "." + key.routeId(), consumed));
+            }
+        });
+        return pending;
+    }
+
+    private Mono<Void> sync(ReactiveStringRedisTemplate redisTemplate, List<PendingSync> batch, String keyTtlMillis) {
+        List<String> keys = batch.stream().map(PendingSync::redisKey).toList();
+        List<String> args = new ArrayList<>(batch.size() + 1);
+        batch.forEach(pending -> args.add(String.valueOf(pending.consumed())));
+        args.add(keyTtlMillis);
+        return redisTemplate.execute(SYNC_SCRIPT, keys, args)
+                .reduce(new ArrayList<Long>(), (totals, chunk) -> {
+                    totals.addAll(chunk);
+                    return totals;
+                })
+                .doOnNext(totals -> {
+                    long now = System.nanoTime();
+                    for (int i = 0; i < batch.size(); i++) {
+                        PendingSync pending = batch.get(i);
+                        TokenBucket bucket = pending.bucket();
+                        long total = totals.get(i);
+                        long previous = bucket.lastSyncedTotal();
+                        // The first sync only sets the baseline; a reset counter (expired key) has nothing to charge
+                        long others = previous < 0 ? 0 : total - previous - pending.consumed();
+                        if (others > 0) {
+                            bucket.charge(others, bucket.lastSyncedAt(), now);
+                        }
+                        bucket.synced(total, now);
+                    }
+                    if (syncHealthy.compareAndSet(false, true)) {
+                        log.info("✅ Rate limiter sync with Redis recovered");
+                    }
+                })
+                .then()
+                .onErrorResume(ex -> {
+                    batch.forEach(pending -> pending.bucket().restoreUnsynced(pending.consumed()));
+                    if (syncHealthy.compareAndSet(true, false)) {
+                        log.warn("❌ Rate limiter sync with Redis failed, limiting per instance until it recovers: {}", ex.getMessage());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public void destroy() {
+        if (sync != null) {
+            sync.dispose();
+        }
+    }
+
+    private static Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+                RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()),
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+    }
+
+    /**
+     * Same knobs as {@link RedisRateLimiter.Config}.
+     */
+    public static class Config {
+
+        private int replenishRate;
+
+        private int burstCapacity = 1;
+
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity
+                    + ", requestedTokens=" + requestedTokens + "}";
+        }
+    }
+}
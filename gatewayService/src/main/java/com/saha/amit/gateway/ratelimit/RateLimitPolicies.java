@@ -0,0 +1,156 @@
+package com.saha.amit.gateway.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link RateLimitPolicyProperties} compiled into a lookup table: for every configured route and tier (plus a
+ * {@code *} row and column for anything else) the winning policy per HTTP method is resolved up front, so a
+ * request costs three hash lookups and no rule matching. Immutable; a refresh compiles a new instance.
+ */
+public final class RateLimitPolicies {
+
+    static final String ANY = "*";
+
+    /**
+     * @param id     bucket name, the rate limiter keeps one bucket per policy id and client
+     * @param limits the limits of this policy
+     */
+    public record RateLimitPolicy(String id, LocalTokenBucketRateLimiter.Config limits) {
+    }
+
+    private record Rule(RateLimitPolicy policy, String route, String tier, Set<HttpMethod> methods, int specificity) {
+
+        boolean matches(String route, String tier, HttpMethod method) {
+            return (this.route.equals(ANY) || this.route.equals(route))
+                    && (this.tier.equals(ANY) || this.tier.equals(tier))
+                    && (methods.isEmpty() || methods.contains(method));
+        }
+    }
+
+    /**
+     * Policies of one route and tier; {@code otherMethods} applies to methods outside {@link HttpMethod#values()}.
+     */
+    private record Row(Map<HttpMethod, RateLimitPolicy> byMethod, RateLimitPolicy otherMethods) {
+    }
+
+    private final Map<String, String> clientTiers;
+    private final String defaultTier;
+    private final String anonymousTier;
+    private final Map<String, Map<String, Row>> table;
+    private final Collection<RateLimitPolicy> policies;
+
+    private RateLimitPolicies(Map<String, String> clientTiers, String defaultTier, String anonymousTier,
+                              Map<String, Map<String, Row>> table, Collection<RateLimitPolicy> policies) {
+        this.clientTiers = clientTiers;
+        this.defaultTier = defaultTier;
+        this.anonymousTier = anonymousTier;
+        this.table = table;
+        this.policies = policies;
+    }
+
+    /**
+     * @param fallback applies wherever no configured policy matches
+     * @throws IllegalArgumentException for an invalid policy
+     */
+    public static RateLimitPolicies compile(RateLimitPolicyProperties properties, RateLimitPolicy fallback) {
+        List<Rule> rules = new ArrayList<>();
+        Map<String, RateLimitPolicy> policies = new LinkedHashMap<>();
+        policies.put(fallback.id(), fallback);
+        for (RateLimitPolicyProperties.Policy policy : properties.getPolicies()) {
+            rules.add(rule(policy, policies));
+        }
+
+        Set<String> routes = new LinkedHashSet<>();
+        Set<String> tiers = new LinkedHashSet<>(List.of(properties.getDefaultTier(), properties.getAnonymousTier()));
+        tiers.addAll(properties.getClients().values());
+        rules.forEach(rule -> {
+            routes.add(rule.route());
+            tiers.add(rule.tier());
+        });
+        routes.add(ANY);
+        tiers.add(ANY);
+
+        Map<String, Map<String, Row>> table = new HashMap<>();
+        for (String route : routes) {
+            Map<String, Row> byTier = new HashMap<>();
+            for (String tier : tiers) {
+                Map<HttpMethod, RateLimitPolicy> byMethod = new HashMap<>();
+                for (HttpMethod method : HttpMethod.values()) {
+                    byMethod.put(method, select(rules, route, tier, method, fallback));
+                }
+                byTier.put(tier, new Row(Map.copyOf(byMethod), select(rules, route, tier, null, fallback)));
+            }
+            table.put(route, Map.copyOf(byTier));
+        }
+
+        return new RateLimitPolicies(Map.copyOf(properties.getClients()), properties.getDefaultTier(),
+                properties.getAnonymousTier(), Map.copyOf(table), List.copyOf(policies.values()));
+    }
+
+    /**
+     * @param clientId the {@code X-Client-Id}, {@code null} for anonymous requests
+     */
+    public String tierOf(String clientId) {
+        return clientId == null ? anonymousTier : clientTiers.getOrDefault(clientId, defaultTier);
+    }
+
+    public RateLimitPolicy resolve(String routeId, String tier, HttpMethod method) {
+        Map<String, Row> byTier = table.getOrDefault(routeId, table.get(ANY));
+        Row row = byTier.getOrDefault(tier, byTier.get(ANY));
+        RateLimitPolicy policy = row.byMethod().get(method);
+        return policy != null ? policy : row.otherMethods();
+    }
+
+    /**
+     * Every distinct policy, the fallback included.
+     */
+    public Collection<RateLimitPolicy> policies() {
+        return policies;
+    }
+
+    private static Rule rule(RateLimitPolicyProperties.Policy policy, Map<String, RateLimitPolicy> policies) {
+        Set<HttpMethod> methods = new LinkedHashSet<>();
+        policy.getMethods().forEach(method -> methods.add(HttpMethod.valueOf(method.trim().toUpperCase(Locale.ROOT))));
+        String id = policy.getName() != null ? policy.getName()
+                : policy.getRoute() + ":" + policy.getTier() + ":" + (methods.isEmpty() ? ANY : methods.toString());
+
+        if (policy.getReplenishRate() < 1 || policy.getRequestedTokens() < 1
+                || policy.getBurstCapacity() < policy.getRequestedTokens()) {
+            throw new IllegalArgumentException("Rate limit policy " + id + " needs replenish-rate >= 1 and "
+                    + "burst-capacity >= requested-tokens >= 1");
+        }
+        LocalTokenBucketRateLimiter.Config limits = new LocalTokenBucketRateLimiter.Config()
+                .setReplenishRate(policy.getReplenishRate())
+                .setBurstCapacity(policy.getBurstCapacity())
+                .setRequestedTokens(policy.getRequestedTokens());
+        // Policies sharing a name share the limits of the first one
+        RateLimitPolicy compiled = policies.computeIfAbsent(id, ignored -> new RateLimitPolicy(id, limits));
+
+        int specificity = (policy.getRoute().equals(ANY) ? 0 : 4)
+                + (policy.getTier().equals(ANY) ? 0 : 2)
+                + (methods.isEmpty() ? 0 : 1);
+        return new Rule(compiled, policy.getRoute(), policy.getTier(), Set.copyOf(methods), specificity);
+    }
+
+    private static RateLimitPolicy select(List<Rule> rules, String route, String tier, HttpMethod method,
+                                          RateLimitPolicy fallback) {
+        Rule best = null;
+        for (Rule rule : rules) {
+            if ((method != null || rule.methods().isEmpty()) && rule.matches(route, tier, method)
+                    && (best == null || rule.specificity() > best.specificity())) {
+                best = rule;
+            }
+        }
+        return best == null ? fallback : best.policy();
+    }
+}
@@ -0,0 +1,88 @@
+package com.saha.amit.gateway.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds the compiled {@link RateLimitPolicies} and applies them with the configured {@link RateLimiter}.
+ * <p>
+ * Policies are recompiled after every config refresh ({@code /actuator/busrefresh}), once
+ * {@link RateLimitPolicyProperties} has been rebound; requests in flight keep using the table they resolved
+ * against. A refresh with invalid policies is logged and the previous table stays in place. Requests no policy
+ * matches fall back to {@code app.gateway.rate-limiter.replenish-rate}/{@code burst-capacity}.
+ */
+@Component
+public class RateLimitPolicyEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitPolicyEngine.class);
+
+    static final String FALLBACK_POLICY_ID = "default";
+
+    private final RateLimitPolicyProperties properties;
+    private final RateLimiter<?> rateLimiter;
+    private final Environment environment;
+
+    private volatile RateLimitPolicies policies;
+
+    public RateLimitPolicyEngine(RateLimitPolicyProperties properties, RateLimiter<?> rateLimiter, Environment environment) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void start() {
+        policies = compile();
+        log.info("🚦 Compiled {} rate limit policies", policies.policies().size());
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        try {
+            policies = compile();
+            log.info("🚦 Recompiled {} rate limit policies after config refresh", policies.policies().size());
+        } catch (IllegalArgumentException e) {
+            log.error("❌ Invalid rate limit policies after config refresh, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+
+    public RateLimitPolicies policies() {
+        return policies;
+    }
+
+    /**
+     * @param key the client the bucket is kept for
+     */
+    public Mono<RateLimiter.Response> isAllowed(RateLimitPolicies.RateLimitPolicy policy, String key) {
+        if (rateLimiter instanceof LocalTokenBucketRateLimiter local) {
+            return local.isAllowed(policy.id(), key, policy.limits());
+        }
+        // RedisRateLimiter keys its buckets by id only, so the policy goes into the id as well
+        return rateLimiter.isAllowed(policy.id(), policy.id() + ":" + key);
+    }
+
+    private RateLimitPolicies compile() {
+        LocalTokenBucketRateLimiter.Config fallbackLimits = new LocalTokenBucketRateLimiter.Config()
+                .setReplenishRate(environment.getProperty("app.gateway.rate-limiter.replenish-rate", Integer.class, 10))
+                .setBurstCapacity(environment.getProperty("app.gateway.rate-limiter.burst-capacity", Integer.class, 20));
+        RateLimitPolicies compiled = RateLimitPolicies.compile(properties,
+                new RateLimitPolicies.RateLimitPolicy(FALLBACK_POLICY_ID, fallbackLimits));
+
+        if (rateLimiter instanceof RedisRateLimiter redisRateLimiter) {
+            // RedisRateLimiter only takes limits from its per-route config; policy ids stand in for route ids
+            compiled.policies().forEach(policy -> redisRateLimiter.getConfig().put(policy.id(), new RedisRateLimiter.Config()
+                    .setReplenishRate(policy.limits().getReplenishRate())
+                    .setBurstCapacity(policy.limits().getBurstCapacity())
+                    .setRequestedTokens(policy.limits().getRequestedTokens())));
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,155 @@
+package com.saha.amit.gateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit policies as served by the config server, e.g.
+ * <pre>
+ * app.gateway.rate-limit.clients[3f0c...]=heavy-read
+ * app.gateway.rate-limit.policies[0].route=orders
+ * app.gateway.rate-limit.policies[0].tier=heavy-read
+ * app.gateway.rate-limit.policies[0].methods=GET,HEAD
+ * app.gateway.rate-limit.policies[0].replenish-rate=200
+ * app.gateway.rate-limit.policies[0].burst-capacity=400
+ * </pre>
+ * Rebound on every config refresh; {@link RateLimitPolicyEngine} then recompiles them.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gateway.rate-limit")
+public class RateLimitPolicyProperties {
+
+    /**
+     * Tier of clients not listed in {@link #clients}.
+     */
+    private String defaultTier = "standard";
+
+    /**
+     * Tier of requests without {@code X-Client-Id}; they are limited per remote address.
+     */
+    private String anonymousTier = "anonymous";
+
+    /**
+     * {@code X-Client-Id} to tier.
+     */
+    private Map<String, String> clients = new LinkedHashMap<>();
+
+    private List<Policy> policies = new ArrayList<>();
+
+    public String getDefaultTier() {
+        return defaultTier;
+    }
+
+    public void setDefaultTier(String defaultTier) {
+        this.defaultTier = defaultTier;
+    }
+
+    public String getAnonymousTier() {
+        return anonymousTier;
+    }
+
+    public void setAnonymousTier(String anonymousTier) {
+        this.anonymousTier = anonymousTier;
+    }
+
+    public Map<String, String> getClients() {
+        return clients;
+    }
+
+    public void setClients(Map<String, String> clients) {
+        this.clients = clients;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<Policy> policies) {
+        this.policies = policies;
+    }
+
+    /**
+     * One limit. {@code route} and {@code tier} default to {@code *}, empty {@code methods} to every method.
+     * The most specific matching policy wins (route over tier over methods); ties go to the first declared.
+     */
+    public static class Policy {
+
+        /**
+         * Bucket name; policies sharing a name share buckets. Defaults to a name derived from the matchers.
+         */
+        private String name;
+
+        private String route = RateLimitPolicies.ANY;
+
+        private String tier = RateLimitPolicies.ANY;
+
+        private List<String> methods = new ArrayList<>();
+
+        private int replenishRate;
+
+        private int burstCapacity;
+
+        private int requestedTokens = 1;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public void setRoute(String route) {
+            this.route = route;
+        }
+
+        public String getTier() {
+            return tier;
+        }
+
+        public void setTier(String tier) {
+            this.tier = tier;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+}
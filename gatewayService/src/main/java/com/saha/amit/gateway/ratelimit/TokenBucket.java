@@ -0,0 +1,112 @@
+package com.saha.amit.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket for one client on one route, kept in its virtual-time form (GCRA): the whole state is
+ * the instant the bucket will be full again, so a request costs one CAS and no allocation.
+ * <p>
+ * Tokens are added at {@code replenishRate} per second up to {@code burstCapacity}. A request of {@code n}
+ * tokens moves the "full again" instant {@code n} emission intervals into the future and is allowed as long as
+ * that stays within {@code burstCapacity} intervals of now.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Returned by {@link #tryConsume} when the request is denied.
+     */
+    static final long DENIED = -1;
+
+    private final AtomicLong fullAt;
+
+    /**
+     * Tokens consumed here since the last hybrid sync.
+     */
+    private final AtomicLong unsynced = new AtomicLong();
+
+    /**
+     * Cluster-wide count seen at the last hybrid sync, {@code -1} before the first one. Only the sync touches it.
+     */
+    private volatile long lastSyncedTotal = -1;
+
+    /**
+     * {@link System#nanoTime()} of the last hybrid sync. Only the sync touches it.
+     */
+    private volatile long lastSyncedAt;
+
+    /**
+     * Limits of the latest request, used to charge consumption from other instances.
+     */
+    private volatile LocalTokenBucketRateLimiter.Config config;
+
+    TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return the tokens left after the request, or {@link #DENIED}
+     */
+    long tryConsume(LocalTokenBucketRateLimiter.Config config, long nowNanos) {
+        if (this.config != config) {
+            this.config = config;
+        }
+        int tokens = config.getRequestedTokens();
+        long interval = emissionInterval(config.getReplenishRate());
+        long tolerance = config.getBurstCapacity() * interval;
+        long cost = tokens * interval;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + cost;
+            if (next - nowNanos > tolerance) {
+                return DENIED;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                unsynced.addAndGet(tokens);
+                return (tolerance - (next - nowNanos)) / interval;
+            }
+        }
+    }
+
+    /**
+     * Takes tokens consumed elsewhere since {@code sinceNanos} out of the bucket, never leaving it more than empty.
+     * They are charged as of {@code sinceNanos}, so whatever has refilled by now is not taken again.
+     */
+    void charge(long tokens, long sinceNanos, long nowNanos) {
+        LocalTokenBucketRateLimiter.Config current = config;
+        if (current == null) {
+            return;
+        }
+        long interval = emissionInterval(current.getReplenishRate());
+        long limit = nowNanos + current.getBurstCapacity() * interval;
+        long cost = Math.min(tokens, current.getBurstCapacity()) * interval;
+        fullAt.getAndUpdate(fullAtNanos -> Math.min(Math.max(fullAtNanos, sinceNanos) + cost, limit));
+    }
+
+    long drainUnsynced() {
+        return unsynced.getAndSet(0);
+    }
+
+    void restoreUnsynced(long tokens) {
+        unsynced.addAndGet(tokens);
+    }
+
+    long lastSyncedTotal() {
+        return lastSyncedTotal;
+    }
+
+    long lastSyncedAt() {
+        return lastSyncedAt;
+    }
+
+    void synced(long total, long nowNanos) {
+        this.lastSyncedTotal = total;
+        this.lastSyncedAt = nowNanos;
+    }
+
+    private static long emissionInterval(int replenishRate) {
+        return NANOS_PER_SECOND / Math.max(1, replenishRate);
+    }
+}
@@ -0,0 +1,105 @@
+package com.saha.amit.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxSize(DataSize.ofKilobytes(10));
+        responseCache = new ResponseCache(properties, new SimpleMeterRegistry());
+        responseCache.start();
+    }
+
+    @Test
+    void entriesAreEvictedByBodySize() {
+        // About 4.5KB each with the per-entry overhead, so only two fit into 10KB
+        List<ResponseCache.Key> keys = IntStream.range(0, 3)
+                .mapToObj(i -> key("alice", "/customers/" + i))
+                .toList();
+        keys.forEach(key -> put(key, new byte[4_000]));
+
+        long cached = awaitCached(keys, count -> count <= 2);
+
+        assertThat(cached).isEqualTo(2);
+    }
+
+    @Test
+    void smallEntriesAreNotEvictedForTheirCount() {
+        List<ResponseCache.Key> keys = IntStream.range(0, 10)
+                .mapToObj(i -> key("alice", "/customers/" + i))
+                .toList();
+        keys.forEach(key -> put(key, new byte[100]));
+
+        assertThat(keys).allSatisfy(key -> assertThat(responseCache.get(key)).isNotNull());
+    }
+
+    @Test
+    void invalidateDropsOnlyThatPrincipalsEntriesOfTheRoute() {
+        ResponseCache.Key alice = key("alice", "/customers/1");
+        ResponseCache.Key bob = key("bob", "/customers/1");
+        ResponseCache.Key aliceOtherRoute = new ResponseCache.Key("orders", "alice", "/orders/1", "*/*");
+        put(alice, new byte[10]);
+        put(bob, new byte[10]);
+        put(aliceOtherRoute, new byte[10]);
+
+        responseCache.invalidate("customers", "alice");
+
+        assertThat(responseCache.get(alice)).isNull();
+        assertThat(responseCache.get(bob)).isNotNull();
+        assertThat(responseCache.get(aliceOtherRoute)).isNotNull();
+    }
+
+    @Test
+    void entryStoredAgainAfterInvalidationIsInvalidatedAgain() {
+        ResponseCache.Key alice = key("alice", "/customers/1");
+        put(alice, new byte[10]);
+        responseCache.invalidate("customers", "alice");
+        put(alice, new byte[10]);
+
+        responseCache.invalidate("customers", "alice");
+
+        assertThat(responseCache.get(alice)).isNull();
+    }
+
+    @Test
+    void etagIsStableForTheSameBody() {
+        assertThat(ResponseCache.etag("body".getBytes())).isEqualTo(ResponseCache.etag("body".getBytes()))
+                .isNotEqualTo(ResponseCache.etag("other".getBytes()))
+                .startsWith("\"").endsWith("\"");
+    }
+
+    private static ResponseCache.Key key(String principal, String uri) {
+        return new ResponseCache.Key("customers", principal, uri, "*/*");
+    }
+
+    private void put(ResponseCache.Key key, byte[] body) {
+        responseCache.put(key, HttpStatus.OK, new HttpHeaders(), body, ResponseCache.etag(body), Duration.ofMinutes(1));
+    }
+
+    /**
+     * Caffeine evicts asynchronously, so the count is polled until it settles.
+     */
+    private long awaitCached(List<ResponseCache.Key> keys, LongPredicate settled) {
+        return Mono.fromCallable(() -> keys.stream().filter(key -> responseCache.get(key) != null).count())
+                .filter(settled::test)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,144 @@
+package com.saha.amit.gateway.filter;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtAuthorizationFilterTest {
+
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(
+            Base64.getDecoder().decode("oycBHAYRCc8fMxKkRVx9FA4EC+pWAgmeRGxQFbLGb5Y="));
+    private static final String EMAIL = "alice@example.com";
+
+    private final List<String> principals = new ArrayList<>();
+    private JwtAuthorizationFilter filter;
+    private JwtParser jwtParser;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthorizationFilter(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "cacheEnabled", true);
+        ReflectionTestUtils.setField(filter, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(filter, "cacheMaxTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(filter, "maxTokenLength", 8192);
+        filter.start();
+
+        // Counts verifications while still verifying with the filter's own parser
+        jwtParser = mock(JwtParser.class, delegatesTo(ReflectionTestUtils.getField(filter, "jwtParser")));
+        ReflectionTestUtils.setField(filter, "jwtParser", jwtParser);
+    }
+
+    @Test
+    void cacheHitSkipsSignatureVerification() {
+        String token = token(EMAIL, new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()));
+
+        assertThat(run(token)).isNull();
+        assertThat(run(token)).isNull();
+
+        verify(jwtParser, times(1)).parseClaimsJws(anyString());
+        assertThat(principals).containsExactly(EMAIL, EMAIL);
+    }
+
+    @Test
+    void cachedTokenIsNotAcceptedPastItsExp() {
+        // exp has second precision, so it is rounded to a whole second from now
+        long expiresAtMillis = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        String token = token(EMAIL, new Date(expiresAtMillis));
+        assertThat(run(token)).isNull();
+
+        Mono.fromCallable(System::currentTimeMillis)
+                .filter(now -> now > expiresAtMillis)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(run(token)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(jwtParser, times(2)).parseClaimsJws(anyString());
+        assertThat(principals).containsExactly(EMAIL);
+    }
+
+    @Test
+    void tamperedTokenIsNeverServedFromTheCache() {
+        String token = token(EMAIL, new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()));
+        assertThat(run(token)).isNull();
+
+        // Same header and signature, claims swapped for someone else's
+        String[] parts = token.split("\\.");
+        String otherClaims = Jwts.builder().setSubject("43").claim("email", "mallory@example.com").compact()
+                .split("\\.")[1];
+        String tampered = parts[0] + '.' + otherClaims + '.' + parts[2];
+
+        assertThat(run(tampered)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(run(tampered)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(jwtParser, times(3)).parseClaimsJws(anyString());
+        assertThat(principals).containsExactly(EMAIL);
+    }
+
+    @Test
+    void expiredTokenIsNeverCached() {
+        String token = token(EMAIL, new Date(System.currentTimeMillis() - Duration.ofMinutes(1).toMillis()));
+
+        assertThat(run(token)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(run(token)).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        verify(jwtParser, times(2)).parseClaimsJws(anyString());
+        assertThat(principals).isEmpty();
+    }
+
+    @Test
+    void malformedTokenNeverReachesTheParser() {
+        assertThat(run("not-a-jwt")).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        verify(jwtParser, times(0)).parseClaimsJws(anyString());
+    }
+
+    /**
+     * @return the response status, {@code null} when the request was let through
+     */
+    private HttpStatusCode run(String token) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/orders/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        WebFilterChain chain = chainExchange -> ReactiveSecurityContextHolder.getContext()
+                .doOnNext(context -> principals.add(context.getAuthentication().getName()))
+                .then();
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange.getResponse().getStatusCode();
+    }
+
+    private static String token(String email, Date expiresAt) {
+        return Jwts.builder()
+                .setSubject("42")
+                .claim("email", email)
+                .setIssuedAt(new Date())
+                .setExpiration(expiresAt)
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,106 @@
+package com.saha.amit.gateway.filter;
+
+import com.saha.amit.gateway.ratelimit.LocalTokenBucketRateLimiter;
+import com.saha.amit.gateway.ratelimit.RateLimitPolicyEngine;
+import com.saha.amit.gateway.ratelimit.RateLimitPolicyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitPolicyGatewayFilterTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private RateLimitPolicyGatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // One request per second per client on the orders route, so nothing refills while a test runs
+        RateLimitPolicyProperties.Policy policy = new RateLimitPolicyProperties.Policy();
+        policy.setName("orders");
+        policy.setRoute("orders");
+        policy.setReplenishRate(1);
+        policy.setBurstCapacity(1);
+        RateLimitPolicyProperties properties = new RateLimitPolicyProperties();
+        properties.setPolicies(List.of(policy));
+
+        RateLimitPolicyEngine engine = new RateLimitPolicyEngine(properties,
+                new LocalTokenBucketRateLimiter(1, 1, 1_000, Duration.ofMinutes(10)), new MockEnvironment());
+        engine.start();
+        filter = new RateLimitPolicyGatewayFilter(engine);
+    }
+
+    @Test
+    void anonymousCallersAreLimitedPerRemoteAddress() {
+        assertThat(run(anonymous("10.0.0.1", 40_000)).getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Same host from another port shares the bucket
+        assertThat(run(anonymous("10.0.0.1", 40_001)).getResponse().getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(run(anonymous("10.0.0.2", 40_000)).getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void clientsAreLimitedByClientIdWhateverTheirAddress() {
+        run(client("client-1", "10.0.0.1"));
+
+        assertThat(run(client("client-1", "10.0.0.2")).getResponse().getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(run(client("client-2", "10.0.0.1")).getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void deniedRequestGets429WithTheRateLimitHeadersAndNeverGoesUpstream() {
+        MockServerWebExchange allowed = run(client("client-1", "10.0.0.1"));
+        MockServerWebExchange denied = run(client("client-1", "10.0.0.1"));
+
+        assertThat(allowed.getResponse().getHeaders().getFirst(RedisRateLimiter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(denied.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(denied.getResponse().getHeaders().getFirst(RedisRateLimiter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(denied.getResponse().getHeaders().getFirst(RedisRateLimiter.REPLENISH_RATE_HEADER)).isEqualTo("1");
+        assertThat(denied.getResponse().getHeaders().getFirst(RedisRateLimiter.BURST_CAPACITY_HEADER)).isEqualTo("1");
+        assertThat(denied.getResponse().getHeaders().getFirst(RedisRateLimiter.REQUESTED_TOKENS_HEADER)).isEqualTo("1");
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    private MockServerWebExchange run(MockServerWebExchange exchange) {
+        GatewayFilterChain chain = chainExchange -> {
+            upstreamCalls.incrementAndGet();
+            chainExchange.getResponse().setStatusCode(HttpStatus.OK);
+            return chainExchange.getResponse().setComplete();
+        };
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders")
+                .uri(URI.create("http://localhost"))
+                .predicate(ignored -> true)
+                .build());
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static MockServerWebExchange anonymous(String host, int port) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/orders/1")
+                .remoteAddress(new InetSocketAddress(host, port)));
+    }
+
+    private static MockServerWebExchange client(String clientId, String host) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/orders/1")
+                .header("X-Client-Id", clientId)
+                .remoteAddress(new InetSocketAddress(host, 40_000)));
+    }
+}
@@ -0,0 +1,161 @@
+package com.saha.amit.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingGatewayFilterTest {
+
+    private static final String PATH = "/orders/1";
+    private static final String BODY = "{\"orderId\":1}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private RequestCoalescingGatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestCoalescingGatewayFilter(meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxBodySize", DataSize.ofKilobytes(1));
+        ReflectionTestUtils.setField(filter, "maxWait", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        List<MockServerWebExchange> exchanges = List.of(get(), get(), get(), get());
+
+        awaitAfterRelease(exchanges.stream().map(exchange -> run(exchange, "alice", release.asMono())).toList());
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(exchanges).allSatisfy(exchange -> {
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        });
+        assertThat(exchanges.get(0).getResponse().getHeaders()
+                .getFirst(RequestCoalescingGatewayFilter.COALESCED_HEADER)).isNull();
+        assertThat(exchanges.subList(1, 4)).allSatisfy(exchange -> assertThat(exchange.getResponse().getHeaders()
+                .getFirst(RequestCoalescingGatewayFilter.COALESCED_HEADER)).isEqualTo("true"));
+        assertThat(count("follower")).isEqualTo(3);
+    }
+
+    @Test
+    void followersGoUpstreamThemselvesWhenTheBodyExceedsTheMaxBodySize() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxBodySize", DataSize.ofBytes(BODY.length() - 1));
+        List<MockServerWebExchange> exchanges = List.of(get(), get(), get());
+
+        awaitAfterRelease(exchanges.stream().map(exchange -> run(exchange, "alice", release.asMono())).toList());
+
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(exchanges).allSatisfy(exchange -> {
+            assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+            assertThat(exchange.getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilter.COALESCED_HEADER))
+                    .isNull();
+        });
+        assertThat(count("fallback")).isEqualTo(2);
+    }
+
+    @Test
+    void followerGoesUpstreamItselfOnceTheMaxWaitElapses() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxWait", Duration.ofMillis(50));
+        MockServerWebExchange leader = get();
+        MockServerWebExchange follower = get();
+
+        CompletableFuture<Void> leading = run(leader, "alice", release.asMono()).toFuture();
+        // The leader is still waiting for its upstream when the follower gives up on it
+        run(follower, "alice", Mono.empty()).block(Duration.ofSeconds(5));
+
+        assertThat(leading).isNotDone();
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(follower.getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilter.COALESCED_HEADER))
+                .isNull();
+        assertThat(count("fallback")).isEqualTo(1);
+
+        release.tryEmitEmpty();
+        leading.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void requestsDifferingInPrincipalOrNegotiationAreNotMerged() throws Exception {
+        List<MockServerWebExchange> exchanges = List.of(
+                get(),
+                get(),
+                MockServerWebExchange.from(MockServerHttpRequest.get(PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip")),
+                MockServerWebExchange.from(MockServerHttpRequest.get(PATH)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")));
+        List<String> principals = List.of("alice", "bob", "alice", "alice");
+
+        awaitAfterRelease(List.of(
+                run(exchanges.get(0), principals.get(0), release.asMono()),
+                run(exchanges.get(1), principals.get(1), release.asMono()),
+                run(exchanges.get(2), principals.get(2), release.asMono()),
+                run(exchanges.get(3), principals.get(3), release.asMono())));
+
+        assertThat(upstreamCalls).hasValue(4);
+        assertThat(count("leader")).isEqualTo(4);
+        assertThat(exchanges).allSatisfy(exchange -> assertThat(exchange.getResponse().getHeaders()
+                .getFirst(RequestCoalescingGatewayFilter.COALESCED_HEADER)).isNull());
+    }
+
+    /**
+     * Subscribes to every request in order, so the first leads and the rest find its flight, then lets the
+     * upstream respond.
+     */
+    private void awaitAfterRelease(List<Mono<Void>> requests) throws Exception {
+        CompletableFuture<Void> done = Mono.when(requests).toFuture();
+        release.tryEmitEmpty();
+        done.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param upstream completes when the upstream starts responding
+     */
+    private Mono<Void> run(MockServerWebExchange exchange, String principal, Mono<Void> upstream) {
+        GatewayFilterChain chain = chainExchange -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.then(Mono.defer(() -> {
+                ServerHttpResponse response = chainExchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.just(
+                        response.bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+        return filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new TestingAuthenticationToken(principal, null)));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("gateway.coalescing.requests", "route", "unknown", "outcome", outcome).count();
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+    }
+}
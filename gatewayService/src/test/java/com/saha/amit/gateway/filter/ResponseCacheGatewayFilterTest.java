@@ -0,0 +1,214 @@
+package com.saha.amit.gateway.filter;
+
+import com.saha.amit.gateway.cache.ResponseCache;
+import com.saha.amit.gateway.cache.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterTest {
+
+    private static final String PATH = "/customers/1";
+    private static final String BODY = "{\"id\":1}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private ResponseCacheGatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ResponseCache responseCache = new ResponseCache(properties, meterRegistry);
+        responseCache.start();
+        filter = new ResponseCacheGatewayFilter(responseCache, properties, meterRegistry);
+    }
+
+    @Test
+    void cacheableResponseIsServedFromTheCache() {
+        MockServerWebExchange miss = get(PATH);
+        run(miss, cacheable(), "alice");
+        MockServerWebExchange hit = get(PATH);
+        run(hit, cacheable(), "alice");
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(hit.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+        assertThat(hit.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(hit.getResponse().getHeaders().getETag()).isEqualTo(miss.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithTheStoredEtag() {
+        MockServerWebExchange miss = get(PATH);
+        run(miss, cacheable(), "alice");
+        String etag = miss.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get(PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+        run(conditional, cacheable(), "alice");
+
+        assertThat(etag).isEqualTo(ResponseCache.etag(BODY.getBytes(StandardCharsets.UTF_8)));
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(conditional.getResponse().getHeaders().getETag()).isEqualTo(etag);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void matchingIfNoneMatchOnAnUncacheableResponseUsesTheDownstreamEtag() {
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get(PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+
+        run(conditional, headers -> {
+            headers.setCacheControl("no-store");
+            headers.setETag("\"v1\"");
+        }, "alice");
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(conditional.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void noStoreResponseIsNotCached() {
+        assertNotCached(headers -> headers.setCacheControl("no-store, max-age=60"));
+    }
+
+    @Test
+    void privateResponseIsNotCached() {
+        assertNotCached(headers -> headers.setCacheControl("private, max-age=60"));
+    }
+
+    @Test
+    void responseSettingACookieIsNotCached() {
+        assertNotCached(headers -> {
+            headers.setCacheControl("max-age=60");
+            headers.add(HttpHeaders.SET_COOKIE, "session=1");
+        });
+    }
+
+    @Test
+    void responseVaryingOnEverythingIsNotCached() {
+        assertNotCached(headers -> {
+            headers.setCacheControl("max-age=60");
+            headers.setVary(List.of("*"));
+        });
+    }
+
+    @Test
+    void uncacheableResponseStreamsThroughWithoutBuffering() {
+        MockServerWebExchange exchange = get(PATH);
+        DataBuffer first = DefaultDataBufferFactory.sharedInstance.wrap("first".getBytes(StandardCharsets.UTF_8));
+        GatewayFilterChain neverEnding = chainExchange -> {
+            chainExchange.getResponse().setStatusCode(HttpStatus.OK);
+            chainExchange.getResponse().getHeaders().setCacheControl("no-store");
+            return chainExchange.getResponse().writeWith(Flux.concat(Mono.just(first), Flux.never()));
+        };
+
+        Disposable running = filter.filter(exchange, neverEnding).subscribe();
+        try {
+            // Buffering would hold the first chunk back until the body completes, which it never does
+            StepVerifier.create(exchange.getResponse().getBody().take(1)
+                            .map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+                    .expectNext("first")
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(2));
+            assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+        } finally {
+            running.dispose();
+        }
+    }
+
+    @Test
+    void entriesAreKeptPerPrincipal() {
+        run(get(PATH), cacheable(), "alice");
+        MockServerWebExchange bob = get(PATH);
+        run(bob, cacheable(), "bob");
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(bob.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilter.CACHE_STATUS_HEADER)).isNull();
+    }
+
+    @Test
+    void writesToTheRouteInvalidateThePrincipalsEntries() {
+        for (HttpMethod method : List.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)) {
+            setUp();
+            upstreamCalls.set(0);
+            run(get(PATH), cacheable(), "alice");
+            run(get(PATH), cacheable(), "bob");
+
+            run(MockServerWebExchange.from(MockServerHttpRequest.method(method, URI.create(PATH))), cacheable(), "alice");
+            run(get(PATH), cacheable(), "alice");
+            run(get(PATH), cacheable(), "bob");
+
+            // Both stores, the write and alice's refetch; bob's entry survived
+            assertThat(upstreamCalls).as(method.name()).hasValue(4);
+        }
+    }
+
+    private void assertNotCached(Consumer<HttpHeaders> headers) {
+        MockServerWebExchange first = get(PATH);
+        run(first, headers, "alice");
+        run(get(PATH), headers, "alice");
+
+        assertThat(upstreamCalls).hasValue(2);
+        // Not stored and not conditional, so nothing was hashed either
+        assertThat(first.getResponse().getHeaders().getETag()).isNull();
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+
+    private static Consumer<HttpHeaders> cacheable() {
+        return headers -> headers.setCacheControl("max-age=60");
+    }
+
+    private void run(MockServerWebExchange exchange, Consumer<HttpHeaders> responseHeaders, String principal) {
+        GatewayFilterChain chain = chainExchange -> {
+            upstreamCalls.incrementAndGet();
+            chainExchange.getResponse().setStatusCode(HttpStatus.OK);
+            responseHeaders.accept(chainExchange.getResponse().getHeaders());
+            return chainExchange.getResponse().writeWith(Mono.just(
+                    chainExchange.getResponse().bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+        };
+        filter.filter(withRoute(exchange), chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new TestingAuthenticationToken(principal, null)))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return withRoute(MockServerWebExchange.from(MockServerHttpRequest.get(path)));
+    }
+
+    /**
+     * Every request goes through the same route, so writes and reads share their cache scope.
+     */
+    private static MockServerWebExchange withRoute(MockServerWebExchange exchange) {
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("customers")
+                .uri(URI.create("http://localhost"))
+                .predicate(ignored -> true)
+                .build());
+        return exchange;
+    }
+}
@@ -0,0 +1,144 @@
+package com.saha.amit.gateway.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LocalTokenBucketRateLimiterTest {
+
+    private static final String KEY = "local_rate_limiter.client-1.orders";
+    private static final String KEY_TTL = "600000";
+
+    // One token per second, so nothing refills while a test runs
+    private final LocalTokenBucketRateLimiter.Config config = new LocalTokenBucketRateLimiter.Config()
+            .setReplenishRate(1)
+            .setBurstCapacity(20);
+
+    private final Map<String, Long> counters = new ConcurrentHashMap<>();
+    private final List<List<String>> scriptArgs = new ArrayList<>();
+    private ReactiveStringRedisTemplate redisTemplate;
+    private LocalTokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        doAnswer(invocation -> runScript(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+        rateLimiter = new LocalTokenBucketRateLimiter(1, 20, 1_000, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void unusedBucketsAreNotSynced() {
+        consume(1);
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+        assertThat(scriptArgs.get(0)).containsExactly("1", KEY_TTL);
+    }
+
+    @Test
+    void firstSyncOnlySetsTheBaseline() {
+        // Consumed by other instances before this one saw the bucket
+        counters.put(KEY, 15L);
+        consume(2);
+
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+
+        assertThat(counters).containsEntry(KEY, 17L);
+        assertThat(remainingAfterNextRequest()).isEqualTo(17);
+    }
+
+    @Test
+    void consumptionOfOtherInstancesIsCharged() {
+        consume(1);
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+
+        counters.merge(KEY, 5L, Long::sum);
+        consume(1);
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+
+        // 2 here, 5 elsewhere and this request
+        assertThat(remainingAfterNextRequest()).isEqualTo(12);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumptionIsRestoredWhenRedisFails() {
+        consume(1);
+        doReturn(Flux.error(new RedisConnectionFailureException("down")))
+                .doAnswer(invocation -> runScript(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+
+        // A failed sync completes quietly; requests keep being limited locally
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+        consume(1);
+        rateLimiter.sync(redisTemplate, KEY_TTL).block();
+
+        assertThat(scriptArgs).hasSize(1);
+        assertThat(scriptArgs.get(0)).containsExactly("2", KEY_TTL);
+        assertThat(counters).containsEntry(KEY, 2L);
+    }
+
+    @Test
+    void responsesCarryTheRedisRateLimiterHeaders() {
+        RateLimiter.Response response = rateLimiter.isAllowed("orders", "client-1", config).block();
+
+        assertThat(response.isAllowed()).isTrue();
+        assertThat(response.getHeaders())
+                .containsEntry(RedisRateLimiter.REMAINING_HEADER, "19")
+                .containsEntry(RedisRateLimiter.REPLENISH_RATE_HEADER, "1")
+                .containsEntry(RedisRateLimiter.BURST_CAPACITY_HEADER, "20")
+                .containsEntry(RedisRateLimiter.REQUESTED_TOKENS_HEADER, "1");
+    }
+
+    @Test
+    void deniedOnceTheBurstIsUsed() {
+        consume(20);
+
+        RateLimiter.Response response = rateLimiter.isAllowed("orders", "client-1", config).block();
+
+        assertThat(response.isAllowed()).isFalse();
+        assertThat(response.getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "0");
+    }
+
+    /**
+     * Does what the sync script does: INCRBY every key by its argument and return the totals.
+     */
+    private Flux<List<Long>> runScript(List<String> keys, List<String> args) {
+        scriptArgs.add(args);
+        List<Long> totals = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            totals.add(counters.merge(keys.get(i), Long.parseLong(args.get(i)), Long::sum));
+        }
+        return Flux.just(totals);
+    }
+
+    private void consume(int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(rateLimiter.isAllowed("orders", "client-1", config).block().isAllowed()).isTrue();
+        }
+    }
+
+    private long remainingAfterNextRequest() {
+        return Long.parseLong(rateLimiter.isAllowed("orders", "client-1", config).block()
+                .getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+    }
+}
@@ -0,0 +1,113 @@
+package com.saha.amit.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitPoliciesTest {
+
+    private static final RateLimitPolicies.RateLimitPolicy FALLBACK = new RateLimitPolicies.RateLimitPolicy(
+            "default", new LocalTokenBucketRateLimiter.Config().setReplenishRate(10).setBurstCapacity(20));
+
+    @Test
+    void mostSpecificPolicyWinsRouteOverTierOverMethods() {
+        RateLimitPolicies policies = RateLimitPolicies.compile(properties(
+                policy("writes", "*", "*", "POST"),
+                policy("gold", "*", "gold"),
+                policy("orders", "orders", "*"),
+                policy("orders-gold", "orders", "gold"),
+                policy("orders-gold-reads", "orders", "gold", "GET", "HEAD")), FALLBACK);
+
+        assertThat(resolve(policies, "orders", "gold", HttpMethod.GET)).isEqualTo("orders-gold-reads");
+        assertThat(resolve(policies, "orders", "gold", HttpMethod.POST)).isEqualTo("orders-gold");
+        assertThat(resolve(policies, "orders", "standard", HttpMethod.POST)).isEqualTo("orders");
+        assertThat(resolve(policies, "customers", "gold", HttpMethod.POST)).isEqualTo("gold");
+        assertThat(resolve(policies, "customers", "standard", HttpMethod.POST)).isEqualTo("writes");
+        assertThat(resolve(policies, "customers", "standard", HttpMethod.GET)).isEqualTo("default");
+    }
+
+    @Test
+    void unknownRoutesAndTiersFallBackToTheWildcardRowAndColumn() {
+        RateLimitPolicies policies = RateLimitPolicies.compile(properties(
+                policy("orders", "orders", "*"),
+                policy("orders-gold", "orders", "gold"),
+                policy("gold", "*", "gold"),
+                policy("any", "*", "*")), FALLBACK);
+
+        // Known route, tier without a policy of its own
+        assertThat(resolve(policies, "orders", "platinum", HttpMethod.GET)).isEqualTo("orders");
+        // Route without a policy of its own, known tier
+        assertThat(resolve(policies, "payments", "gold", HttpMethod.GET)).isEqualTo("gold");
+        // Neither known
+        assertThat(resolve(policies, "payments", "platinum", HttpMethod.GET)).isEqualTo("any");
+    }
+
+    @Test
+    void tiesGoToTheFirstDeclaredPolicy() {
+        RateLimitPolicies policies = RateLimitPolicies.compile(properties(
+                policy("first", "orders", "*"),
+                policy("second", "orders", "*")), FALLBACK);
+
+        assertThat(resolve(policies, "orders", "standard", HttpMethod.GET)).isEqualTo("first");
+    }
+
+    @Test
+    void clientsAreMappedToTiers() {
+        RateLimitPolicyProperties properties = properties();
+        properties.setClients(Map.of("client-gold", "gold"));
+        RateLimitPolicies policies = RateLimitPolicies.compile(properties, FALLBACK);
+
+        assertThat(policies.tierOf("client-gold")).isEqualTo("gold");
+        assertThat(policies.tierOf("client-unknown")).isEqualTo("standard");
+        assertThat(policies.tierOf(null)).isEqualTo("anonymous");
+    }
+
+    @Test
+    void policiesSharingANameShareTheLimitsOfTheFirst() {
+        RateLimitPolicyProperties.Policy reads = policy("orders", "orders", "*", "GET");
+        RateLimitPolicyProperties.Policy writes = policy("orders", "orders", "*", "POST");
+        writes.setReplenishRate(1);
+        RateLimitPolicies policies = RateLimitPolicies.compile(properties(reads, writes), FALLBACK);
+
+        assertThat(policies.resolve("orders", "standard", HttpMethod.POST))
+                .isSameAs(policies.resolve("orders", "standard", HttpMethod.GET));
+        assertThat(policies.policies()).extracting(RateLimitPolicies.RateLimitPolicy::id)
+                .containsExactly("default", "orders");
+    }
+
+    @Test
+    void invalidLimitsAreRejected() {
+        RateLimitPolicyProperties.Policy invalid = policy("orders", "orders", "*");
+        invalid.setBurstCapacity(0);
+
+        assertThatThrownBy(() -> RateLimitPolicies.compile(properties(invalid), FALLBACK))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("orders");
+    }
+
+    private static String resolve(RateLimitPolicies policies, String route, String tier, HttpMethod method) {
+        return policies.resolve(route, tier, method).id();
+    }
+
+    static RateLimitPolicyProperties properties(RateLimitPolicyProperties.Policy... policies) {
+        RateLimitPolicyProperties properties = new RateLimitPolicyProperties();
+        properties.setPolicies(List.of(policies));
+        return properties;
+    }
+
+    static RateLimitPolicyProperties.Policy policy(String name, String route, String tier, String... methods) {
+        RateLimitPolicyProperties.Policy policy = new RateLimitPolicyProperties.Policy();
+        policy.setName(name);
+        policy.setRoute(route);
+        policy.setTier(tier);
+        policy.setMethods(List.of(methods));
+        policy.setReplenishRate(5);
+        policy.setBurstCapacity(10);
+        return policy;
+    }
+}
@@ -0,0 +1,93 @@
+package com.saha.amit.gateway.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.saha.amit.gateway.ratelimit.RateLimitPoliciesTest.policy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitPolicyEngineTest {
+
+    private final RateLimitPolicyProperties properties = new RateLimitPolicyProperties();
+    private AnnotationConfigApplicationContext context;
+    private RateLimitPolicyEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        properties.setPolicies(List.of(policy("orders", "orders", "*")));
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "app.gateway.rate-limiter.replenish-rate", 3,
+                "app.gateway.rate-limiter.burst-capacity", 6)));
+        context.registerBean(RateLimitPolicyProperties.class, () -> properties);
+        context.registerBean(LocalTokenBucketRateLimiter.class,
+                () -> new LocalTokenBucketRateLimiter(3, 6, 1_000, Duration.ofMinutes(10)));
+        context.registerBean(RateLimitPolicyEngine.class);
+        context.refresh();
+        engine = context.getBean(RateLimitPolicyEngine.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void unmatchedRequestsFallBackToTheRateLimiterDefaults() {
+        RateLimitPolicies.RateLimitPolicy fallback = engine.policies().resolve("customers", "standard", HttpMethod.GET);
+
+        assertThat(fallback.id()).isEqualTo(RateLimitPolicyEngine.FALLBACK_POLICY_ID);
+        assertThat(fallback.limits().getReplenishRate()).isEqualTo(3);
+        assertThat(fallback.limits().getBurstCapacity()).isEqualTo(6);
+    }
+
+    @Test
+    void policiesAreRecompiledOnConfigRefresh() {
+        assertThat(resolveOrders()).isEqualTo("orders");
+
+        // What the binder does on a refresh before the event goes out
+        properties.setPolicies(List.of(policy("orders-v2", "orders", "*")));
+        context.publishEvent(new RefreshScopeRefreshedEvent());
+
+        assertThat(resolveOrders()).isEqualTo("orders-v2");
+    }
+
+    @Test
+    void invalidRefreshKeepsThePreviousPolicies() {
+        RateLimitPolicies before = engine.policies();
+        RateLimitPolicyProperties.Policy invalid = policy("orders-v2", "orders", "*");
+        invalid.setReplenishRate(0);
+
+        properties.setPolicies(List.of(invalid));
+        context.publishEvent(new RefreshScopeRefreshedEvent());
+
+        assertThat(engine.policies()).isSameAs(before);
+        assertThat(resolveOrders()).isEqualTo("orders");
+    }
+
+    @Test
+    void bucketsAreKeptPerPolicyAndClient() {
+        RateLimitPolicies.RateLimitPolicy policy = engine.policies().resolve("orders", "standard", HttpMethod.GET);
+        int allowed = 0;
+        while (allowed < 100 && engine.isAllowed(policy, "client-1").block().isAllowed()) {
+            allowed++;
+        }
+
+        assertThat(allowed).isBetween(10, 99);
+        assertThat(engine.isAllowed(policy, "client-2").block().isAllowed()).isTrue();
+    }
+
+    private String resolveOrders() {
+        return engine.policies().resolve("orders", "standard", HttpMethod.GET).id();
+    }
+}
@@ -0,0 +1,143 @@
+package com.saha.amit.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1);
+    private static final long EMISSION_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // 10 tokens per second, bursts of up to 20
+    private final LocalTokenBucketRateLimiter.Config config = new LocalTokenBucketRateLimiter.Config()
+            .setReplenishRate(10)
+            .setBurstCapacity(20);
+
+    @Test
+    void burstIsAllowedThenRefillsAtTheReplenishRate() {
+        TokenBucket bucket = new TokenBucket(START);
+
+        for (int i = 19; i >= 0; i--) {
+            assertThat(bucket.tryConsume(config, START)).isEqualTo(i);
+        }
+        assertThat(bucket.tryConsume(config, START)).isEqualTo(TokenBucket.DENIED);
+
+        // One emission interval later exactly one token is back
+        assertThat(bucket.tryConsume(config, START + EMISSION_INTERVAL)).isZero();
+        assertThat(bucket.tryConsume(config, START + EMISSION_INTERVAL)).isEqualTo(TokenBucket.DENIED);
+
+        // Full again two seconds after the last token was taken
+        long full = START + EMISSION_INTERVAL + TimeUnit.SECONDS.toNanos(2);
+        assertThat(bucket.tryConsume(config, full)).isEqualTo(19);
+    }
+
+    @Test
+    void deniedRequestsAreNotCountedForTheSync() {
+        TokenBucket bucket = new TokenBucket(START);
+        for (int i = 0; i < 25; i++) {
+            bucket.tryConsume(config, START);
+        }
+
+        assertThat(bucket.drainUnsynced()).isEqualTo(20);
+        assertThat(bucket.drainUnsynced()).isZero();
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(START);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    ready.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (bucket.tryConsume(config, START) != TokenBucket.DENIED) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            ready.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(allowed).isEqualTo(20);
+            assertThat(bucket.drainUnsynced()).isEqualTo(20);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void chargeTakesTokensConsumedElsewhere() {
+        TokenBucket bucket = new TokenBucket(START);
+        bucket.tryConsume(config, START);
+
+        bucket.charge(5, START, START);
+
+        assertThat(bucket.tryConsume(config, START)).isEqualTo(13);
+        // Charges are not local consumption and must not be synced back
+        assertThat(bucket.drainUnsynced()).isEqualTo(2);
+    }
+
+    @Test
+    void chargeNeverLeavesTheBucketMoreThanEmpty() {
+        TokenBucket bucket = new TokenBucket(START);
+        bucket.tryConsume(config, START);
+
+        bucket.charge(1_000, START, START);
+
+        assertThat(bucket.tryConsume(config, START)).isEqualTo(TokenBucket.DENIED);
+        assertThat(bucket.tryConsume(config, START + TimeUnit.SECONDS.toNanos(2))).isEqualTo(19);
+    }
+
+    @Test
+    void chargeAsOfAnEarlierSyncSkipsTokensRefilledSince() {
+        TokenBucket bucket = new TokenBucket(START);
+        bucket.tryConsume(config, START);
+        long now = START + TimeUnit.SECONDS.toNanos(3);
+
+        // Ten tokens taken elsewhere three seconds ago have refilled by now
+        bucket.charge(10, START, now);
+
+        assertThat(bucket.tryConsume(config, now)).isEqualTo(19);
+    }
+
+    @Test
+    void chargeBeforeAnyRequestIsIgnored() {
+        TokenBucket bucket = new TokenBucket(START);
+
+        bucket.charge(10, START, START);
+
+        assertThat(bucket.tryConsume(config, START)).isEqualTo(19);
+    }
+
+    @Test
+    void restoredConsumptionIsSyncedAgain() {
+        TokenBucket bucket = new TokenBucket(START);
+        bucket.tryConsume(config, START);
+        bucket.tryConsume(config, START);
+
+        long drained = bucket.drainUnsynced();
+        bucket.tryConsume(config, START);
+        bucket.restoreUnsynced(drained);
+
+        assertThat(bucket.drainUnsynced()).isEqualTo(3);
+    }
+}
@@ -19,6 +19,27 @@ docker exec -it kafka1 kafka-topics \
   --partitions $PARTITIONS \
   --replication-factor $REPLICATION
 
+docker exec -it kafka1 kafka-topics \
+  --create --if-not-exists \
+  --bootstrap-server $BROKER \
+  --topic order.events.retry-5s \
+  --partitions $PARTITIONS \
+  --replication-factor $REPLICATION
+
+docker exec -it kafka1 kafka-topics \
+  --create --if-not-exists \
+  --bootstrap-server $BROKER \
+  --topic order.events.retry-30s \
+  --partitions $PARTITIONS \
+  --replication-factor $REPLICATION
+
+docker exec -it kafka1 kafka-topics \
+  --create --if-not-exists \
+  --bootstrap-server $BROKER \
+  --topic order.events.retry-60s \
+  --partitions $PARTITIONS \
+  --replication-factor $REPLICATION
+
 docker exec -it kafka1 kafka-topics \
   --create --if-not-exists \
   --bootstrap-server $BROKER \
@@ -0,0 +1,75 @@
+package com.saha.amit.reactiveOrderService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventJsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderEventJsonCodec} against the previous {@code ObjectMapper} path of {@code KafkaConfig}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventJsonCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private OrderEventJsonCodec codec;
+    private OrderEvent[] events;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        codec = new OrderEventJsonCodec(objectMapper.getFactory());
+        events = OrderEventSamples.create();
+        payloads = new byte[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            payloads[i] = objectMapper.writeValueAsBytes(events[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeObjectMapper() throws IOException {
+        return objectMapper.writeValueAsBytes(events[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() throws IOException {
+        return codec.encode(events[nextIndex()]);
+    }
+
+    @Benchmark
+    public OrderEvent decodeObjectMapper() throws IOException {
+        return objectMapper.readValue(payloads[nextIndex()], OrderEvent.class);
+    }
+
+    @Benchmark
+    public OrderEvent decodeCodec() throws IOException {
+        return codec.decode(payloads[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (OrderEventSamples.SIZE - 1);
+        return i;
+    }
+}
@@ -0,0 +1,47 @@
+package com.saha.amit.reactiveOrderService.benchmark;
+
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic set of events shaped like production traffic: UUID event and order ids, customer ids of varying
+ * length, mostly {@code PLACED} with some later statuses, log-normal amounts in cents and an occasional
+ * event without customer (legacy producers).
+ */
+final class OrderEventSamples {
+
+    static final int SIZE = 1024;
+
+    private static final String[] STATUSES = {"PLACED", "PLACED", "PLACED", "PLACED", "PLACED", "PLACED", "PLACED",
+            "PAID", "PAID", "CANCELLED"};
+
+    private OrderEventSamples() {
+    }
+
+    static OrderEvent[] create() {
+        Random random = new Random(42);
+        OrderEvent[] events = new OrderEvent[SIZE];
+        long timestamp = 1_760_000_000_000L;
+        for (int i = 0; i < SIZE; i++) {
+            double amount = BigDecimal.valueOf(Math.exp(3.5 + random.nextGaussian()))
+                    .setScale(2, RoundingMode.HALF_UP)
+                    .doubleValue();
+            String customerId = random.nextInt(50) == 0
+                    ? null
+                    : "customer-" + random.nextInt(random.nextBoolean() ? 1_000 : 10_000_000);
+            timestamp += random.nextInt(20);
+            events[i] = new OrderEvent(
+                    new UUID(random.nextLong(), random.nextLong()).toString(),
+                    new UUID(random.nextLong(), random.nextLong()).toString(),
+                    customerId,
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    amount,
+                    timestamp);
+        }
+        return events;
+    }
+}
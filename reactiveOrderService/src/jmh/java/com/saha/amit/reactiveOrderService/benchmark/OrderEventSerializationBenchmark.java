@@ -0,0 +1,236 @@
+package com.saha.amit.reactiveOrderService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saha.amit.reactiveOrderService.configuration.LocalProtobufSerializer;
+import com.saha.amit.reactiveOrderService.configuration.OrderEventMessageDeserializer;
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventJsonCodec;
+import com.saha.amit.reactiveOrderService.events.OrderEventProtoMapper;
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
+import io.confluent.kafka.serializers.protobuf.KafkaProtobufDeserializer;
+import io.confluent.kafka.serializers.protobuf.KafkaProtobufDeserializerConfig;
+import io.confluent.kafka.serializers.protobuf.KafkaProtobufSerializer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of every way the service writes an {@link OrderEvent} to Kafka, over
+ * {@link OrderEventSamples}:
+ * <ul>
+ *     <li>{@code json-mapper}: {@code ObjectMapper}, as used by the outbox payload and {@code DltPublisher}</li>
+ *     <li>{@code json-codec}: {@link OrderEventJsonCodec}, as used by the JSON senders and receivers</li>
+ *     <li>{@code proto-registry}: {@code toProto} + Confluent serializer (in-memory mock registry, no network)</li>
+ *     <li>{@code proto-local}: {@code toProto} + {@link LocalProtobufSerializer}</li>
+ *     <li>{@code proto-plain}: {@code toProto().toByteArray()}, as stored by the outbox in wire-bytes mode</li>
+ *     <li>{@code dlt}: {@code ObjectMapper} payload plus the failure headers {@code DltPublisher} adds</li>
+ * </ul>
+ * Decoding always ends in an {@link OrderEvent}. Record sizes per encoding are reported as the secondary
+ * results of {@link RecordSize}.
+ * Allocation rates come from {@code -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventSerializationBenchmark {
+
+    private static final String TOPIC = "order.events";
+
+    @Param({"json-mapper", "json-codec", "proto-registry", "proto-local", "proto-plain", "dlt"})
+    public String encoding;
+
+    private Codec codec;
+    private OrderEvent[] events;
+    private byte[][] payloads;
+    private Headers[] headers;
+    private int[] recordBytes;
+    private int next;
+
+    private interface Codec {
+        byte[] encode(OrderEvent event, Headers headers) throws Exception;
+
+        OrderEvent decode(byte[] payload, Headers headers) throws Exception;
+    }
+
+    /**
+     * Bytes (value + headers) of the records encoded or decoded per iteration; {@code recordBytes / records} is
+     * the average record size of the encoding. Every sample is visited in turn, so it is the sample average.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RecordSize {
+
+        public long recordBytes;
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            recordBytes = 0;
+            records = 0;
+        }
+
+        void add(int bytes) {
+            recordBytes += bytes;
+            records++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        codec = codec(encoding);
+        events = OrderEventSamples.create();
+        payloads = new byte[events.length][];
+        headers = new Headers[events.length];
+        recordBytes = new int[events.length];
+        for (int i = 0; i < events.length; i++) {
+            headers[i] = new RecordHeaders();
+            payloads[i] = codec.encode(events[i], headers[i]);
+            recordBytes[i] = payloads[i].length + headerBytes(headers[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(RecordSize size) throws Exception {
+        int i = nextIndex();
+        size.add(recordBytes[i]);
+        return codec.encode(events[i], new RecordHeaders());
+    }
+
+    @Benchmark
+    public OrderEvent decode(RecordSize size) throws Exception {
+        int i = nextIndex();
+        size.add(recordBytes[i]);
+        return codec.decode(payloads[i], headers[i]);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (OrderEventSamples.SIZE - 1);
+        return i;
+    }
+
+    private static int headerBytes(Headers headers) {
+        return Arrays.stream(headers.toArray())
+                .mapToInt(header -> header.key().length() + header.value().length)
+                .sum();
+    }
+
+    private static Codec codec(String encoding) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return switch (encoding) {
+            case "json-mapper" -> new Codec() {
+                public byte[] encode(OrderEvent event, Headers headers) throws Exception {
+                    return objectMapper.writeValueAsBytes(event);
+                }
+
+                public OrderEvent decode(byte[] payload, Headers headers) throws Exception {
+                    return objectMapper.readValue(payload, OrderEvent.class);
+                }
+            };
+            case "json-codec" -> {
+                OrderEventJsonCodec jsonCodec = new OrderEventJsonCodec(objectMapper.getFactory());
+                yield new Codec() {
+                    public byte[] encode(OrderEvent event, Headers headers) throws Exception {
+                        return jsonCodec.encode(event);
+                    }
+
+                    public OrderEvent decode(byte[] payload, Headers headers) throws Exception {
+                        return jsonCodec.decode(payload);
+                    }
+                };
+            }
+            case "proto-registry" -> {
+                Map<String, Object> config = Map.of(
+                        "schema.registry.url", "mock://order-event-benchmark",
+                        "auto.register.schemas", true,
+                        KafkaProtobufDeserializerConfig.SPECIFIC_PROTOBUF_VALUE_TYPE, OrderEventMessage.class.getName());
+                KafkaProtobufSerializer<OrderEventMessage> serializer = new KafkaProtobufSerializer<>();
+                serializer.configure(config, false);
+                KafkaProtobufDeserializer<OrderEventMessage> deserializer = new KafkaProtobufDeserializer<>();
+                deserializer.configure(config, false);
+                yield new Codec() {
+                    public byte[] encode(OrderEvent event, Headers headers) {
+                        return serializer.serialize(TOPIC, headers, OrderEventProtoMapper.toProto(event));
+                    }
+
+                    public OrderEvent decode(byte[] payload, Headers headers) {
+                        return OrderEventProtoMapper.fromProto(deserializer.deserialize(TOPIC, headers, payload));
+                    }
+                };
+            }
+            case "proto-local" -> {
+                LocalProtobufSerializer serializer = new LocalProtobufSerializer();
+                OrderEventMessageDeserializer deserializer = new OrderEventMessageDeserializer(null);
+                yield new Codec() {
+                    public byte[] encode(OrderEvent event, Headers headers) {
+                        return serializer.serialize(TOPIC, OrderEventProtoMapper.toProto(event));
+                    }
+
+                    public OrderEvent decode(byte[] payload, Headers headers) {
+                        return OrderEventProtoMapper.fromProto(deserializer.deserialize(TOPIC, headers, payload));
+                    }
+                };
+            }
+            case "proto-plain" -> {
+                OrderEventMessageDeserializer deserializer = new OrderEventMessageDeserializer(null);
+                byte[] contentType = OrderOutboxEntity.CONTENT_TYPE_PROTOBUF.getBytes(StandardCharsets.UTF_8);
+                yield new Codec() {
+                    public byte[] encode(OrderEvent event, Headers headers) {
+                        headers.add("content-type", contentType);
+                        return OrderEventProtoMapper.toProto(event).toByteArray();
+                    }
+
+                    public OrderEvent decode(byte[] payload, Headers headers) {
+                        return OrderEventProtoMapper.fromProto(deserializer.deserialize(TOPIC, headers, payload));
+                    }
+                };
+            }
+            case "dlt" -> new Codec() {
+                public byte[] encode(OrderEvent event, Headers headers) throws Exception {
+                    byte[] payload = objectMapper.writeValueAsBytes(event);
+                    headers.add("failure-type", utf8("consumer"))
+                            .add("failure-reason", utf8("IllegalArgumentException"))
+                            .add("source-topic", utf8(TOPIC))
+                            .add("source-partition", utf8("3"))
+                            .add("source-offset", utf8(Long.toString(event.timestamp() % 10_000_000)));
+                    return payload;
+                }
+
+                public OrderEvent decode(byte[] payload, Headers headers) throws Exception {
+                    Header failureType = headers.lastHeader("failure-type");
+                    if (failureType == null) {
+                        throw new IllegalStateException("DLT record without failure-type");
+                    }
+                    return objectMapper.readValue(payload, OrderEvent.class);
+                }
+            };
+            default -> throw new IllegalArgumentException("Unknown encoding " + encoding);
+        };
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,8 +2,10 @@ package com.saha.amit.reactiveOrderService.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventJsonCodec;
+import com.saha.amit.reactiveOrderService.messanger.KafkaSendPipeline;
+import com.saha.amit.reactiveOrderService.messanger.RetryEventPublisher;
 import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -13,6 +15,7 @@ import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,15 +34,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.function.Supplier;
 
 @Slf4j
 @Configuration
-@RequiredArgsConstructor
 public class KafkaConfig {
 
     private final Environment env;
-    private final ObjectMapper objectMapper;
+
+    /**
+     * Built once and used directly by the (de)serializer lambdas, which run per record: calling the
+     * {@code @Bean} method there would go through the bean factory every time.
+     */
+    private final OrderEventJsonCodec jsonCodec;
 
     @Value("${app.kafka.topic.order}")
     private String orderTopic;
@@ -50,13 +58,38 @@ public class KafkaConfig {
     @Value("${app.kafka.topic.order.proto}")
     private String orderProtoTopic;
 
-    @Value("${app.kafka.schema-registry-url}")
+    @Value("${app.kafka.retry.tiers:PT5S,PT30S,PT60S}")
+    private List<Duration> retryTiers;
+
+    @Value("${app.kafka.schema-registry-url:}")
     private String schemaRegistryUrl;
 
+    /**
+     * {@code registry} (Confluent serializer, schemas registered in the Schema Registry) or {@code local}
+     * (bundled schemas identified by a fingerprint header, see {@link LocalProtobufSchemas}).
+     */
+    @Value("${app.kafka.protobuf.serde:registry}")
+    private String protobufSerde;
+
     private static final String DEFAULT_GROUP_ID = "order-service";
 
+    public KafkaConfig(Environment env, ObjectMapper objectMapper) {
+        this.env = env;
+        this.jsonCodec = new OrderEventJsonCodec(objectMapper.getFactory());
+    }
+
     // ---------- JSON CONFIG ----------
 
+    /**
+     * Streaming JSON codec for {@link OrderEvent}, sharing the {@link ObjectMapper}'s factory settings.
+     * Wire compatible with {@code objectMapper.writeValueAsBytes(event)}.
+     * @return the codec used by every JSON sender and receiver
+     */
+    @Bean
+    public OrderEventJsonCodec orderEventJsonCodec() {
+        return jsonCodec;
+    }
+
     /**
      * Creates a reactive Kafka sender for sending {@link OrderEvent} messages serialized as JSON.
      * @return a configured {@link KafkaSender} instance with String keys and JSON-serialized {@link OrderEvent} values
@@ -64,7 +97,7 @@ public class KafkaConfig {
     @Bean("jsonKafkaSender")
     public KafkaSender<String, OrderEvent> jsonKafkaSender() {
         SenderOptions<String, OrderEvent> senderOptions =
-                SenderOptions.<String, OrderEvent>create(commonProducerProps())
+                pipelinedSenderOptions(SenderOptions.<String, OrderEvent>create(commonProducerProps()))
                         .withKeySerializer(new StringSerializer())
                         .withValueSerializer((topic, data) -> serializeEvent(data, () -> "JSON serialization failed"));
         return KafkaSender.create(senderOptions);
@@ -80,16 +113,16 @@ public class KafkaConfig {
         ReceiverOptions<String, OrderEvent> receiverOptions =
                 ReceiverOptions.<String, OrderEvent>create(commonConsumerProps(null))
                         .subscription(List.of(orderTopic))
-                        .commitInterval(Duration.ZERO)
-                        .commitBatchSize(1)
+                        .commitInterval(commitInterval())
+                        .commitBatchSize(commitBatchSize())
                         .withKeyDeserializer(new StringDeserializer())
                         .withValueDeserializer((topic, bytes) -> deserializeEvent(bytes, () -> "JSON deserialization failed"));
         return KafkaReceiver.create(receiverOptions);
     }
 
     /**
-     * Creates a reactive Kafka receiver for consuming retry messages from the retry topic.
-     * This receiver uses a dedicated consumer group ID (order-service-retry).
+     * Creates a reactive Kafka receiver for consuming retry messages from the delayed retry tier topics
+     * (and the plain retry topic). This receiver uses a dedicated consumer group ID (order-service-retry).
      * @return a configured {@link KafkaReceiver} for consuming retry {@link OrderEvent} messages
      */
     @Bean("retryKafkaReceiver")
@@ -97,14 +130,46 @@ public class KafkaConfig {
         String retryGroup = DEFAULT_GROUP_ID + "-retry";
         ReceiverOptions<String, OrderEvent> receiverOptions =
                 ReceiverOptions.<String, OrderEvent>create(commonConsumerProps(retryGroup))
-                        .subscription(List.of(orderRetryTopic))
-                        .commitInterval(Duration.ZERO)
-                        .commitBatchSize(1)
+                        .subscription(RetryEventPublisher.retryTopics(orderRetryTopic, retryTiers))
+                        .commitInterval(commitInterval())
+                        .commitBatchSize(commitBatchSize())
                         .withKeyDeserializer(new StringDeserializer())
                         .withValueDeserializer((topic, bytes) -> deserializeEvent(bytes, () -> "Retry JSON deserialization failed"));
         return KafkaReceiver.create(receiverOptions);
     }
 
+    /**
+     * Creates a reactive Kafka receiver used to keep the local order cache fresh. Every instance joins its own
+     * consumer group so it sees all partitions of {@code orderTopic}; it starts from the latest offset and never
+     * commits, since a restarted instance starts with an empty cache anyway.
+     * @return a configured {@link KafkaReceiver} broadcasting JSON {@link OrderEvent} messages to this instance
+     */
+    @Bean("cacheKafkaReceiver")
+    public KafkaReceiver<String, OrderEvent> cacheKafkaReceiver() {
+        String cacheGroup = DEFAULT_GROUP_ID + "-cache-" + env.getProperty("HOSTNAME", "local")
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+        Map<String, Object> props = new HashMap<>(commonConsumerProps(cacheGroup));
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        ReceiverOptions<String, OrderEvent> receiverOptions =
+                ReceiverOptions.<String, OrderEvent>create(props)
+                        .subscription(List.of(orderTopic))
+                        .withKeyDeserializer(new StringDeserializer())
+                        .withValueDeserializer((topic, bytes) -> deserializeEvent(bytes, () -> "Cache JSON deserialization failed"));
+        return KafkaReceiver.create(receiverOptions);
+    }
+
+    /**
+     * Template for the receivers of DLT replays. It has no subscription: every replay assigns the DLT partitions
+     * itself and seeks to its own start offsets. Offsets are never committed, so replays don't affect each other.
+     * @return {@link ReceiverOptions} with String keys and raw byte array values
+     */
+    @Bean("dltReplayReceiverOptions")
+    public ReceiverOptions<String, byte[]> dltReplayReceiverOptions() {
+        return ReceiverOptions.<String, byte[]>create(commonConsumerProps(DEFAULT_GROUP_ID + "-dlt-replay"))
+                .withKeyDeserializer(new StringDeserializer())
+                .withValueDeserializer(new ByteArrayDeserializer());
+    }
+
     /**
      * Creates a reactive Kafka sender for publishing messages as raw byte arrays.
      * @return a configured {@link KafkaSender} with String keys and byte array values
@@ -112,7 +177,7 @@ public class KafkaConfig {
     @Bean("byteKafkaSender")
     public KafkaSender<String, byte[]> byteKafkaSender() {
         SenderOptions<String, byte[]> senderOptions =
-                SenderOptions.<String, byte[]>create(commonProducerProps())
+                pipelinedSenderOptions(SenderOptions.<String, byte[]>create(commonProducerProps()))
                         .withKeySerializer(new StringSerializer())
                         .withValueSerializer(new ByteArraySerializer());
         return KafkaSender.create(senderOptions);
@@ -123,36 +188,110 @@ public class KafkaConfig {
 
     /**
      * Creates a reactive Kafka sender for sending {@link OrderEventMessage} messages serialized using Protobuf.
-     * Configures the Confluent Schema Registry to manage message schemas.
+     * Configures the Confluent Schema Registry to manage message schemas, unless {@code app.kafka.protobuf.serde}
+     * is {@code local}, in which case records carry the fingerprint of the bundled schema instead.
      * @return a configured {@link KafkaSender} with String keys and Protobuf-serialized {@link OrderEventMessage} values
      */
     @Bean("protobufKafkaSender")
     public KafkaSender<String, OrderEventMessage> protobufKafkaSender() {
+        if (isLocalProtobufSerde()) {
+            log.info("Protobuf sender uses local schemas, fingerprint {}", Long.toHexString(LocalProtobufSchemas.ORDER_EVENT_FINGERPRINT));
+            return KafkaSender.create(pipelinedSenderOptions(SenderOptions.<String, OrderEventMessage>create(commonProducerProps()))
+                    .withKeySerializer(new StringSerializer())
+                    .withValueSerializer(new LocalProtobufSerializer()));
+        }
         Map<String, Object> props = new HashMap<>(commonProducerProps());
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaProtobufSerializer.class);
         props.put("schema.registry.url", schemaRegistryUrl);
         props.put("auto.register.schemas", true);
-        return KafkaSender.create(SenderOptions.<String, OrderEventMessage>create(props));
+        return KafkaSender.create(pipelinedSenderOptions(SenderOptions.<String, OrderEventMessage>create(props)));
     }
 
     /**
      * Creates a reactive Kafka receiver for consuming {@link OrderEventMessage} messages serialized using Protobuf.
-     * Configures the Confluent Schema Registry for deserialization.
+     * Configures the Confluent Schema Registry for deserialization when a registry URL is set; locally framed
+     * records and plain Protobuf records forwarded by the outbox relay are read without it
+     * (see {@link OrderEventMessageDeserializer}).
      * @return a configured {@link KafkaReceiver} for consuming Protobuf {@link OrderEventMessage} messages
      */
     @Bean("protobufKafkaReceiver")
     public KafkaReceiver<String, OrderEventMessage> protobufKafkaReceiver() {
-        Map<String, Object> props = new HashMap<>(commonConsumerProps(DEFAULT_GROUP_ID + "-proto"));
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, KafkaProtobufDeserializer.class);
-        props.put("schema.registry.url", schemaRegistryUrl);
-        props.put(KafkaProtobufDeserializerConfig.SPECIFIC_PROTOBUF_VALUE_TYPE, OrderEventMessage.class.getName());
-        return KafkaReceiver.create(ReceiverOptions.<String, OrderEventMessage>create(props)
-                .subscription(List.of(orderProtoTopic)));
+        KafkaProtobufDeserializer<OrderEventMessage> registryDeserializer = null;
+        if (!schemaRegistryUrl.isBlank()) {
+            registryDeserializer = new KafkaProtobufDeserializer<>();
+            registryDeserializer.configure(Map.of(
+                    "schema.registry.url", schemaRegistryUrl,
+                    KafkaProtobufDeserializerConfig.SPECIFIC_PROTOBUF_VALUE_TYPE, OrderEventMessage.class.getName()), false);
+        }
+        return KafkaReceiver.create(ReceiverOptions.<String, OrderEventMessage>create(commonConsumerProps(DEFAULT_GROUP_ID + "-proto"))
+                .subscription(List.of(orderProtoTopic))
+                .commitInterval(commitInterval())
+                .commitBatchSize(commitBatchSize())
+                .withKeyDeserializer(new StringDeserializer())
+                .withValueDeserializer(new OrderEventMessageDeserializer(registryDeserializer)));
     }
 
 
+    // ---------- SEND PIPELINES ----------
+
+    /**
+     * Shared send pipeline over {@code jsonKafkaSender}, used by the outbox relay and the retry publisher.
+     * @return a {@link KafkaSendPipeline} for JSON {@link OrderEvent} records
+     */
+    @Bean(name = "jsonSendPipeline", destroyMethod = "dispose")
+    public KafkaSendPipeline<String, OrderEvent> jsonSendPipeline(
+            @Qualifier("jsonKafkaSender") KafkaSender<String, OrderEvent> jsonKafkaSender) {
+        return new KafkaSendPipeline<>("json", jsonKafkaSender, pipelineBufferSize());
+    }
+
+    /**
+     * Shared send pipeline over {@code protobufKafkaSender}.
+     * @return a {@link KafkaSendPipeline} for Protobuf {@link OrderEventMessage} records
+     */
+    @Bean(name = "protobufSendPipeline", destroyMethod = "dispose")
+    public KafkaSendPipeline<String, OrderEventMessage> protobufSendPipeline(
+            @Qualifier("protobufKafkaSender") KafkaSender<String, OrderEventMessage> protobufKafkaSender) {
+        return new KafkaSendPipeline<>("protobuf", protobufKafkaSender, pipelineBufferSize());
+    }
+
+    /**
+     * Shared send pipeline over {@code byteKafkaSender}, used by the DLT publisher and DLT replays.
+     * @return a {@link KafkaSendPipeline} for raw byte array records
+     */
+    @Bean(name = "byteSendPipeline", destroyMethod = "dispose")
+    public KafkaSendPipeline<String, byte[]> byteSendPipeline(
+            @Qualifier("byteKafkaSender") KafkaSender<String, byte[]> byteKafkaSender) {
+        return new KafkaSendPipeline<>("byte", byteKafkaSender, pipelineBufferSize());
+    }
+
+    /**
+     * Applies the settings shared by senders that back a {@link KafkaSendPipeline}: per-record failures are
+     * reported in the {@code SenderResult} instead of terminating the long-lived send flux, and the number of
+     * records in flight is bounded.
+     */
+    private <K, V> SenderOptions<K, V> pipelinedSenderOptions(SenderOptions<K, V> options) {
+        return options
+                .stopOnError(false)
+                .maxInFlight(env.getProperty("spring.kafka.producer.max-in-flight-records", Integer.class, 256));
+    }
+
+    private int pipelineBufferSize() {
+        return env.getProperty("spring.kafka.producer.pipeline-buffer-size", Integer.class, 1024);
+    }
+
+    /**
+     * Acknowledged offsets are committed once this many are pending or {@link #commitInterval()} elapses;
+     * the defaults keep the historical commit-per-record behaviour.
+     */
+    private int commitBatchSize() {
+        return env.getProperty("spring.kafka.consumer.commit-batch-size", Integer.class, 1);
+    }
+
+    private Duration commitInterval() {
+        return env.getProperty("spring.kafka.consumer.commit-interval", Duration.class, Duration.ZERO);
+    }
+
     /**
      * Builds a common set of Kafka producer properties shared across all producer configurations.
      * @return a map of producer configuration properties
@@ -190,6 +329,16 @@ public class KafkaConfig {
         return props;
     }
 
+    private boolean isLocalProtobufSerde() {
+        if ("local".equalsIgnoreCase(protobufSerde)) {
+            return true;
+        }
+        if (schemaRegistryUrl.isBlank()) {
+            throw new IllegalStateException("app.kafka.schema-registry-url is required unless app.kafka.protobuf.serde=local");
+        }
+        return false;
+    }
+
     private void applyConfluentSecurityIfNeeded(Map<String, Object> props) {
         if (env.acceptsProfiles(Profiles.of("confluent"))) {
             log.info("Applying Confluent Cloud security configurations to Kafka properties");
@@ -211,7 +360,7 @@ public class KafkaConfig {
      */
     private byte[] serializeEvent(OrderEvent event, Supplier<String> errorMessage) {
         try {
-            return objectMapper.writeValueAsBytes(event);
+            return jsonCodec.encode(event);
         } catch (Exception e) {
             throw new IllegalStateException(errorMessage.get(), e);
         }
@@ -226,7 +375,7 @@ public class KafkaConfig {
      */
     private OrderEvent deserializeEvent(byte[] payload, Supplier<String> errorMessage) {
         try {
-            return objectMapper.readValue(payload, OrderEvent.class);
+            return jsonCodec.decode(payload);
         } catch (Exception e) {
             throw new IllegalStateException(errorMessage.get(), e);
         }
@@ -0,0 +1,76 @@
+package com.saha.amit.reactiveOrderService.configuration;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Parser;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process replacement for the Schema Registry lookups of the Protobuf serde. Schemas are the descriptors
+ * bundled with the service, identified by a fingerprint (first 8 bytes of the SHA-256 of the file descriptor
+ * and message name). Records are framed with a 9 byte header: {@link #MAGIC} followed by the fingerprint.
+ * <p>
+ * Resolving a fingerprint never touches the network. A fingerprint written by another version of the schema
+ * is resolved once to the bundled parser (Protobuf fields are matched by number) and cached.
+ */
+@Slf4j
+final class LocalProtobufSchemas {
+
+    /**
+     * First byte of a locally framed record; Schema Registry framed records start with {@code 0}.
+     */
+    static final byte MAGIC = 0x1;
+
+    static final int HEADER_SIZE = 1 + Long.BYTES;
+
+    static final long ORDER_EVENT_FINGERPRINT = fingerprint(OrderEventMessage.getDescriptor());
+
+    private static final Map<Long, Parser<OrderEventMessage>> PARSERS = new ConcurrentHashMap<>(
+            Map.of(ORDER_EVENT_FINGERPRINT, OrderEventMessage.parser()));
+
+    private LocalProtobufSchemas() {
+    }
+
+    static boolean isLocallyFramed(byte[] data) {
+        return data.length >= HEADER_SIZE && data[0] == MAGIC;
+    }
+
+    static void writeHeader(byte[] target, long fingerprint) {
+        target[0] = MAGIC;
+        ByteBuffer.wrap(target, 1, Long.BYTES).putLong(fingerprint);
+    }
+
+    static long readFingerprint(byte[] data) {
+        return ByteBuffer.wrap(data, 1, Long.BYTES).getLong();
+    }
+
+    static Parser<OrderEventMessage> orderEventParser(long fingerprint) {
+        Parser<OrderEventMessage> parser = PARSERS.get(fingerprint);
+        if (parser != null) {
+            return parser;
+        }
+        return PARSERS.computeIfAbsent(fingerprint, unknown -> {
+            log.warn("Unknown OrderEventMessage schema fingerprint {}, reading it with the bundled schema {}",
+                    Long.toHexString(unknown), Long.toHexString(ORDER_EVENT_FINGERPRINT));
+            return OrderEventMessage.parser();
+        });
+    }
+
+    static long fingerprint(Descriptors.Descriptor descriptor) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(descriptor.getFile().toProto().toByteArray());
+            digest.update(descriptor.getFullName().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.saha.amit.reactiveOrderService.configuration;
+
+import com.google.protobuf.CodedOutputStream;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link OrderEventMessage} values with the local schema header of {@link LocalProtobufSchemas}
+ * instead of a Schema Registry id, so sending never waits on the registry.
+ */
+public class LocalProtobufSerializer implements Serializer<OrderEventMessage> {
+
+    @Override
+    public byte[] serialize(String topic, OrderEventMessage message) {
+        if (message == null) {
+            return null;
+        }
+        int size = message.getSerializedSize();
+        byte[] out = new byte[LocalProtobufSchemas.HEADER_SIZE + size];
+        LocalProtobufSchemas.writeHeader(out, LocalProtobufSchemas.ORDER_EVENT_FINGERPRINT);
+        try {
+            CodedOutputStream output = CodedOutputStream.newInstance(out, LocalProtobufSchemas.HEADER_SIZE, size);
+            message.writeTo(output);
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Protobuf serialization failed", e);
+        }
+        return out;
+    }
+}
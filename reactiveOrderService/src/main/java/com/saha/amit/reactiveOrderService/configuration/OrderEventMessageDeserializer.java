@@ -0,0 +1,73 @@
+package com.saha.amit.reactiveOrderService.configuration;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Parser;
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads {@link OrderEventMessage} values of the Protobuf topic in every format that is published to it:
+ * records framed with the local schema header ({@link LocalProtobufSerializer}), plain Protobuf bytes forwarded
+ * by the outbox relay, which carry a {@code content-type: application/x-protobuf} header, and Schema Registry
+ * framed records. Only the last need the registry; without one configured they are rejected.
+ */
+public class OrderEventMessageDeserializer implements Deserializer<OrderEventMessage> {
+
+    static final String CONTENT_TYPE_HEADER = "content-type";
+
+    /**
+     * {@code null} when no Schema Registry is configured.
+     */
+    private final Deserializer<OrderEventMessage> registryDeserializer;
+
+    public OrderEventMessageDeserializer(Deserializer<OrderEventMessage> registryDeserializer) {
+        this.registryDeserializer = registryDeserializer;
+    }
+
+    @Override
+    public OrderEventMessage deserialize(String topic, byte[] data) {
+        return deserialize(topic, new RecordHeaders(), data);
+    }
+
+    @Override
+    public OrderEventMessage deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers.lastHeader(CONTENT_TYPE_HEADER);
+        if (contentType != null
+                && OrderOutboxEntity.CONTENT_TYPE_PROTOBUF.equals(new String(contentType.value(), StandardCharsets.UTF_8))) {
+            return parse(OrderEventMessage.parser(), data, 0);
+        }
+        // A plain message never starts with 0x1, which would be an invalid field tag
+        if (LocalProtobufSchemas.isLocallyFramed(data)) {
+            return parse(LocalProtobufSchemas.orderEventParser(LocalProtobufSchemas.readFingerprint(data)),
+                    data, LocalProtobufSchemas.HEADER_SIZE);
+        }
+        if (registryDeserializer == null) {
+            throw new IllegalStateException("Schema Registry framed record on " + topic + " but no registry is configured");
+        }
+        return registryDeserializer.deserialize(topic, headers, data);
+    }
+
+    private static OrderEventMessage parse(Parser<OrderEventMessage> parser, byte[] data, int offset) {
+        try {
+            return parser.parseFrom(data, offset, data.length - offset);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Protobuf deserialization failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (registryDeserializer != null) {
+            registryDeserializer.close();
+        }
+    }
+}
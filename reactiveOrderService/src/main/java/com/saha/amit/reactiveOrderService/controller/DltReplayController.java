@@ -0,0 +1,62 @@
+package com.saha.amit.reactiveOrderService.controller;
+
+import com.saha.amit.reactiveOrderService.dto.DltReplayRequest;
+import com.saha.amit.reactiveOrderService.dto.DltReplayStatus;
+import com.saha.amit.reactiveOrderService.service.DltReplayService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Starts, tracks and cancels replays of the dead-letter topic; see {@link DltReplayService}.
+ */
+@RestController
+@RequestMapping("/admin/dlt/replays")
+@RequiredArgsConstructor
+public class DltReplayController {
+
+    Logger logger = LoggerFactory.getLogger(DltReplayController.class);
+
+    private final DltReplayService dltReplayService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<DltReplayStatus> startReplay(@RequestBody DltReplayRequest request) {
+        logger.info("Received DLT replay request: {}", request);
+        return dltReplayService.start(request)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onErrorMap(IllegalStateException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    @GetMapping
+    public Flux<DltReplayStatus> getReplays() {
+        return dltReplayService.statuses();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<DltReplayStatus> getReplay(@PathVariable String id) {
+        return dltReplayService.status(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown replay " + id)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<DltReplayStatus> cancelReplay(@PathVariable String id) {
+        logger.info("Received DLT replay cancellation: {}", id);
+        return dltReplayService.cancel(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown replay " + id)));
+    }
+}
@@ -1,5 +1,8 @@
 package com.saha.amit.reactiveOrderService.controller;
 
+import com.saha.amit.reactiveOrderService.dto.BulkOrderResult;
+import com.saha.amit.reactiveOrderService.dto.OrderCursor;
+import com.saha.amit.reactiveOrderService.dto.OrderPage;
 import com.saha.amit.reactiveOrderService.dto.OrderRequest;
 import com.saha.amit.reactiveOrderService.dto.OrderResponse;
 import com.saha.amit.reactiveOrderService.service.OrderService;
@@ -8,6 +11,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -37,7 +43,7 @@ public class OrderController {
     @PostMapping
     public ResponseEntity<Mono<OrderResponse>> placeOrder(@RequestBody OrderRequest req) {
         logger.info("Received order placement request: {}", req);
-        req.setAmount(req.getAmount() - (req.getAmount() * Integer.parseInt(discountPercentage) / 100));
+        applyDiscount(req);
         logger.info("Applied discount of {}%, new amount: {}", discountPercentage, req.getAmount());
         // Simulate order processing and response
         return ResponseEntity.ok(
@@ -51,6 +57,29 @@ public class OrderController {
         );
     }
 
+    /**
+     * Streams an {@code application/x-ndjson} body of {@link OrderRequest}s and answers with one
+     * {@link BulkOrderResult} line per request, as soon as its chunk is committed.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkOrderResult> placeOrders(@RequestBody Flux<OrderRequest> requests) {
+        logger.info("Received bulk order placement request");
+        return orderService.placeOrders(requests.map(this::applyDiscount))
+                .doOnComplete(() -> logger.info("Bulk order placement request completed"));
+    }
+
+    /**
+     * Applies {@code order.discount} percent to the amount; shared by single and bulk placement.
+     */
+    private OrderRequest applyDiscount(OrderRequest req) {
+        if (req.getAmount() != null) {
+            req.setAmount(req.getAmount() - (req.getAmount() * Integer.parseInt(discountPercentage) / 100));
+        }
+        return req;
+    }
+
     @GetMapping
     public ResponseEntity<Flux<OrderResponse>> getOrders(@RequestParam(value = "customerId", required = false) String customerId) {
         logger.info("Received order retrieval request for customerId: {}", customerId);
@@ -62,6 +91,34 @@ public class OrderController {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * Keyset-paginated listing; {@code size} is capped server side and {@code cursor} is the
+     * {@code nextCursor} of the previous page.
+     */
+    @GetMapping("/page")
+    public Mono<OrderPage> getOrdersPage(@RequestParam(value = "customerId", required = false) String customerId,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", required = false) Integer size) {
+        OrderCursor position;
+        try {
+            position = OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+        return orderService.getOrdersPage(customerId, position, size);
+    }
+
+    /**
+     * Streams every matching order as NDJSON or SSE, fetching pages from the database only as fast as
+     * the client reads.
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<OrderResponse> streamOrders(@RequestParam(value = "customerId", required = false) String customerId) {
+        logger.info("Received order stream request for customerId: {}", customerId);
+        return orderService.streamOrders(customerId)
+                .map(e -> new OrderResponse(e.getOrderId(), e.getCustomerId(), e.getAmount(), e.getStatus()));
+    }
+
     @GetMapping("/{orderId}")
     public Mono<ResponseEntity<OrderResponse>> getOrderById(@PathVariable("orderId") String orderId) {
         return orderService.getOrderById(orderId)
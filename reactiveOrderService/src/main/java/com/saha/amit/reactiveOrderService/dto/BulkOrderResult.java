@@ -0,0 +1,18 @@
+package com.saha.amit.reactiveOrderService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one NDJSON line of a bulk upload; {@code line} is the zero-based position in the request body.
+ */
+@Data
+@AllArgsConstructor
+public class BulkOrderResult {
+    private long line;
+    private String orderId;
+    private String customerId;
+    private Double amount;
+    private String status;
+    private String error;
+}
@@ -0,0 +1,25 @@
+package com.saha.amit.reactiveOrderService.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects dead-lettered events to put back on the order topic. Empty filters match everything; {@code from}/{@code to}
+ * bound the DLT record timestamp ({@code to} exclusive). Without {@code ratePerSecond} the configured default
+ * rate is used. A {@code dryRun} only counts what would be replayed.
+ */
+@Data
+public class DltReplayRequest {
+    private List<String> failureTypes;
+    private List<String> failureReasons;
+    private List<String> sourceTopics;
+    private Map<String, String> headers;
+    private Instant from;
+    private Instant to;
+    private Integer ratePerSecond;
+    private Long limit;
+    private boolean dryRun;
+}
@@ -0,0 +1,28 @@
+package com.saha.amit.reactiveOrderService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress of one DLT replay. {@code total} is the number of DLT records in the scanned offset range, so
+ * {@code scanned / total} is the scan progress; {@code matched} passed the filters and {@code replayed}/{@code failed}
+ * count the sends.
+ */
+@Data
+@AllArgsConstructor
+public class DltReplayStatus {
+    private String id;
+    private String state;
+    private DltReplayRequest request;
+    private int ratePerSecond;
+    private long total;
+    private long scanned;
+    private long matched;
+    private long replayed;
+    private long failed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,38 @@
+package com.saha.amit.reactiveOrderService.dto;
+
+import com.saha.amit.reactiveOrderService.model.OrderEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the {@code (created_at, order_id)} ordering of orders, exchanged with clients as an opaque
+ * URL-safe token.
+ */
+public record OrderCursor(long createdAt, String orderId) {
+
+    /** Sorts before every order. */
+    public static final OrderCursor START = new OrderCursor(-1L, "");
+
+    public static OrderCursor after(OrderEntity order) {
+        return new OrderCursor(order.getCreatedAt(), order.getOrderId());
+    }
+
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new OrderCursor(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid order cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + ":" + orderId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,17 @@
+package com.saha.amit.reactiveOrderService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page of orders; pass {@code nextCursor} back as {@code cursor} to get the next page.
+ * {@code nextCursor} is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class OrderPage {
+    private List<OrderResponse> items;
+    private String nextCursor;
+}
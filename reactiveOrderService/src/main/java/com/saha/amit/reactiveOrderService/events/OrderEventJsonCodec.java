@@ -0,0 +1,112 @@
+package com.saha.amit.reactiveOrderService.events;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+
+/**
+ * Hand-written JSON codec for {@link OrderEvent} on the Kafka hot path. One instance is built up front and
+ * shared, instead of an {@code ObjectMapper} and its {@code ObjectWriter}/{@code ObjectReader} per serde call;
+ * it drives the Jackson streaming generator/parser directly, so there is no reflection or databind lookup per
+ * record, field names are pre-encoded, and the encode output buffer is reused per thread. Every call still
+ * creates a {@link JsonGenerator} or {@link JsonParser} with its own I/O context and buffers (recycled by the
+ * factory where it can), besides the returned byte array and the event itself.
+ * <p>
+ * The format is the one {@code ObjectMapper} produces for the record (same field names and order, nulls
+ * written), so both sides can be switched independently. Unknown fields are skipped.
+ */
+public final class OrderEventJsonCodec {
+
+    private static final SerializedString EVENT_ID = new SerializedString("eventId");
+    private static final SerializedString ORDER_ID = new SerializedString("orderId");
+    private static final SerializedString CUSTOMER_ID = new SerializedString("customerId");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+
+    private final JsonFactory factory;
+
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(256));
+
+    public OrderEventJsonCodec(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    public byte[] encode(OrderEvent event) throws IOException {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = factory.createGenerator(buffer, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            writeString(generator, EVENT_ID, event.eventId());
+            writeString(generator, ORDER_ID, event.orderId());
+            writeString(generator, CUSTOMER_ID, event.customerId());
+            writeString(generator, STATUS, event.status());
+            generator.writeFieldName(AMOUNT);
+            if (event.amount() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(event.amount());
+            }
+            generator.writeFieldName(TIMESTAMP);
+            if (event.timestamp() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(event.timestamp());
+            }
+            generator.writeEndObject();
+        }
+        return buffer.toByteArray();
+    }
+
+    public OrderEvent decode(byte[] payload) throws IOException {
+        try (JsonParser parser = factory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an OrderEvent object");
+            }
+            String eventId = null;
+            String orderId = null;
+            String customerId = null;
+            String status = null;
+            Double amount = null;
+            Long timestamp = null;
+
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken token = parser.nextToken();
+                if (token.isStructStart()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                boolean isNull = token == JsonToken.VALUE_NULL;
+                switch (field) {
+                    case "eventId" -> eventId = parser.getValueAsString();
+                    case "orderId" -> orderId = parser.getValueAsString();
+                    case "customerId" -> customerId = parser.getValueAsString();
+                    case "status" -> status = parser.getValueAsString();
+                    case "amount" -> amount = isNull ? null : parser.getValueAsDouble();
+                    case "timestamp" -> timestamp = isNull ? null : parser.getValueAsLong();
+                    default -> {
+                        // Unknown scalar field, nothing to skip
+                    }
+                }
+            }
+            return new OrderEvent(eventId, orderId, customerId, status, amount, timestamp);
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * AIMD in-flight budget for one Kafka receiver. Every record (in batch mode, every batch) taken in counts
+ * against the limit until it is processed; when the limit is reached all assigned partitions are paused and they are resumed once completions
+ * bring in-flight below the limit again. Completions within the latency target grow the limit by one per
+ * window of records (additive increase); a slow or failed completion shrinks it by {@code decreaseRatio},
+ * at most once per latency target (multiplicative decrease).
+ * <p>
+ * Partitions in {@code held} are paused by someone else (retry deferral) and are left paused on resume.
+ */
+@Slf4j
+class AdaptiveConcurrencyController {
+
+    private final String name;
+    private final KafkaReceiver<?, ?> receiver;
+    private final Set<TopicPartition> held;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double decreaseRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final AtomicInteger pausedPartitions = new AtomicInteger();
+    private final AtomicLong lag = new AtomicLong();
+
+    private double limit;
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyController(String name,
+                                  KafkaReceiver<?, ?> receiver,
+                                  Set<TopicPartition> held,
+                                  boolean enabled,
+                                  int initialLimit,
+                                  int minLimit,
+                                  int maxLimit,
+                                  Duration latencyTarget,
+                                  double decreaseRatio,
+                                  MeterRegistry meterRegistry) {
+        this.name = name;
+        this.receiver = receiver;
+        this.held = held;
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.decreaseRatio = decreaseRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime() - latencyTargetNanos - 1;
+
+        Tags tags = Tags.of("receiver", name);
+        meterRegistry.gauge("order.consumer.concurrency", tags, this, AdaptiveConcurrencyController::limit);
+        meterRegistry.gauge("order.consumer.inflight", tags, inFlight);
+        meterRegistry.gauge("order.consumer.paused.partitions", tags, pausedPartitions);
+        meterRegistry.gauge("order.consumer.lag", tags, lag);
+    }
+
+    /**
+     * Counts a record (or batch) taken in; pauses intake when the budget is exhausted.
+     */
+    void acquire() {
+        if (inFlight.incrementAndGet() >= limit() && enabled && paused.compareAndSet(false, true)) {
+            log.info("Consumer '{}' reached in-flight limit {}, pausing partitions", name, (int) limit());
+            receiver.doOnConsumer(consumer -> {
+                        consumer.pause(consumer.assignment());
+                        pausedPartitions.set(consumer.paused().size());
+                        return true;
+                    })
+                    .onErrorResume(ex -> {
+                        log.warn("Failed to pause consumer '{}': {}", name, ex.getMessage());
+                        paused.set(false);
+                        return Mono.empty();
+                    })
+                    .subscribe();
+        }
+    }
+
+    /**
+     * Returns {@code records} permits to the budget and adapts the limit from their processing latency and outcome.
+     */
+    void release(int records, long latencyNanos, boolean failed) {
+        int remaining = inFlight.addAndGet(-records);
+        adapt(records, latencyNanos, failed);
+        if (remaining < limit() && paused.compareAndSet(true, false)) {
+            log.info("Consumer '{}' below in-flight limit {}, resuming partitions", name, (int) limit());
+            receiver.doOnConsumer(consumer -> {
+                        consumer.resume(consumer.assignment().stream()
+                                .filter(partition -> !held.contains(partition))
+                                .collect(Collectors.toSet()));
+                        pausedPartitions.set(consumer.paused().size());
+                        return true;
+                    })
+                    .onErrorResume(ex -> {
+                        log.warn("Failed to resume consumer '{}': {}", name, ex.getMessage());
+                        return Mono.empty();
+                    })
+                    .subscribe();
+        }
+    }
+
+    boolean isPaused() {
+        return paused.get();
+    }
+
+    /**
+     * Refreshes the paused-partition and lag gauges from the consumer.
+     */
+    Mono<Void> sample() {
+        return receiver.doOnConsumer(consumer -> {
+                    pausedPartitions.set(consumer.paused().size());
+                    lag.set(consumer.assignment().stream()
+                            .mapToLong(partition -> consumer.currentLag(partition).orElse(0L))
+                            .sum());
+                    return true;
+                })
+                .then();
+    }
+
+    /**
+     * Clears the in-flight count after the receive flux is resubscribed; records of the old subscription will
+     * never be released.
+     */
+    void reset() {
+        inFlight.set(0);
+        paused.set(false);
+    }
+
+    synchronized double limit() {
+        return limit;
+    }
+
+    private synchronized void adapt(int records, long latencyNanos, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        if (failed || latencyNanos > latencyTargetNanos) {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * decreaseRatio);
+                lastDecreaseNanos = now;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + records / limit);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-lived publishing pipeline over a {@link KafkaSender}. Any number of producers hand records in through
+ * {@link #send(ProducerRecord)}; they are fed into a single {@code KafkaSender.send(Flux)} so the producer can
+ * fill batches ({@code batch.size}/{@code linger.ms}) instead of running one send pipeline per record.
+ * Each caller gets the completion of its own record back; in-flight records are bounded by the sender's
+ * {@code maxInFlight} and queued records by {@code bufferSize}.
+ */
+@Slf4j
+public class KafkaSendPipeline<K, V> implements Disposable {
+
+    private final String name;
+    private final Sinks.Many<SenderRecord<K, V, Sinks.One<RecordMetadata>>> records;
+    /**
+     * Records handed to the sender and not acknowledged yet; they are lost when the send flux fails.
+     */
+    private final Set<Sinks.One<RecordMetadata>> inFlight = ConcurrentHashMap.newKeySet();
+    private final Disposable subscription;
+
+    public KafkaSendPipeline(String name, KafkaSender<K, V> kafkaSender, int bufferSize) {
+        this.name = name;
+        // autoCancel=false keeps the sink usable when the send flux is resubscribed after an error
+        this.records = Sinks.many().multicast().onBackpressureBuffer(bufferSize, false);
+        this.subscription = kafkaSender.send(records.asFlux().doOnNext(record -> inFlight.add(record.correlationMetadata())))
+                .doOnNext(this::complete)
+                .doOnError(this::failInFlight)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(100)).maxBackoff(Duration.ofSeconds(5)))
+                .subscribe();
+        log.info("Started Kafka send pipeline '{}' with bufferSize={}", name, bufferSize);
+    }
+
+    /**
+     * Queues a record on the shared pipeline.
+     *
+     * @return a {@link Mono} emitting the broker metadata once the record is acknowledged,
+     * or an error if it was rejected by the producer or the pipeline buffer is full
+     */
+    public Mono<RecordMetadata> send(ProducerRecord<K, V> record) {
+        return Mono.defer(() -> {
+            Sinks.One<RecordMetadata> result = Sinks.one();
+            SenderRecord<K, V, Sinks.One<RecordMetadata>> senderRecord = SenderRecord.create(record, result);
+            Sinks.EmitResult emitResult;
+            // Concurrent producers only race for a few nanoseconds, spin until the emission is serialized
+            while ((emitResult = records.tryEmitNext(senderRecord)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (emitResult.isFailure()) {
+                return Mono.error(new IllegalStateException(
+                        "Kafka send pipeline '" + name + "' rejected record: " + emitResult));
+            }
+            return result.asMono();
+        });
+    }
+
+    private void complete(SenderResult<Sinks.One<RecordMetadata>> result) {
+        inFlight.remove(result.correlationMetadata());
+        if (result.exception() == null) {
+            result.correlationMetadata().tryEmitValue(result.recordMetadata());
+        } else {
+            result.correlationMetadata().tryEmitError(result.exception());
+        }
+    }
+
+    /**
+     * Fails the callers of records the failed send flux took with it; records still queued in the sink are
+     * sent once the flux is resubscribed.
+     */
+    private void failInFlight(Throwable ex) {
+        log.error("Kafka send pipeline '{}' failed with {} record(s) in flight, resubscribing: {}",
+                name, inFlight.size(), ex.getMessage());
+        for (Sinks.One<RecordMetadata> result : inFlight) {
+            if (inFlight.remove(result)) {
+                result.tryEmitError(ex);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting records; records already queued are still sent before the pipeline terminates.
+     */
+    @Override
+    public void dispose() {
+        records.tryEmitComplete();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+}
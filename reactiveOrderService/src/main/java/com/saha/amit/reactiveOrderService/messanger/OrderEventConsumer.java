@@ -1,6 +1,8 @@
 package com.saha.amit.reactiveOrderService.messanger;
 
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventProtoMapper;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -8,53 +10,163 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
 import org.springframework.stereotype.Component;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverRecord;
 import reactor.util.retry.Retry;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Optional;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Slf4j
 @Component
 //@RequiredArgsConstructor
 public class OrderEventConsumer {
 
-    private static final String RETRY_ATTEMPT_HEADER = "retry-attempt";
-
     private final KafkaReceiver<String, OrderEvent> kafkaReceiver;
     private final KafkaReceiver<String, OrderEvent> retryKafkaReceiver;
+    private final KafkaReceiver<String, OrderEventMessage> protobufKafkaReceiver;
     private final DltPublisher dltPublisher;
     private final RetryEventPublisher retryEventPublisher;
+    private final ProcessedEventStore processedEventStore;
     private final MeterRegistry meterRegistry;
 
     @Value("${app.kafka.retry.max-attempts:3}")
     private int maxAttempts;
 
+    /**
+     * Consume the Protobuf topic as well; defaults to on when producers publish Protobuf.
+     */
+    @Value("${app.kafka.consumer.proto.enabled:${order.use-protobuf:false}}")
+    private boolean protoEnabled;
+
+    /**
+     * When true, records are processed in chunks and offsets are committed once per chunk
+     * instead of once per record.
+     */
+    @Value("${app.kafka.consumer.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${app.kafka.consumer.batch.size:500}")
+    private int batchSize;
+
+    @Value("${app.kafka.consumer.batch.interval:PT0.2S}")
+    private Duration batchInterval;
+
+    /**
+     * Number of processing rails in record mode; 0 uses one rail per available core.
+     */
+    @Value("${app.kafka.consumer.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * What records are ordered by: {@code key} (the event's order id, records of one order are processed in
+     * sequence whatever their record key) or {@code partition} (strict partition order, at most one rail per
+     * partition).
+     */
+    @Value("${app.kafka.consumer.ordering:key}")
+    private String ordering;
+
+    @Value("${app.kafka.consumer.adaptive.enabled:true}")
+    private boolean adaptiveEnabled;
+
+    @Value("${app.kafka.consumer.adaptive.initial-limit:64}")
+    private int adaptiveInitialLimit;
+
+    @Value("${app.kafka.consumer.adaptive.min-limit:4}")
+    private int adaptiveMinLimit;
+
+    @Value("${app.kafka.consumer.adaptive.max-limit:1024}")
+    private int adaptiveMaxLimit;
+
+    @Value("${app.kafka.consumer.adaptive.latency-target:PT0.5S}")
+    private Duration adaptiveLatencyTarget;
+
+    @Value("${app.kafka.consumer.adaptive.decrease-ratio:0.5}")
+    private double adaptiveDecreaseRatio;
+
+    @Value("${app.kafka.consumer.adaptive.sample-interval:PT10S}")
+    private Duration adaptiveSampleInterval;
+
     private Disposable mainSubscription;
     private Disposable retrySubscription;
+    private Disposable protoSubscription;
+    private Disposable samplerSubscription;
+    /**
+     * Resume timer per retry partition, so the held timers are bounded by the assigned partitions. A new
+     * deferral replaces and cancels a timer left over from a previous subscription.
+     */
+    private final Map<TopicPartition, Disposable.Swap> retryDeferrals = new ConcurrentHashMap<>();
+
+    /**
+     * Retry partitions paused until their head record is due, with the offset to rewind to.
+     */
+    private final Map<TopicPartition, Long> retryDeferred = new ConcurrentHashMap<>();
+
+    private AdaptiveConcurrencyController mainController;
+    private AdaptiveConcurrencyController retryController;
+    private AdaptiveConcurrencyController protoController;
 
     public OrderEventConsumer(@Qualifier("jsonKafkaReceiver")KafkaReceiver<String, OrderEvent> kafkaReceiver,
                               @Qualifier("retryKafkaReceiver")KafkaReceiver<String, OrderEvent> retryKafkaReceiver,
+                              @Qualifier("protobufKafkaReceiver")KafkaReceiver<String, OrderEventMessage> protobufKafkaReceiver,
                               DltPublisher dltPublisher,
                               RetryEventPublisher retryEventPublisher,
+                              ProcessedEventStore processedEventStore,
                               MeterRegistry meterRegistry) {
         this.kafkaReceiver = kafkaReceiver;
         this.retryKafkaReceiver = retryKafkaReceiver;
+        this.protobufKafkaReceiver = protobufKafkaReceiver;
         this.dltPublisher = dltPublisher;
         this.retryEventPublisher = retryEventPublisher;
+        this.processedEventStore = processedEventStore;
         this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
     public void start() {
-        log.info("Starting OrderEventConsumer with maxAttempts={}", maxAttempts);
-        this.mainSubscription = subscribe(kafkaReceiver, false);
-        this.retrySubscription = subscribe(retryKafkaReceiver, true);
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        log.info("Starting OrderEventConsumer with maxAttempts={} batchEnabled={} batchSize={} batchInterval={} parallelism={} ordering={} protoEnabled={}",
+                maxAttempts, batchEnabled, batchSize, batchInterval, parallelism, ordering, protoEnabled);
+        this.mainController = newController("main", kafkaReceiver, Set.of());
+        this.retryController = newController("retry", retryKafkaReceiver, retryDeferred.keySet());
+        this.mainSubscription = subscribe(kafkaReceiver::receive, false, mainController);
+        this.retrySubscription = subscribe(() -> receiveDueRetries(retryKafkaReceiver), true, retryController);
+        if (protoEnabled) {
+            this.protoController = newController("proto", protobufKafkaReceiver, Set.of());
+            this.protoSubscription = subscribe(() -> protobufKafkaReceiver.receive().map(OrderEventConsumer::fromProto),
+                    false, protoController);
+        }
+        this.samplerSubscription = Flux.interval(adaptiveSampleInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.when(mainController.sample(), retryController.sample(),
+                                protoController != null ? protoController.sample() : Mono.empty())
+                        .onErrorResume(ex -> Mono.empty()))
+                .subscribe();
+    }
+
+    private AdaptiveConcurrencyController newController(String name,
+                                                        KafkaReceiver<?, ?> receiver,
+                                                        Set<TopicPartition> held) {
+        return new AdaptiveConcurrencyController(name, receiver, held, adaptiveEnabled,
+                adaptiveInitialLimit, adaptiveMinLimit, adaptiveMaxLimit,
+                adaptiveLatencyTarget, adaptiveDecreaseRatio, meterRegistry);
     }
 
     @PreDestroy
@@ -65,28 +177,216 @@ public class OrderEventConsumer {
         if (retrySubscription != null) {
             retrySubscription.dispose();
         }
+        if (protoSubscription != null) {
+            protoSubscription.dispose();
+        }
+        if (samplerSubscription != null) {
+            samplerSubscription.dispose();
+        }
+        retryDeferrals.values().forEach(Disposable::dispose);
+        retryDeferrals.clear();
     }
 
-    private Disposable subscribe(KafkaReceiver<String, OrderEvent> receiver, boolean isRetryTopic) {
-        return receiver.receive()
-                .flatMap(record -> processRecord(record, isRetryTopic).thenReturn(record))
+    private Disposable subscribe(Supplier<Flux<ReceiverRecord<String, OrderEvent>>> source,
+                                 boolean isRetryTopic,
+                                 AdaptiveConcurrencyController controller) {
+        Flux<?> processed = Flux.defer(() -> {
+            controller.reset();
+            Flux<ReceiverRecord<String, OrderEvent>> records = source.get();
+            // In batch mode the budget counts batches, so intake is never paused before a batch can fill up
+            return batchEnabled
+                    ? records.bufferTimeout(batchSize, batchInterval)
+                            .doOnNext(batch -> controller.acquire())
+                            .concatMap(batch -> processBatch(batch, isRetryTopic, controller))
+                    : processOnRails(records.doOnNext(record -> controller.acquire()), isRetryTopic, controller);
+        });
+        return processed
                 .doOnError(ex -> log.error("Error consuming Kafka events", ex))
                 .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofSeconds(5)))
                 .subscribe();
     }
 
-    private Mono<Void> processRecord(ReceiverRecord<String, OrderEvent> record, boolean isRetryTopic) {
+    /**
+     * Spreads records over {@code parallelism} rails by order id (or partition). Each rail processes its records
+     * one at a time, so records of the same order keep their order while different orders use all cores.
+     * Completions are acknowledged in offset order per partition through an {@link OrderedAcknowledger},
+     * created per subscription so a resubscription starts clean.
+     */
+    private Flux<ReceiverRecord<String, OrderEvent>> processOnRails(Flux<ReceiverRecord<String, OrderEvent>> records,
+                                                                     boolean isRetryTopic,
+                                                                     AdaptiveConcurrencyController controller) {
+        OrderedAcknowledger acknowledger = new OrderedAcknowledger();
+        return records
+                .doOnNext(acknowledger::register)
+                .groupBy(this::railOf)
+                // Every rail stays open, so concurrency must cover all of them
+                .flatMap(rail -> rail
+                        .publishOn(Schedulers.parallel())
+                        .concatMap(record -> processRecord(record, isRetryTopic, acknowledger, controller).thenReturn(record)),
+                        parallelism);
+    }
+
+    /**
+     * Producers key records by event id, so the rail follows the order id in the payload; records without one
+     * stay in partition order.
+     */
+    private int railOf(ReceiverRecord<String, OrderEvent> record) {
+        String orderId = record.value() != null ? record.value().orderId() : null;
+        Object orderingKey = "partition".equalsIgnoreCase(ordering) || orderId == null
+                ? record.receiverOffset().topicPartition()
+                : orderId;
+        return Math.floorMod(orderingKey.hashCode(), parallelism);
+    }
+
+    /**
+     * Presents a Protobuf record as an {@link OrderEvent} record with the same coordinates, headers and offset,
+     * so it goes through the same processing, retry and DLT path as JSON records.
+     */
+    static ReceiverRecord<String, OrderEvent> fromProto(ReceiverRecord<String, OrderEventMessage> record) {
+        OrderEventMessage message = record.value();
+        ConsumerRecord<String, OrderEvent> converted = new ConsumerRecord<>(
+                record.topic(),
+                record.partition(),
+                record.offset(),
+                record.timestamp(),
+                record.timestampType(),
+                record.serializedKeySize(),
+                record.serializedValueSize(),
+                record.key(),
+                message == null ? null : OrderEventProtoMapper.fromProto(message),
+                record.headers(),
+                record.leaderEpoch());
+        return new ReceiverRecord<>(converted, record.receiverOffset());
+    }
+
+    /**
+     * Emits retry records once they are due. Records of a tier topic are in due order per partition, so when the
+     * head of a partition is not due yet the partition is paused and rewound to that record; records of the
+     * partition still in flight are dropped (they are fetched again). When the due time passes, the partition is
+     * rewound once more and resumed. Waiting therefore costs one timer per partition and no buffered records.
+     */
+    private Flux<ReceiverRecord<String, OrderEvent>> receiveDueRetries(KafkaReceiver<String, OrderEvent> receiver) {
+        retryDeferred.clear();
+        return receiver.receive()
+                .filter(record -> isDue(receiver, record, retryDeferred));
+    }
+
+    private boolean isDue(KafkaReceiver<String, OrderEvent> receiver,
+                          ReceiverRecord<String, OrderEvent> record,
+                          Map<TopicPartition, Long> deferred) {
+        TopicPartition partition = record.receiverOffset().topicPartition();
+        if (deferred.containsKey(partition)) {
+            return false;
+        }
+        long wait = resolveDueAt(record) - System.currentTimeMillis();
+        if (wait <= 0) {
+            return true;
+        }
+
+        long offset = record.offset();
+        deferred.put(partition, offset);
+        meterRegistry.counter("order.retry.deferred", "topic", record.topic()).increment();
+        log.debug("Pausing {} for {}ms until retry at offset {} is due", partition, wait, offset);
+
+        Disposable.Swap deferral = retryDeferrals.computeIfAbsent(partition, key -> Disposables.swap());
+        deferral.update(receiver.doOnConsumer(consumer -> {
+                    consumer.pause(List.of(partition));
+                    consumer.seek(partition, offset);
+                    return partition;
+                })
+                .then(Mono.delay(Duration.ofMillis(wait)))
+                .then(receiver.doOnConsumer(consumer -> {
+                    // Runs on the polling thread, so records fetched after resume are no longer dropped
+                    deferred.remove(partition);
+                    if (consumer.assignment().contains(partition)) {
+                        consumer.seek(partition, offset);
+                        // While the in-flight budget is exhausted the controller resumes it later
+                        if (!retryController.isPaused()) {
+                            consumer.resume(List.of(partition));
+                        }
+                    }
+                    return partition;
+                }))
+                .doOnError(ex -> {
+                    deferred.remove(partition);
+                    log.warn("Failed to defer retry partition {}: {}", partition, ex.getMessage());
+                })
+                .subscribe());
+        return false;
+    }
+
+    private Mono<Void> processRecord(ReceiverRecord<String, OrderEvent> record,
+                                     boolean isRetryTopic,
+                                     OrderedAcknowledger acknowledger,
+                                     AdaptiveConcurrencyController controller) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return process(record, isRetryTopic)
+                    .doOnNext(succeeded -> {
+                        controller.release(1, System.nanoTime() - start, !succeeded);
+                        acknowledger.complete(record);
+                    })
+                    .then();
+        });
+    }
+
+    /**
+     * Processes a chunk in offset order, then commits the last offset of every partition in it. Failed records
+     * have already been handed to retry/DLT by {@link #process}, so the whole chunk can be committed.
+     */
+    private Mono<Integer> processBatch(List<ReceiverRecord<String, OrderEvent>> batch,
+                                       boolean isRetryTopic,
+                                       AdaptiveConcurrencyController controller) {
+        Map<TopicPartition, ReceiverRecord<String, OrderEvent>> lastByPartition = new LinkedHashMap<>();
+        batch.forEach(record -> lastByPartition.put(record.receiverOffset().topicPartition(), record));
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.fromIterable(batch)
+                    .concatMap(record -> process(record, isRetryTopic))
+                    .all(Boolean::booleanValue)
+                    .flatMap(allSucceeded -> Flux.fromIterable(lastByPartition.values())
+                            .flatMap(record -> record.receiverOffset().commit())
+                            .then()
+                            // One permit per batch; the latency target is per record, so the batch is judged by its
+                            // average latency
+                            .doOnSuccess(ignored -> controller.release(1,
+                                    (System.nanoTime() - start) / batch.size(), !allSucceeded)))
+                    .doOnSuccess(ignored -> {
+                        meterRegistry.counter("order.consumer.batches").increment();
+                        meterRegistry.summary("order.consumer.batch.size").record(batch.size());
+                    })
+                    .thenReturn(batch.size());
+        });
+    }
+
+    /**
+     * @return whether the business logic succeeded; failures have been routed to retry/DLT
+     */
+    private Mono<Boolean> process(ReceiverRecord<String, OrderEvent> record, boolean isRetryTopic) {
         OrderEvent event = record.value();
         int attempt = resolveAttempt(record, isRetryTopic);
 
         log.info("Received eventId={} from topic={} partition={} offset={} attempt={} retryTopic={}",
                 event.eventId(), record.topic(), record.partition(), record.offset(), attempt, isRetryTopic);
 
-        return handleBusinessLogic(event)
-                .doOnSuccess(ignored -> meterRegistry.counter("order.consumer.processed").increment())
-                .doOnError(ex -> meterRegistry.counter("order.consumer.failed").increment())
-                .onErrorResume(ex -> handleFailure(record, event, attempt, ex))
-                .then(Mono.fromRunnable(record.receiverOffset()::acknowledge));
+        return processedEventStore.isDuplicate(event.eventId())
+                .flatMap(duplicate -> {
+                    if (duplicate) {
+                        log.info("Skipping duplicate eventId={}", event.eventId());
+                        meterRegistry.counter("order.consumer.duplicates").increment();
+                        return Mono.just(true);
+                    }
+                    // Only successes are remembered: a failed event is republished with the same id to be retried
+                    return handleBusinessLogic(event)
+                            .doOnSuccess(ignored -> {
+                                processedEventStore.markProcessed(event.eventId());
+                                meterRegistry.counter("order.consumer.processed").increment();
+                            })
+                            .doOnError(ex -> meterRegistry.counter("order.consumer.failed").increment())
+                            .thenReturn(true)
+                            .onErrorResume(ex -> handleFailure(record, event, attempt, ex).thenReturn(false));
+                });
     }
 
     private Mono<Void> handleBusinessLogic(OrderEvent event) {
@@ -125,9 +425,29 @@ public class OrderEventConsumer {
             return 0;
         }
 
-        return Optional.ofNullable(record.headers().lastHeader(RETRY_ATTEMPT_HEADER))
-                .map(header -> new String(header.value(), StandardCharsets.UTF_8))
-                .map(Integer::parseInt)
-                .orElse(1);
+        return (int) numericHeader(record, RetryEventPublisher.RETRY_ATTEMPT_HEADER, 1);
+    }
+
+    private long resolveDueAt(ReceiverRecord<String, OrderEvent> record) {
+        return numericHeader(record, RetryEventPublisher.RETRY_DUE_AT_HEADER, 0L);
+    }
+
+    /**
+     * A malformed header must not fail the receive flux, which would re-read the same record on every
+     * resubscription; it is logged and treated as absent.
+     */
+    private long numericHeader(ReceiverRecord<String, OrderEvent> record, String name, long defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        if (header == null) {
+            return defaultValue;
+        }
+        String value = header.value() == null ? "" : new String(header.value(), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            meterRegistry.counter("order.consumer.malformed.header", "header", name).increment();
+            log.warn("Ignoring malformed {} header '{}' on {}-{}@{}", name, value, record.topic(), record.partition(), record.offset());
+            return defaultValue;
+        }
     }
 }
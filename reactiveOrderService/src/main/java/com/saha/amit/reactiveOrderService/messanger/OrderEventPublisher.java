@@ -2,6 +2,7 @@ package com.saha.amit.reactiveOrderService.messanger;
 
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
 import com.saha.amit.reactiveOrderService.events.OrderEventProtoMapper;
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
 import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -12,18 +13,17 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.kafka.sender.KafkaSender;
-import reactor.kafka.sender.SenderRecord;
-import reactor.kafka.sender.SenderResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 @Slf4j
 @Service
 public class OrderEventPublisher {
 
-    private final KafkaSender<String, OrderEvent> jsonKafkaSender;
-    private final KafkaSender<String, OrderEventMessage> protobufKafkaSender;
+    private final KafkaSendPipeline<String, OrderEvent> jsonSendPipeline;
+    private final KafkaSendPipeline<String, OrderEventMessage> protobufSendPipeline;
+    private final KafkaSendPipeline<String, byte[]> byteSendPipeline;
     private final DltPublisher dltPublisher;
     private final MeterRegistry meterRegistry;
     private final Counter successCounter;
@@ -36,13 +36,15 @@ public class OrderEventPublisher {
     private String orderProtoTopic;
 
     public OrderEventPublisher(
-            @Qualifier("jsonKafkaSender") KafkaSender<String, OrderEvent> jsonKafkaSender,
-            @Qualifier("protobufKafkaSender") KafkaSender<String, OrderEventMessage> protobufKafkaSender,
+            @Qualifier("jsonSendPipeline") KafkaSendPipeline<String, OrderEvent> jsonSendPipeline,
+            @Qualifier("protobufSendPipeline") KafkaSendPipeline<String, OrderEventMessage> protobufSendPipeline,
+            @Qualifier("byteSendPipeline") KafkaSendPipeline<String, byte[]> byteSendPipeline,
             DltPublisher dltPublisher,
             MeterRegistry meterRegistry) {
 
-        this.jsonKafkaSender = jsonKafkaSender;
-        this.protobufKafkaSender = protobufKafkaSender;
+        this.jsonSendPipeline = jsonSendPipeline;
+        this.protobufSendPipeline = protobufSendPipeline;
+        this.byteSendPipeline = byteSendPipeline;
         this.dltPublisher = dltPublisher;
         this.meterRegistry = meterRegistry;
         this.successCounter = meterRegistry.counter("order.publisher.success");
@@ -63,54 +65,55 @@ public class OrderEventPublisher {
         }
     }
 
+    /**
+     * Forwards an already serialised event as-is. The target topic follows the content type
+     * and the record is keyed by the order id.
+     *
+     * @param contentType  {@link OrderOutboxEntity#CONTENT_TYPE_JSON} or {@link OrderOutboxEntity#CONTENT_TYPE_PROTOBUF}
+     * @param key          Record key.
+     * @param payload      Final wire bytes.
+     */
+    public Mono<Void> publishSerialized(String contentType, String key, byte[] payload) {
+        String topic = OrderOutboxEntity.CONTENT_TYPE_PROTOBUF.equals(contentType) ? orderProtoTopic : orderTopic;
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, payload);
+        record.headers().add("content-type", contentType.getBytes(StandardCharsets.UTF_8));
+
+        return byteSendPipeline.send(record)
+                .timeout(Duration.ofSeconds(10))
+                .doOnNext(metadata -> handleSuccess("BYTES", key, metadata))
+                .doOnError(ex -> handleFailure("BYTES", key, ex))
+                .then();
+    }
+
     private Mono<Void> publishAsJson(OrderEvent event) {
-        SenderRecord<String, OrderEvent, OrderEvent> record =
-                SenderRecord.create(new ProducerRecord<>(orderTopic, event.eventId(), event), event);
+        ProducerRecord<String, OrderEvent> record = new ProducerRecord<>(orderTopic, event.eventId(), event);
 
-        return jsonKafkaSender.send(Mono.just(record))
+        return jsonSendPipeline.send(record)
                 .timeout(Duration.ofSeconds(10))
-                .flatMap(this::handleJsonResult)
+                .doOnNext(metadata -> handleSuccess("JSON", event.eventId(), metadata))
+                .doOnError(ex -> handleFailure("JSON", event.eventId(), ex))
                 .then();
     }
 
     private Mono<Void> publishAsProtobuf(OrderEvent event) {
         OrderEventMessage message = OrderEventProtoMapper.toProto(event);
+        ProducerRecord<String, OrderEventMessage> record = new ProducerRecord<>(orderProtoTopic, event.eventId(), message);
 
-        SenderRecord<String, OrderEventMessage, OrderEventMessage> record =
-                SenderRecord.create(new ProducerRecord<>(orderProtoTopic, event.eventId(), message), message);
-
-        return protobufKafkaSender.send(Mono.just(record))
+        return protobufSendPipeline.send(record)
                 .timeout(Duration.ofSeconds(10))
-                .flatMap(this::handleProtobufResult)
+                .doOnNext(metadata -> handleSuccess("PROTOBUF", event.eventId(), metadata))
+                .doOnError(ex -> handleFailure("PROTOBUF", event.eventId(), ex))
                 .then();
     }
 
-    private Mono<Void> handleJsonResult(SenderResult<OrderEvent> result) {
-        if (result.exception() == null) {
-            successCounter.increment();
-            RecordMetadata metadata = result.recordMetadata();
-            log.info("✅ [JSON] Published eventId={} topic={} partition={} offset={}",
-                    result.correlationMetadata().eventId(), metadata.topic(), metadata.partition(), metadata.offset());
-            return Mono.empty();
-        } else {
-            failureCounter.increment();
-            log.error("❌ [JSON] Failed to publish event: {}", result.exception().getMessage());
-            return Mono.error(result.exception());
-        }
+    private void handleSuccess(String format, String eventId, RecordMetadata metadata) {
+        successCounter.increment();
+        log.info("✅ [{}] Published eventId={} topic={} partition={} offset={}",
+                format, eventId, metadata.topic(), metadata.partition(), metadata.offset());
     }
 
-    private Mono<Void> handleProtobufResult(SenderResult<OrderEventMessage> result) {
-        if (result.exception() == null) {
-            successCounter.increment();
-            RecordMetadata metadata = result.recordMetadata();
-            log.info("✅ [PROTOBUF] Published eventId={} topic={} partition={} offset={}",
-                    result.correlationMetadata().getEventId(), metadata.topic(), metadata.partition(), metadata.offset());
-            return Mono.empty();
-        } else {
-            failureCounter.increment();
-            log.error("❌ [PROTOBUF] Failed to publish event: {}", result.exception().getMessage());
-            return Mono.error(result.exception());
-        }
+    private void handleFailure(String format, String eventId, Throwable ex) {
+        failureCounter.increment();
+        log.error("❌ [{}] Failed to publish eventId={}: {}", format, eventId, ex.getMessage());
     }
 }
-
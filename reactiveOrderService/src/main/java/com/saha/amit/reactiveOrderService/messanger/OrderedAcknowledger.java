@@ -0,0 +1,62 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import org.apache.kafka.common.TopicPartition;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks records that complete out of order across processing rails and acknowledges them in offset order per
+ * partition. A record is only acknowledged once every earlier record of its partition is done, so the committed
+ * offset never moves past a record that is still being processed.
+ * <p>
+ * {@link #register} must be called in receive order; {@link #complete} may be called from any thread.
+ */
+class OrderedAcknowledger {
+
+    private final Map<TopicPartition, PartitionQueue> partitions = new ConcurrentHashMap<>();
+
+    private static final class Pending {
+        private final ReceiverOffset offset;
+        private boolean done;
+
+        private Pending(ReceiverOffset offset) {
+            this.offset = offset;
+        }
+    }
+
+    private static final class PartitionQueue {
+        private final ArrayDeque<Pending> inFlight = new ArrayDeque<>();
+        private final Map<Long, Pending> byOffset = new HashMap<>();
+    }
+
+    void register(ReceiverRecord<?, ?> record) {
+        PartitionQueue queue = partitions.computeIfAbsent(record.receiverOffset().topicPartition(), tp -> new PartitionQueue());
+        Pending pending = new Pending(record.receiverOffset());
+        synchronized (queue) {
+            queue.inFlight.addLast(pending);
+            queue.byOffset.put(record.receiverOffset().offset(), pending);
+        }
+    }
+
+    void complete(ReceiverRecord<?, ?> record) {
+        PartitionQueue queue = partitions.get(record.receiverOffset().topicPartition());
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            Pending pending = queue.byOffset.remove(record.receiverOffset().offset());
+            if (pending == null) {
+                return;
+            }
+            pending.done = true;
+            while (!queue.inFlight.isEmpty() && queue.inFlight.peekFirst().done) {
+                queue.inFlight.pollFirst().offset.acknowledge();
+            }
+        }
+    }
+}
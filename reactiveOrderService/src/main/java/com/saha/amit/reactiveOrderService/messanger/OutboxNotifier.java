@@ -0,0 +1,25 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process wake-up signal for {@link OutboxPublisher}. Signalled once an order and its outbox row are
+ * committed so the dispatcher drains right away instead of waiting for the next poll.
+ * Signals are coalesced by the dispatcher; a missed signal only delays dispatch until the next poll.
+ */
+@Component
+public class OutboxNotifier {
+
+    private final Sinks.Many<Boolean> wakeUps = Sinks.many().multicast().directBestEffort();
+
+    public void wakeUp() {
+        // FAIL_NON_SERIALIZED means another wake-up is being emitted right now, which is just as good
+        wakeUps.tryEmitNext(Boolean.TRUE);
+    }
+
+    public Flux<Boolean> wakeUps() {
+        return wakeUps.asFlux();
+    }
+}
@@ -5,6 +5,7 @@ import com.saha.amit.reactiveOrderService.events.OrderEvent;
 import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
 import com.saha.amit.reactiveOrderService.model.OutboxStatus;
 import com.saha.amit.reactiveOrderService.repository.OrderOutboxRepository;
+import com.saha.amit.reactiveOrderService.repository.OutboxLeaseRepository;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -19,6 +20,11 @@ import reactor.core.Disposable;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
@@ -27,19 +33,60 @@ import java.time.Instant;
 public class OutboxPublisher {
 
     private final OrderOutboxRepository outboxRepository;
+    private final OutboxLeaseRepository outboxLeaseRepository;
     private final OrderEventPublisher orderEventPublisher;
+    private final OutboxStatusWriter outboxStatusWriter;
+    private final OutboxNotifier outboxNotifier;
     private final ObjectMapper objectMapper;
     private final MeterRegistry meterRegistry;
 
     @Value("${app.kafka.outbox.poll-interval:PT1S}")
     private Duration pollInterval;
 
+    /**
+     * Safety-net poll backs off up to this interval while the outbox is empty. Wake-ups only reach the instance
+     * that committed the order, so this is also the worst-case delay for rows of partitions owned elsewhere.
+     */
+    @Value("${app.kafka.outbox.max-poll-interval:PT1S}")
+    private Duration maxPollInterval;
+
     @Value("${app.kafka.outbox.batch-size:50}")
     private int batchSize;
 
     @Value("${app.kafka.outbox.max-attempts:5}")
     private int maxAttempts;
 
+    /**
+     * Number of virtual partitions {@code order_outbox} rows are hashed into by aggregate id.
+     * Must match the value used by {@code OutboxService} when rows are written.
+     */
+    @Value("${app.kafka.outbox.partitions:16}")
+    private int partitions;
+
+    /** Owned partitions drained concurrently by this instance; each partition is still drained serially. */
+    @Value("${app.kafka.outbox.workers:4}")
+    private int workers;
+
+    @Value("${app.kafka.outbox.lease-duration:PT15S}")
+    private Duration leaseDuration;
+
+    /** Upper bound of partitions a single instance may own on top of its fair share; 0 means no extra limit. */
+    @Value("${app.kafka.outbox.max-partitions-per-instance:0}")
+    private int maxPartitionsPerInstance;
+
+    @Value("${HOSTNAME:order-service}")
+    private String hostname;
+
+    private String workerId;
+
+    private volatile Duration currentPollDelay;
+
+    private volatile List<Integer> ownedPartitions = List.of();
+
+    private volatile Instant leasesRenewedAt = Instant.EPOCH;
+
+    private volatile Instant leaseExpiresAt = Instant.EPOCH;
+
     private Disposable subscription;
 
     @Value("${order.use-protobuf:false}")
@@ -47,10 +94,20 @@ public class OutboxPublisher {
 
     @PostConstruct
     public void start() {
-        log.info("Starting OutboxPublisher with pollInterval={} batchSize={}", pollInterval, batchSize);
-        subscription = Flux.interval(Duration.ZERO, pollInterval)
-                .flatMap(tick -> outboxRepository.findNextBatch(Instant.now(), batchSize))
-                .flatMap(this::publishOutboxRecord, 1)
+        workerId = hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+        currentPollDelay = pollInterval;
+        log.info("Starting OutboxPublisher workerId={} pollInterval={} maxPollInterval={} batchSize={} partitions={} workers={} leaseDuration={}",
+                workerId, pollInterval, maxPollInterval, batchSize, partitions, workers, leaseDuration);
+
+        // Adaptive safety-net poll: the delay is re-read on every repeat
+        Flux<Boolean> polls = Mono.defer(() -> Mono.delay(currentPollDelay)).map(tick -> Boolean.TRUE).repeat();
+
+        subscription = outboxLeaseRepository.initialize(partitions)
+                .thenMany(Flux.merge(Mono.just(Boolean.TRUE), polls, outboxNotifier.wakeUps()))
+                // Triggers arriving during a dispatch collapse into a single follow-up dispatch
+                .onBackpressureLatest()
+                .flatMap(trigger -> dispatchOwnedPartitions(), 1, 1)
+                .doOnNext(this::adaptPollDelay)
                 .onErrorContinue((ex, record) -> log.error("Outbox dispatch errored: {}", ex.getMessage()))
                 .subscribe();
     }
@@ -60,16 +117,184 @@ public class OutboxPublisher {
         if (subscription != null) {
             subscription.dispose();
         }
+        if (workerId != null) {
+            outboxLeaseRepository.releaseAll(workerId)
+                    .onErrorResume(ex -> {
+                        log.warn("Failed to release outbox leases for {}: {}", workerId, ex.getMessage());
+                        return Mono.empty();
+                    })
+                    .block(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Drains the owned partitions in parallel and returns the number of rows dispatched.
+     * Dispatches never overlap: triggers arriving meanwhile are coalesced upstream.
+     */
+    private Mono<Long> dispatchOwnedPartitions() {
+        return ownedPartitions()
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(this::drainPartition, workers)
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Returns the partitions leased by this worker, claiming or renewing leases once a third of the
+     * lease duration has passed so that frequent wake-ups don't hit the lease table every time.
+     * <p>
+     * Each worker keeps at most its fair share, {@code ceil(partitions / live workers)}: owned leases are
+     * renewed first, leases above the share are released for the other workers, and free or expired
+     * partitions are claimed until the share is reached.
+     */
+    private Mono<List<Integer>> ownedPartitions() {
+        Instant now = Instant.now();
+        if (now.isBefore(leasesRenewedAt.plus(leaseDuration.dividedBy(3)))) {
+            return Mono.just(ownedPartitions);
+        }
+
+        Instant leaseExpiry = now.plus(leaseDuration);
+        List<Integer> current = ownedPartitions;
+
+        return outboxLeaseRepository.heartbeat(workerId, now, now.minus(leaseDuration))
+                .map(this::fairShare)
+                .flatMap(share -> {
+                    List<Integer> kept = current.subList(0, Math.min(share, current.size()));
+                    List<Integer> excess = current.subList(kept.size(), current.size());
+
+                    Mono<Void> released = Flux.fromIterable(excess)
+                            .concatMap(partition -> outboxLeaseRepository.release(partition, workerId))
+                            .then();
+                    Mono<List<Integer>> renewed = Flux.fromIterable(kept)
+                            .concatMap(partition -> tryAcquire(partition, now, leaseExpiry))
+                            .collectList();
+
+                    return released.then(renewed)
+                            .flatMap(owned -> claim(owned, current, share, now, leaseExpiry));
+                })
+                .doOnNext(partitionsOwned -> {
+                    if (!partitionsOwned.equals(current)) {
+                        log.info("Outbox worker {} now owns partitions {}", workerId, partitionsOwned);
+                    }
+                    ownedPartitions = partitionsOwned;
+                    leasesRenewedAt = now;
+                    leaseExpiresAt = leaseExpiry;
+                });
+    }
+
+    private int fairShare(long liveWorkers) {
+        int share = (int) ((partitions + Math.max(1, liveWorkers) - 1) / Math.max(1, liveWorkers));
+        return maxPartitionsPerInstance > 0 ? Math.min(share, maxPartitionsPerInstance) : share;
+    }
+
+    /**
+     * Tops {@code owned} up to {@code share} with partitions that are free or whose lease expired.
+     */
+    private Mono<List<Integer>> claim(List<Integer> owned, List<Integer> previouslyOwned, int share,
+                                      Instant now, Instant leaseExpiry) {
+        int missing = share - owned.size();
+        if (missing <= 0) {
+            return Mono.just(owned);
+        }
+        // Start at a worker specific offset so instances don't all contend for partition 0 first
+        int offset = Math.floorMod(workerId.hashCode(), partitions);
+
+        return Flux.range(0, partitions)
+                .map(i -> (offset + i) % partitions)
+                .filter(partition -> !previouslyOwned.contains(partition))
+                .concatMap(partition -> tryAcquire(partition, now, leaseExpiry))
+                .take(missing)
+                .collectList()
+                .map(claimed -> {
+                    List<Integer> all = new ArrayList<>(owned);
+                    all.addAll(claimed);
+                    return List.copyOf(all);
+                });
+    }
+
+    private Mono<Integer> tryAcquire(int partition, Instant now, Instant leaseExpiry) {
+        return outboxLeaseRepository.tryAcquire(partition, workerId, now, leaseExpiry)
+                .filter(Boolean::booleanValue)
+                .map(acquired -> partition);
+    }
+
+    /**
+     * Keeps draining while rows are found and backs the safety-net poll off exponentially while the outbox is empty.
+     */
+    private void adaptPollDelay(long dispatched) {
+        if (dispatched > 0) {
+            currentPollDelay = pollInterval;
+            outboxNotifier.wakeUp();
+        } else {
+            Duration doubled = currentPollDelay.multipliedBy(2);
+            Duration cap = maxPollInterval.compareTo(pollInterval) > 0 ? maxPollInterval : pollInterval;
+            currentPollDelay = doubled.compareTo(cap) > 0 ? cap : doubled;
+        }
+    }
+
+    /**
+     * Publishes one batch of a partition in {@code created_at} order. Once a row of an aggregate fails,
+     * later rows of the same aggregate are left for the next round so per-order ordering is kept.
+     * Status changes are handed to {@link OutboxStatusWriter} and the drain completes once they are flushed,
+     * so the next round never re-reads rows that were already sent.
+     * <p>
+     * Rows are only sent while the lease taken before the drain is safely valid: once a third of the lease
+     * duration is left, the rest of the batch is left for the next round, by which time the lease has been
+     * renewed or handed over. A worker that stalls past its lease therefore never sends rows another worker
+     * may have claimed meanwhile; rows it already sent are still marked.
+     */
+    private Mono<Long> drainPartition(int partition) {
+        Set<String> blockedAggregates = ConcurrentHashMap.newKeySet();
+        Instant fence = leaseExpiresAt.minus(leaseDuration.dividedBy(3));
+
+        return outboxRepository.findNextBatchForPartition(partition, Instant.now(), batchSize)
+                .concatMap(entity -> {
+                    if (blockedAggregates.contains(entity.getAggregateId())) {
+                        return Mono.<OrderOutboxEntity>empty();
+                    }
+                    if (Instant.now().isAfter(fence)) {
+                        log.warn("Lease on outbox partition {} is about to expire, leaving entry {} for the next round",
+                                partition, entity.getId());
+                        blockedAggregates.add(entity.getAggregateId());
+                        return Mono.<OrderOutboxEntity>empty();
+                    }
+                    return publishOutboxRecord(entity)
+                            .doOnNext(published -> {
+                                if (published.getStatus() != OutboxStatus.PUBLISHED) {
+                                    blockedAggregates.add(published.getAggregateId());
+                                }
+                            })
+                            .onErrorResume(ex -> {
+                                log.error("Outbox entry {} in partition {} could not be dispatched: {}",
+                                        entity.getId(), partition, ex.getMessage());
+                                blockedAggregates.add(entity.getAggregateId());
+                                return Mono.empty();
+                            });
+                })
+                .flatMap(entity -> outboxStatusWriter.write(entity)
+                        .thenReturn(entity)
+                        .onErrorResume(ex -> {
+                            log.warn("Status of outbox entry {} not persisted, it will be dispatched again: {}",
+                                    entity.getId(), ex.getMessage());
+                            return Mono.empty();
+                        }), batchSize)
+                .count();
     }
 
-    private Mono<Void> publishOutboxRecord(OrderOutboxEntity entity) {
+    /**
+     * Publishes the outbox record and applies the resulting status to the entity in memory.
+     * Persisting that status is left to the caller.
+     */
+    private Mono<OrderOutboxEntity> publishOutboxRecord(OrderOutboxEntity entity) {
         return Mono.defer(() -> {
-            OrderEvent event = deserialize(entity);
-            return orderEventPublisher.publish(event, useProtobuf)
-                    .then(updateStatus(entity, OutboxStatus.PUBLISHED, null))
+            // Wire-bytes rows are forwarded untouched; text rows are parsed and serialised for the configured format
+            Mono<Void> send = entity.getPayloadBytes() != null
+                    ? orderEventPublisher.publishSerialized(entity.getContentType(), entity.getAggregateId(), entity.getPayloadBytes())
+                    : orderEventPublisher.publish(deserialize(entity), useProtobuf);
+            return send
+                    .then(Mono.fromCallable(() -> markPublished(entity)))
                     .doOnSuccess(ignored -> meterRegistry.counter("order.outbox.published").increment())
                     .doOnError(ex -> meterRegistry.counter("order.outbox.failed").increment())
-                    .onErrorResume(ex -> updateForRetry(entity, ex));
+                    .onErrorResume(ex -> Mono.just(markForRetry(entity, ex)));
         });
     }
 
@@ -81,15 +306,15 @@ public class OutboxPublisher {
         }
     }
 
-    private Mono<Void> updateStatus(OrderOutboxEntity entity, OutboxStatus status, String lastError) {
-        entity.setStatus(status);
-        entity.setLastError(lastError);
+    private OrderOutboxEntity markPublished(OrderOutboxEntity entity) {
+        entity.setStatus(OutboxStatus.PUBLISHED);
+        entity.setLastError(null);
         entity.setAvailableAt(Instant.now());
         entity.setAttempts(entity.getAttempts() + 1);
-        return outboxRepository.save(entity).then();
+        return entity;
     }
 
-    private Mono<Void> updateForRetry(OrderOutboxEntity entity, Throwable ex) {
+    private OrderOutboxEntity markForRetry(OrderOutboxEntity entity, Throwable ex) {
         entity.setAttempts(entity.getAttempts() + 1);
         entity.setLastError(ex.getMessage());
         entity.setStatus(OutboxStatus.FAILED);
@@ -97,12 +322,12 @@ public class OutboxPublisher {
         if (entity.getAttempts() >= maxAttempts) {
             log.error("Outbox entry {} exceeded max attempts, marking as FAILED", entity.getId());
             entity.setAvailableAt(Instant.now().plus(Duration.ofHours(1)));
-            return outboxRepository.save(entity).then();
+            return entity;
         }
 
         Duration backoff = Duration.ofSeconds((long) Math.min(60, Math.pow(2, entity.getAttempts())));
         entity.setAvailableAt(Instant.now().plus(backoff));
         log.warn("Outbox entry {} failed (attempt {}), retrying after {}", entity.getId(), entity.getAttempts(), backoff);
-        return outboxRepository.save(entity).then();
+        return entity;
     }
 }
@@ -0,0 +1,140 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.model.OutboxStatus;
+import com.saha.amit.reactiveOrderService.repository.CustomOrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind stage for outbox status changes. Rows acknowledged by Kafka (or failed) are collected
+ * for a short, size or time bounded window and flushed with one {@code UPDATE ... WHERE id IN (...)}
+ * per status instead of one {@code save()} per row.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxStatusWriter {
+
+    private final CustomOrderRepository customOrderRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.kafka.outbox.status-flush-size:200}")
+    private int flushSize;
+
+    @Value("${app.kafka.outbox.status-flush-interval:PT0.05S}")
+    private Duration flushInterval;
+
+    private final Sinks.Many<PendingUpdate> updates = Sinks.many().unicast().onBackpressureBuffer();
+
+    private Disposable subscription;
+
+    private record PendingUpdate(OrderOutboxEntity entity, Sinks.Empty<Void> flushed) {
+    }
+
+    private record RetryGroup(int attempts, String lastError) {
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Starting OutboxStatusWriter with flushSize={} flushInterval={}", flushSize, flushInterval);
+        subscription = updates.asFlux()
+                .bufferTimeout(flushSize, flushInterval)
+                .concatMap(this::flush)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Completing the sink flushes whatever is still buffered
+        updates.tryEmitComplete();
+    }
+
+    /**
+     * Queues the current status of the entity for the next batched flush.
+     *
+     * @return a {@link Mono} completing once the batch containing this row has been written
+     */
+    public Mono<Void> write(OrderOutboxEntity entity) {
+        return Mono.defer(() -> {
+            if (subscription == null || subscription.isDisposed()) {
+                return Mono.error(new IllegalStateException("OutboxStatusWriter is not running"));
+            }
+            Sinks.Empty<Void> flushed = Sinks.empty();
+            PendingUpdate update = new PendingUpdate(entity, flushed);
+            Sinks.EmitResult emitResult;
+            while ((emitResult = updates.tryEmitNext(update)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (emitResult.isFailure()) {
+                return Mono.error(new IllegalStateException("OutboxStatusWriter rejected update: " + emitResult));
+            }
+            return flushed.asMono();
+        });
+    }
+
+    private Mono<Void> flush(List<PendingUpdate> batch) {
+        Instant now = Instant.now();
+        Map<Boolean, List<PendingUpdate>> byOutcome = batch.stream()
+                .collect(Collectors.partitioningBy(update -> update.entity().getStatus() == OutboxStatus.PUBLISHED));
+
+        Mono<Void> published = flushGroup(byOutcome.get(true), "PUBLISHED",
+                ids -> customOrderRepository.markOutboxPublished(ids, now));
+
+        // Failed rows sharing attempt count and error get the same back-off, so they can share one UPDATE
+        Map<RetryGroup, List<PendingUpdate>> retryGroups = byOutcome.get(false).stream()
+                .collect(Collectors.groupingBy(
+                        update -> new RetryGroup(update.entity().getAttempts(), update.entity().getLastError()),
+                        LinkedHashMap::new,
+                        Collectors.toList()));
+
+        Mono<Void> failed = Flux.fromIterable(retryGroups.entrySet())
+                .concatMap(group -> flushGroup(group.getValue(), "FAILED",
+                        ids -> customOrderRepository.markOutboxFailed(ids,
+                                group.getKey().attempts(),
+                                group.getKey().lastError(),
+                                group.getValue().get(0).entity().getAvailableAt())))
+                .then();
+
+        return published.then(failed);
+    }
+
+    private Mono<Void> flushGroup(List<PendingUpdate> group,
+                                  String status,
+                                  Function<List<String>, Mono<Long>> update) {
+        if (group.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> ids = group.stream().map(pending -> pending.entity().getId()).toList();
+
+        return update.apply(ids)
+                .doOnNext(count -> {
+                    meterRegistry.counter("order.outbox.status.flushed", "status", status).increment(count);
+                    meterRegistry.counter("order.outbox.status.flushes", "status", status).increment();
+                })
+                .doOnSuccess(ignored -> group.forEach(pending -> pending.flushed().tryEmitEmpty()))
+                .onErrorResume(ex -> {
+                    log.error("Failed to flush {} outbox status update(s) to {}: {}", ids.size(), status, ex.getMessage());
+                    group.forEach(pending -> pending.flushed().tryEmitError(ex));
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
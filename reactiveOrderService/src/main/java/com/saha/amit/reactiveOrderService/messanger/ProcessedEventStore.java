@@ -0,0 +1,223 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saha.amit.reactiveOrderService.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which event ids the consumer has processed so redeliveries (outbox relay retries, retry-topic
+ * republishes, rebalances) are dropped instead of reprocessed.
+ * <p>
+ * Lookups go through three tiers: a bounded LRU of recent ids answers most duplicates, a Bloom filter of every
+ * id in the dedup window answers most new ids, and only ids the filter might have seen are checked against
+ * {@code processed_events}. Processed ids are written behind in multi-row inserts and purged after the TTL.
+ * The filter is kept in two generations of {@code expected-insertions} ids each, so it is rotated rather than
+ * saturated; size it to cover the TTL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcessedEventStore {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.kafka.consumer.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.kafka.consumer.dedup.cache-size:100000}")
+    private long cacheSize;
+
+    @Value("${app.kafka.consumer.dedup.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${app.kafka.consumer.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.kafka.consumer.dedup.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${app.kafka.consumer.dedup.flush-size:500}")
+    private int flushSize;
+
+    @Value("${app.kafka.consumer.dedup.flush-interval:PT0.1S}")
+    private Duration flushInterval;
+
+    @Value("${app.kafka.consumer.dedup.cleanup-interval:PT10M}")
+    private Duration cleanupInterval;
+
+    @Value("${app.kafka.consumer.dedup.cleanup-chunk-size:5000}")
+    private int cleanupChunkSize;
+
+    private static final Mono<Boolean> DUPLICATE = Mono.just(true);
+    private static final Mono<Boolean> NEW = Mono.just(false);
+
+    private Cache<String, Boolean> recent;
+    private volatile EventIdBloomFilter current;
+    private volatile EventIdBloomFilter previous;
+    private final AtomicLong currentInsertions = new AtomicLong();
+
+    /**
+     * False until the filter holds every persisted id of the window; until then a filter miss proves nothing.
+     */
+    private final AtomicBoolean warmed = new AtomicBoolean();
+
+    private final Sinks.Many<String> processed = Sinks.many().unicast().onBackpressureBuffer();
+
+    /**
+     * Warm-up and cleanup; the flush pipeline is not in here, it ends when {@link #processed} completes.
+     */
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Consumer deduplication disabled");
+            return;
+        }
+
+        log.info("Starting ProcessedEventStore cacheSize={} expectedInsertions={} ttl={} flushSize={} flushInterval={}",
+                cacheSize, expectedInsertions, ttl, flushSize, flushInterval);
+        recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        current = new EventIdBloomFilter(expectedInsertions, falsePositiveRate);
+        previous = new EventIdBloomFilter(1, falsePositiveRate);
+
+        subscriptions.add(processedEventRepository.findProcessedSince(Instant.now().minus(ttl))
+                .doOnNext(this::remember)
+                .count()
+                .subscribe(
+                        count -> {
+                            warmed.set(true);
+                            log.info("Dedup filter warmed with {} processed event id(s)", count);
+                        },
+                        ex -> log.warn("Failed to warm dedup filter, every filter hit goes to the database: {}", ex.getMessage())));
+
+        processed.asFlux()
+                .bufferTimeout(flushSize, flushInterval)
+                .concatMap(this::flush)
+                .subscribe();
+
+        subscriptions.add(Flux.interval(cleanupInterval, cleanupInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> purgeExpired()
+                        .onErrorResume(ex -> {
+                            log.error("Processed event cleanup failed: {}", ex.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Completing the sink flushes whatever is still buffered
+        processed.tryEmitComplete();
+        subscriptions.dispose();
+    }
+
+    /**
+     * @return {@code true} if the event was already processed; lookup failures count as not processed
+     */
+    public Mono<Boolean> isDuplicate(String eventId) {
+        if (recent == null || eventId == null) {
+            return NEW;
+        }
+        if (recent.getIfPresent(eventId) != null) {
+            meterRegistry.counter("order.consumer.dedup.lookups", "tier", "cache").increment();
+            return DUPLICATE;
+        }
+        if (warmed.get() && !current.mightContain(eventId) && !previous.mightContain(eventId)) {
+            meterRegistry.counter("order.consumer.dedup.lookups", "tier", "filter").increment();
+            return NEW;
+        }
+        meterRegistry.counter("order.consumer.dedup.lookups", "tier", "database").increment();
+        return processedEventRepository.exists(eventId)
+                .doOnNext(exists -> {
+                    if (exists) {
+                        recent.put(eventId, Boolean.TRUE);
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.warn("Dedup lookup failed for eventId={}, processing it: {}", eventId, ex.getMessage());
+                    return NEW;
+                });
+    }
+
+    /**
+     * Records a successfully processed event. The id is deduplicated in memory at once and persisted with
+     * the next flush.
+     */
+    public void markProcessed(String eventId) {
+        if (recent == null || eventId == null) {
+            return;
+        }
+        recent.put(eventId, Boolean.TRUE);
+        remember(eventId);
+        Sinks.EmitResult emitResult;
+        while ((emitResult = processed.tryEmitNext(eventId)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        if (emitResult.isFailure()) {
+            log.warn("ProcessedEventStore rejected eventId={}: {}", eventId, emitResult);
+        }
+    }
+
+    private void remember(String eventId) {
+        if (currentInsertions.incrementAndGet() > expectedInsertions) {
+            synchronized (this) {
+                if (currentInsertions.get() > expectedInsertions) {
+                    previous = current;
+                    current = new EventIdBloomFilter(expectedInsertions, falsePositiveRate);
+                    currentInsertions.set(1);
+                }
+            }
+        }
+        current.put(eventId);
+    }
+
+    private Mono<Void> flush(List<String> eventIds) {
+        // A redelivery processed twice before the flush would otherwise appear twice in one insert
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(eventIds);
+        return processedEventRepository.insertAll(distinct, Instant.now())
+                .doOnNext(count -> meterRegistry.counter("order.consumer.dedup.persisted").increment(count))
+                .onErrorResume(ex -> {
+                    log.error("Failed to persist {} processed event id(s): {}", distinct.size(), ex.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Long> purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        return processedEventRepository.deleteProcessedBefore(cutoff, cleanupChunkSize)
+                .repeat()
+                .takeUntil(deleted -> deleted < cleanupChunkSize)
+                .reduce(0L, Long::sum)
+                .doOnNext(deleted -> {
+                    if (deleted > 0) {
+                        log.info("Purged {} processed event id(s) older than {}", deleted, cutoff);
+                    }
+                });
+    }
+}
@@ -9,19 +9,27 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.kafka.sender.KafkaSender;
-import reactor.kafka.sender.SenderRecord;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Publishes failed events to delayed retry tiers. Attempt {@code n} goes to the {@code n}-th tier topic
+ * ({@code <retry topic>-5s}, {@code -30s}, {@code -60s} by default, the last tier is reused for later attempts)
+ * stamped with a {@code retry-due-at} header. The delay is enforced by the retry consumer pausing the partition,
+ * so pending retries live in Kafka rather than on the heap and survive restarts.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RetryEventPublisher {
 
-    private static final String RETRY_ATTEMPT_HEADER = "retry-attempt";
+    static final String RETRY_ATTEMPT_HEADER = "retry-attempt";
+    static final String RETRY_DUE_AT_HEADER = "retry-due-at";
 
-    private final @Qualifier("jsonKafkaSender") KafkaSender<String, OrderEvent> kafkaSender;
+    private final @Qualifier("jsonSendPipeline") KafkaSendPipeline<String, OrderEvent> sendPipeline;
     private final MeterRegistry meterRegistry;
 
     @Value("${app.kafka.topic.order.retry}")
@@ -30,6 +38,21 @@ public class RetryEventPublisher {
     @Value("${app.kafka.retry.max-attempts:3}")
     private int maxAttempts;
 
+    @Value("${app.kafka.retry.tiers:PT5S,PT30S,PT60S}")
+    private List<Duration> tiers;
+
+    /**
+     * Topics consumed by the retry receiver: the tier topics plus the plain retry topic, which still holds
+     * records published before tiers existed (they carry no due time and are processed immediately).
+     */
+    public static List<String> retryTopics(String retryTopic, List<Duration> tiers) {
+        return Stream.concat(Stream.of(retryTopic), tiers.stream().map(tier -> tierTopic(retryTopic, tier))).toList();
+    }
+
+    static String tierTopic(String retryTopic, Duration tier) {
+        return retryTopic + "-" + tier.toSeconds() + "s";
+    }
+
     public Mono<Void> scheduleRetry(OrderEvent event, int currentAttempt) {
         if (currentAttempt >= maxAttempts) {
             log.warn("Max retry attempts reached for eventId={}", event.eventId());
@@ -37,35 +60,33 @@ public class RetryEventPublisher {
         }
 
         int nextAttempt = currentAttempt + 1;
-        Duration backoff = calculateBackoff(nextAttempt);
-        log.info("Scheduling retry attempt {} for eventId={} after {}ms", nextAttempt, event.eventId(), backoff.toMillis());
+        Duration tier = tiers.get(Math.min(nextAttempt, tiers.size()) - 1);
+        String topic = tierTopic(retryTopic, tier);
+        log.info("Scheduling retry attempt {} for eventId={} on {} after {}ms", nextAttempt, event.eventId(), topic, tier.toMillis());
 
         meterRegistry.counter("order.retry.scheduled", "attempt", String.valueOf(nextAttempt)).increment();
 
-        SenderRecord<String, OrderEvent, OrderEvent> record = SenderRecord.create(createRetryRecord(event, nextAttempt), event);
-
-        return Mono.delay(backoff)
-                .thenMany(kafkaSender.send(Mono.just(record)))
-                .doOnNext(result -> {
-                    if (result.exception() == null) {
-                        meterRegistry.counter("order.retry.published", "attempt", String.valueOf(nextAttempt)).increment();
-                        log.info("Retry attempt {} published for eventId={}", nextAttempt, event.eventId());
-                    } else {
-                        meterRegistry.counter("order.retry.publish.failure").increment();
-                        log.error("Retry publish failed for eventId={} attempt={} due to {}", event.eventId(), nextAttempt, result.exception().getMessage());
-                    }
+        ProducerRecord<String, OrderEvent> record = createRetryRecord(topic, event, nextAttempt,
+                System.currentTimeMillis() + tier.toMillis());
+
+        // Errors propagate so the consumer does not acknowledge a record whose retry was never stored
+        return sendPipeline.send(record)
+                .timeout(Duration.ofSeconds(10))
+                .doOnNext(metadata -> {
+                    meterRegistry.counter("order.retry.published", "attempt", String.valueOf(nextAttempt)).increment();
+                    log.info("Retry attempt {} published for eventId={}", nextAttempt, event.eventId());
+                })
+                .doOnError(ex -> {
+                    meterRegistry.counter("order.retry.publish.failure").increment();
+                    log.error("Retry publish failed for eventId={} attempt={} due to {}", event.eventId(), nextAttempt, ex.getMessage());
                 })
                 .then();
     }
 
-    private ProducerRecord<String, OrderEvent> createRetryRecord(OrderEvent event, int attempt) {
-        ProducerRecord<String, OrderEvent> record = new ProducerRecord<>(retryTopic, event.eventId(), event);
-        record.headers().add(RETRY_ATTEMPT_HEADER, String.valueOf(attempt).getBytes());
+    private ProducerRecord<String, OrderEvent> createRetryRecord(String topic, OrderEvent event, int attempt, long dueAt) {
+        ProducerRecord<String, OrderEvent> record = new ProducerRecord<>(topic, event.eventId(), event);
+        record.headers().add(RETRY_ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RETRY_DUE_AT_HEADER, String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
         return record;
     }
-
-    private Duration calculateBackoff(int attempt) {
-        long delaySeconds = (long) Math.min(60, Math.pow(2, attempt));
-        return Duration.ofSeconds(delaySeconds);
-    }
 }
@@ -12,6 +12,9 @@ import java.util.UUID;
 @Table("order_outbox")
 public class OrderOutboxEntity {
 
+    public static final String CONTENT_TYPE_JSON = "application/json";
+    public static final String CONTENT_TYPE_PROTOBUF = "application/x-protobuf";
+
     @Id
     private String id;
 
@@ -23,6 +26,15 @@ public class OrderOutboxEntity {
 
     private String payload;
 
+    /**
+     * Final Kafka wire bytes of the event, forwarded untouched by the relay. When set, {@link #payload} is null.
+     */
+    @Column("payload_bytes")
+    private byte[] payloadBytes;
+
+    @Column("content_type")
+    private String contentType;
+
     private OutboxStatus status;
 
     @Column("created_at")
@@ -36,12 +48,29 @@ public class OrderOutboxEntity {
 
     private int attempts;
 
-    public static OrderOutboxEntity pending(String aggregateId, String eventType, String payload) {
+    @Column("partition_key")
+    private int partitionKey;
+
+    public static OrderOutboxEntity pending(String aggregateId, String eventType, String payload, int partitions) {
+        OrderOutboxEntity entity = newPending(aggregateId, eventType, partitions);
+        entity.setPayload(payload);
+        return entity;
+    }
+
+    public static OrderOutboxEntity pendingBinary(String aggregateId, String eventType, byte[] payloadBytes,
+                                                  String contentType, int partitions) {
+        OrderOutboxEntity entity = newPending(aggregateId, eventType, partitions);
+        entity.setPayloadBytes(payloadBytes);
+        entity.setContentType(contentType);
+        return entity;
+    }
+
+    private static OrderOutboxEntity newPending(String aggregateId, String eventType, int partitions) {
         OrderOutboxEntity entity = new OrderOutboxEntity();
         entity.setId(UUID.randomUUID().toString());
         entity.setAggregateId(aggregateId);
+        entity.setPartitionKey(partitionFor(aggregateId, partitions));
         entity.setEventType(eventType);
-        entity.setPayload(payload);
         entity.setStatus(OutboxStatus.PENDING);
         entity.setCreatedAt(Instant.now());
         entity.setAvailableAt(Instant.now());
@@ -49,4 +78,12 @@ public class OrderOutboxEntity {
         entity.setLastError(null);
         return entity;
     }
+
+    /**
+     * Maps an aggregate onto one of {@code partitions} virtual outbox partitions so that all events
+     * of the same order are always dispatched by the same lease holder, in order.
+     */
+    public static int partitionFor(String aggregateId, int partitions) {
+        return Math.floorMod(aggregateId.hashCode(), partitions);
+    }
 }
@@ -6,9 +6,21 @@ import com.saha.amit.reactiveOrderService.model.OrderEntity;
 import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 public interface CustomOrderRepository {
 
     Mono<OrderEntity> insertOrder(OrderEntity order);
 
     Mono<OrderOutboxEntity> insertOutbox(OrderOutboxEntity outbox);
+
+    Mono<Long> insertOrders(List<OrderEntity> orders);
+
+    Mono<Long> insertOutboxes(List<OrderOutboxEntity> outboxes);
+
+    Mono<Long> markOutboxPublished(Collection<String> ids, Instant publishedAt);
+
+    Mono<Long> markOutboxFailed(Collection<String> ids, int attempts, String lastError, Instant availableAt);
 }
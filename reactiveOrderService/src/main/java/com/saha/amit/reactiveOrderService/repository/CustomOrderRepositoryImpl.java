@@ -9,11 +9,21 @@ import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 @Slf4j
 @RequiredArgsConstructor
 public class CustomOrderRepositoryImpl implements CustomOrderRepository {
 
+    private static final String ORDER_COLUMNS = "order_id, customer_id, amount, status, created_at";
+
+    private static final String OUTBOX_COLUMNS = """
+            id, aggregate_id, event_type, payload, payload_bytes, content_type, status, created_at,
+            available_at, last_error, attempts, partition_key""";
+
     private final DatabaseClient databaseClient;
 
     @Override
@@ -44,30 +54,148 @@ public class CustomOrderRepositoryImpl implements CustomOrderRepository {
     public Mono<OrderOutboxEntity> insertOutbox(OrderOutboxEntity outbox) {
         String sql = """
                     INSERT INTO order_outbox (
-                        id, aggregate_id, event_type, payload, status, created_at,
-                        available_at, last_error, attempts
+                        id, aggregate_id, event_type, payload, payload_bytes, content_type, status, created_at,
+                        available_at, last_error, attempts, partition_key
                     ) VALUES (
-                        :id, :aggregate_id, :event_type, :payload, :status,
-                        :created_at, :available_at, :last_error, :attempts
+                        :id, :aggregate_id, :event_type, :payload, :payload_bytes, :content_type, :status,
+                        :created_at, :available_at, :last_error, :attempts, :partition_key
                     )
                 """;
 
         log.debug("🟨 Inserting outbox: {}", outbox);
 
-        return databaseClient.sql(sql)
-                .bind("id", outbox.getId())
-                .bind("aggregate_id", outbox.getAggregateId())
-                .bind("event_type", outbox.getEventType())
-                .bind("payload", outbox.getPayload())
-                .bind("status", outbox.getStatus().name())
-                .bind("created_at", outbox.getCreatedAt())
-                .bind("available_at", outbox.getAvailableAt())
-                //In R2DBC, unlike JDBC, bind() cannot accept nulls — you must use: .bindNull("columnName", SQLDataType.class)
-                .bind("last_error", (outbox.getLastError() != null) ? outbox.getLastError() : "")
-                .bind("attempts", outbox.getAttempts())
+        return bindOutbox(databaseClient.sql(sql), outbox, "")
                 .fetch()
                 .rowsUpdated()
                 .doOnNext(count -> log.info("✅ Inserted {} outbox record(s) for aggregate {}", count, outbox.getAggregateId()))
                 .thenReturn(outbox);
     }
+
+    @Override
+    public Mono<Long> markOutboxPublished(Collection<String> ids, Instant publishedAt) {
+        String sql = """
+                    UPDATE order_outbox
+                    SET status = 'PUBLISHED', last_error = NULL, available_at = :available_at, attempts = attempts + 1
+                    WHERE id IN (:ids)
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("available_at", publishedAt)
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(count -> log.debug("✅ Marked {} outbox record(s) as PUBLISHED", count));
+    }
+
+    @Override
+    public Mono<Long> markOutboxFailed(Collection<String> ids, int attempts, String lastError, Instant availableAt) {
+        String sql = """
+                    UPDATE order_outbox
+                    SET status = 'FAILED', last_error = :last_error, available_at = :available_at, attempts = :attempts
+                    WHERE id IN (:ids)
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("last_error", lastError != null ? lastError : "")
+                .bind("available_at", availableAt)
+                .bind("attempts", attempts)
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(count -> log.debug("🟧 Marked {} outbox record(s) as FAILED (attempt {})", count, attempts));
+    }
+
+    /**
+     * Inserts all orders with a single multi-row {@code INSERT}.
+     */
+    @Override
+    public Mono<Long> insertOrders(List<OrderEntity> orders) {
+        StringBuilder sql = new StringBuilder("INSERT INTO orders (" + ORDER_COLUMNS + ") VALUES ");
+        for (int i = 0; i < orders.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:order_id_").append(i)
+                    .append(", :customer_id_").append(i)
+                    .append(", :amount_").append(i)
+                    .append(", :status_").append(i)
+                    .append(", :created_at_").append(i)
+                    .append(")");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderEntity order = orders.get(i);
+            spec = spec.bind("order_id_" + i, order.getOrderId())
+                    .bind("customer_id_" + i, order.getCustomerId())
+                    .bind("amount_" + i, order.getAmount())
+                    .bind("status_" + i, order.getStatus())
+                    .bind("created_at_" + i, order.getCreatedAt());
+        }
+
+        return spec.fetch()
+                .rowsUpdated()
+                .doOnNext(count -> log.info("✅ Inserted {} order(s) in one statement", count));
+    }
+
+    /**
+     * Inserts all outbox rows with a single multi-row {@code INSERT}.
+     */
+    @Override
+    public Mono<Long> insertOutboxes(List<OrderOutboxEntity> outboxes) {
+        StringBuilder sql = new StringBuilder("INSERT INTO order_outbox (" + OUTBOX_COLUMNS + ") VALUES ");
+        for (int i = 0; i < outboxes.size(); i++) {
+            String n = "_" + i;
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:id").append(n)
+                    .append(", :aggregate_id").append(n)
+                    .append(", :event_type").append(n)
+                    .append(", :payload").append(n)
+                    .append(", :payload_bytes").append(n)
+                    .append(", :content_type").append(n)
+                    .append(", :status").append(n)
+                    .append(", :created_at").append(n)
+                    .append(", :available_at").append(n)
+                    .append(", :last_error").append(n)
+                    .append(", :attempts").append(n)
+                    .append(", :partition_key").append(n)
+                    .append(")");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < outboxes.size(); i++) {
+            spec = bindOutbox(spec, outboxes.get(i), "_" + i);
+        }
+
+        return spec.fetch()
+                .rowsUpdated()
+                .doOnNext(count -> log.info("✅ Inserted {} outbox record(s) in one statement", count));
+    }
+
+    /**
+     * Binds one outbox row; {@code suffix} distinguishes the rows of a multi-row insert.
+     */
+    private DatabaseClient.GenericExecuteSpec bindOutbox(DatabaseClient.GenericExecuteSpec spec,
+                                                         OrderOutboxEntity outbox,
+                                                         String suffix) {
+        spec = spec.bind("id" + suffix, outbox.getId())
+                .bind("aggregate_id" + suffix, outbox.getAggregateId())
+                .bind("event_type" + suffix, outbox.getEventType());
+
+        // Exactly one of payload / payload_bytes is set, see OrderOutboxEntity
+        spec = outbox.getPayloadBytes() != null
+                ? spec.bindNull("payload" + suffix, String.class)
+                        .bind("payload_bytes" + suffix, outbox.getPayloadBytes())
+                        .bind("content_type" + suffix, outbox.getContentType())
+                : spec.bind("payload" + suffix, outbox.getPayload())
+                        .bindNull("payload_bytes" + suffix, byte[].class)
+                        .bindNull("content_type" + suffix, String.class);
+
+        return spec
+                .bind("status" + suffix, outbox.getStatus().name())
+                .bind("created_at" + suffix, outbox.getCreatedAt())
+                .bind("available_at" + suffix, outbox.getAvailableAt())
+                //In R2DBC, unlike JDBC, bind() cannot accept nulls — you must use: .bindNull("columnName", SQLDataType.class)
+                .bind("last_error" + suffix, (outbox.getLastError() != null) ? outbox.getLastError() : "")
+                .bind("attempts" + suffix, outbox.getAttempts())
+                .bind("partition_key" + suffix, outbox.getPartitionKey());
+    }
 }
@@ -15,11 +15,33 @@ public interface OrderOutboxRepository extends ReactiveCrudRepository<OrderOutbo
 
     @Query("""
             SELECT * FROM order_outbox
-            WHERE status <> 'PUBLISHED'
+            WHERE status IN ('PENDING', 'FAILED')
               AND available_at <= :now
             ORDER BY created_at
             LIMIT :batchSize
             """)
     Flux<OrderOutboxEntity> findNextBatch(@Param("now") Instant now,
                                           @Param("batchSize") int batchSize);
+
+    /**
+     * Next dispatchable rows of one virtual partition. A row is skipped while an older row of the same
+     * aggregate is still unpublished (e.g. waiting for its retry back-off), which keeps per-order ordering.
+     */
+    @Query("""
+            SELECT o.* FROM order_outbox o
+            WHERE o.partition_key = :partition
+              AND o.status IN ('PENDING', 'FAILED')
+              AND o.available_at <= :now
+              AND NOT EXISTS (
+                  SELECT 1 FROM order_outbox earlier
+                  WHERE earlier.aggregate_id = o.aggregate_id
+                    AND earlier.status IN ('PENDING', 'FAILED')
+                    AND earlier.created_at < o.created_at
+              )
+            ORDER BY o.created_at
+            LIMIT :batchSize
+            """)
+    Flux<OrderOutboxEntity> findNextBatchForPartition(@Param("partition") int partition,
+                                                      @Param("now") Instant now,
+                                                      @Param("batchSize") int batchSize);
 }
@@ -1,6 +1,8 @@
 package com.saha.amit.reactiveOrderService.repository;
 
 import com.saha.amit.reactiveOrderService.model.OrderEntity;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -8,4 +10,33 @@ import reactor.core.publisher.Flux;
 @Repository
 public interface OrderRepository extends ReactiveCrudRepository<OrderEntity, String> {
     Flux<OrderEntity> findByCustomerId(String customerId);
+
+    /**
+     * Keyset page of a customer's orders strictly after {@code (createdAt, orderId)},
+     * served by {@code idx_orders_customer_created}.
+     */
+    @Query("""
+            SELECT * FROM orders
+            WHERE customer_id = :customerId
+              AND (created_at, order_id) > (:createdAt, :orderId)
+            ORDER BY created_at, order_id
+            LIMIT :limit
+            """)
+    Flux<OrderEntity> findPageByCustomerId(@Param("customerId") String customerId,
+                                           @Param("createdAt") long createdAt,
+                                           @Param("orderId") String orderId,
+                                           @Param("limit") int limit);
+
+    /**
+     * Keyset page over all orders strictly after {@code (createdAt, orderId)}, served by {@code idx_orders_created}.
+     */
+    @Query("""
+            SELECT * FROM orders
+            WHERE (created_at, order_id) > (:createdAt, :orderId)
+            ORDER BY created_at, order_id
+            LIMIT :limit
+            """)
+    Flux<OrderEntity> findPage(@Param("createdAt") long createdAt,
+                               @Param("orderId") String orderId,
+                               @Param("limit") int limit);
 }
@@ -0,0 +1,25 @@
+package com.saha.amit.reactiveOrderService.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Housekeeping queries for {@code order_outbox}: finding published rows past retention,
+ * moving them to {@code order_outbox_archive} or deleting them, and purging old archived rows.
+ */
+public interface OutboxArchiveRepository {
+
+    Flux<String> findPublishedBefore(Instant cutoff, int limit);
+
+    Mono<Long> copyToArchive(Collection<String> ids, Instant archivedAt);
+
+    Mono<Long> deleteByIds(Collection<String> ids);
+
+    Mono<Long> purgeArchivedBefore(Instant cutoff, int limit);
+
+    Mono<Map<String, Long>> countByStatus();
+}
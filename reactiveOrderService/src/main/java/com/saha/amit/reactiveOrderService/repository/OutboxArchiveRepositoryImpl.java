@@ -0,0 +1,103 @@
+package com.saha.amit.reactiveOrderService.repository;
+
+import com.saha.amit.reactiveOrderService.model.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxArchiveRepositoryImpl implements OutboxArchiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Oldest published rows whose publish time ({@code available_at}) is before the cutoff,
+     * served by the {@code (status, available_at)} index.
+     */
+    @Override
+    public Flux<String> findPublishedBefore(Instant cutoff, int limit) {
+        String sql = """
+                    SELECT id FROM order_outbox
+                    WHERE status = 'PUBLISHED'
+                      AND available_at < :cutoff
+                    ORDER BY available_at
+                    LIMIT :limit
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("cutoff", cutoff)
+                .bind("limit", limit)
+                .map(row -> row.get("id", String.class))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> copyToArchive(Collection<String> ids, Instant archivedAt) {
+        String sql = """
+                    INSERT IGNORE INTO order_outbox_archive (
+                        id, aggregate_id, event_type, payload, payload_bytes, content_type, status, created_at,
+                        available_at, last_error, attempts, partition_key, archived_at
+                    )
+                    SELECT id, aggregate_id, event_type, payload, payload_bytes, content_type, status, created_at,
+                           available_at, last_error, attempts, partition_key, :archived_at
+                    FROM order_outbox
+                    WHERE id IN (:ids)
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("archived_at", archivedAt)
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Long> deleteByIds(Collection<String> ids) {
+        return databaseClient.sql("DELETE FROM order_outbox WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Deletes the oldest archived rows before the cutoff, served by the {@code archived_at} index.
+     */
+    @Override
+    public Mono<Long> purgeArchivedBefore(Instant cutoff, int limit) {
+        String sql = """
+                    DELETE FROM order_outbox_archive
+                    WHERE archived_at < :cutoff
+                    ORDER BY archived_at
+                    LIMIT :limit
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("cutoff", cutoff)
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Row count per status, one {@code COUNT(*)} per status so each is answered from the
+     * {@code (status, available_at)} index instead of a full table scan.
+     */
+    @Override
+    public Mono<Map<String, Long>> countByStatus() {
+        return Flux.fromArray(OutboxStatus.values())
+                .concatMap(status -> databaseClient.sql("SELECT COUNT(*) AS total FROM order_outbox WHERE status = :status")
+                        .bind("status", status.name())
+                        .map(row -> Map.entry(status.name(), row.get("total", Long.class)))
+                        .one())
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+}
@@ -0,0 +1,32 @@
+package com.saha.amit.reactiveOrderService.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Lease bookkeeping for the virtual partitions of {@code order_outbox}.
+ * A partition is owned by at most one dispatcher worker until its lease expires.
+ */
+public interface OutboxLeaseRepository {
+
+    /**
+     * Lease row of the single {@code OutboxCompactionService} runner, outside the range of outbox partitions.
+     */
+    int COMPACTION_LEASE = -1;
+
+    Mono<Void> initialize(int partitions);
+
+    Mono<Boolean> tryAcquire(int partition, String owner, Instant now, Instant expiresAt);
+
+    Mono<Boolean> release(int partition, String owner);
+
+    Mono<Long> releaseAll(String owner);
+
+    /**
+     * Records that {@code owner} is alive and forgets workers silent since before {@code liveSince}.
+     *
+     * @return the number of live workers, {@code owner} included
+     */
+    Mono<Long> heartbeat(String owner, Instant now, Instant liveSince);
+}
@@ -0,0 +1,120 @@
+package com.saha.amit.reactiveOrderService.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxLeaseRepositoryImpl implements OutboxLeaseRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Seeds one lease row per virtual partition, plus the compaction lease. Existing rows (and their current
+     * owners) are left untouched.
+     */
+    @Override
+    public Mono<Void> initialize(int partitions) {
+        String sql = "INSERT IGNORE INTO order_outbox_lease (partition_id) VALUES (:partition_id)";
+
+        return Flux.concat(Flux.just(COMPACTION_LEASE), Flux.range(0, partitions))
+                .concatMap(partition -> databaseClient.sql(sql)
+                        .bind("partition_id", partition)
+                        .fetch()
+                        .rowsUpdated())
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> log.info("🟦 Outbox lease table initialised, {} new lease(s) for {} partition(s)", count, partitions))
+                .then();
+    }
+
+    /**
+     * Claims or renews the lease on a partition. Succeeds when the partition is free, already
+     * owned by {@code owner}, or its previous lease has expired.
+     */
+    @Override
+    public Mono<Boolean> tryAcquire(int partition, String owner, Instant now, Instant expiresAt) {
+        String sql = """
+                    UPDATE order_outbox_lease
+                    SET lease_owner = :owner, lease_expires_at = :expires_at
+                    WHERE partition_id = :partition_id
+                      AND (lease_owner IS NULL OR lease_owner = :owner OR lease_expires_at < :now)
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("owner", owner)
+                .bind("expires_at", expiresAt)
+                .bind("partition_id", partition)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    /**
+     * Gives up the lease on a partition so another worker can claim it right away.
+     */
+    @Override
+    public Mono<Boolean> release(int partition, String owner) {
+        String sql = """
+                    UPDATE order_outbox_lease
+                    SET lease_owner = NULL, lease_expires_at = NULL
+                    WHERE partition_id = :partition_id AND lease_owner = :owner
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("partition_id", partition)
+                .bind("owner", owner)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Long> releaseAll(String owner) {
+        String sql = """
+                    UPDATE order_outbox_lease
+                    SET lease_owner = NULL, lease_expires_at = NULL
+                    WHERE lease_owner = :owner
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("owner", owner)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(count -> log.info("🟨 Released {} outbox partition lease(s) held by {}", count, owner))
+                .flatMap(count -> databaseClient.sql("DELETE FROM order_outbox_worker WHERE worker_id = :owner")
+                        .bind("owner", owner)
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(count));
+    }
+
+    @Override
+    public Mono<Long> heartbeat(String owner, Instant now, Instant liveSince) {
+        String upsert = """
+                    INSERT INTO order_outbox_worker (worker_id, heartbeat_at) VALUES (:owner, :now)
+                    ON DUPLICATE KEY UPDATE heartbeat_at = :now
+                """;
+
+        return databaseClient.sql(upsert)
+                .bind("owner", owner)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql("DELETE FROM order_outbox_worker WHERE heartbeat_at < :live_since")
+                        .bind("live_since", liveSince)
+                        .fetch()
+                        .rowsUpdated())
+                .then(databaseClient.sql("SELECT COUNT(*) AS workers FROM order_outbox_worker")
+                        .map(row -> row.get("workers", Long.class))
+                        .one())
+                .defaultIfEmpty(1L);
+    }
+}
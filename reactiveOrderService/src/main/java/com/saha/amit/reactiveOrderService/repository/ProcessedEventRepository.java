@@ -0,0 +1,22 @@
+package com.saha.amit.reactiveOrderService.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Persisted ids of events the consumer has already handled, so redeliveries can be recognised
+ * across restarts and rebalances. Rows are only needed for the dedup window and are purged after it.
+ */
+public interface ProcessedEventRepository {
+
+    Mono<Boolean> exists(String eventId);
+
+    Mono<Long> insertAll(Collection<String> eventIds, Instant processedAt);
+
+    Flux<String> findProcessedSince(Instant since);
+
+    Mono<Long> deleteProcessedBefore(Instant cutoff, int limit);
+}
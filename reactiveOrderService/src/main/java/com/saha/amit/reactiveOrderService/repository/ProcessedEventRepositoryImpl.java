@@ -0,0 +1,80 @@
+package com.saha.amit.reactiveOrderService.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class ProcessedEventRepositoryImpl implements ProcessedEventRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Boolean> exists(String eventId) {
+        return databaseClient.sql("SELECT 1 FROM processed_events WHERE event_id = :event_id")
+                .bind("event_id", eventId)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * One multi-row insert; ids already present (a redelivery raced with the flush) are ignored.
+     */
+    @Override
+    public Mono<Long> insertAll(Collection<String> eventIds, Instant processedAt) {
+        if (eventIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<String> ids = List.copyOf(eventIds);
+        String values = IntStream.range(0, ids.size())
+                .mapToObj(i -> "(:event_id_" + i + ", :processed_at)")
+                .collect(Collectors.joining(", "));
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("INSERT IGNORE INTO processed_events (event_id, processed_at) VALUES " + values)
+                .bind("processed_at", processedAt);
+        for (int i = 0; i < ids.size(); i++) {
+            spec = spec.bind("event_id_" + i, ids.get(i));
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    @Override
+    public Flux<String> findProcessedSince(Instant since) {
+        return databaseClient.sql("SELECT event_id FROM processed_events WHERE processed_at >= :since")
+                .bind("since", since)
+                .map(row -> row.get("event_id", String.class))
+                .all();
+    }
+
+    /**
+     * Deletes at most {@code limit} expired rows, oldest first, served by the {@code processed_at} index.
+     */
+    @Override
+    public Mono<Long> deleteProcessedBefore(Instant cutoff, int limit) {
+        String sql = """
+                    DELETE FROM processed_events
+                    WHERE processed_at < :cutoff
+                    ORDER BY processed_at
+                    LIMIT :limit
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("cutoff", cutoff)
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated();
+    }
+}
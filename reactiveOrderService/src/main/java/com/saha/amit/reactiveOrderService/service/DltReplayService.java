@@ -0,0 +1,399 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.saha.amit.reactiveOrderService.dto.DltReplayRequest;
+import com.saha.amit.reactiveOrderService.dto.DltReplayStatus;
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventJsonCodec;
+import com.saha.amit.reactiveOrderService.messanger.KafkaSendPipeline;
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Puts dead-lettered events back on the order topic. A replay snapshots the DLT offset range when it starts
+ * (from {@code from}, or the beginning, up to the current end), so events that fail again during the replay
+ * are not picked up by it. It reads that range with its own assigned receiver and keeps records matching the
+ * {@link DltReplayRequest} filters. Those are forwarded unchanged, keyed by event id, in chunks paced to the
+ * requested rate.
+ * <p>
+ * Replays run in the background; {@link #status} reports their progress. Offsets are never committed.
+ */
+@Slf4j
+@Service
+public class DltReplayService {
+
+    static final String REPLAY_ID_HEADER = "replay-id";
+    static final String REPLAYED_FROM_HEADER = "replayed-from";
+
+    private final ReceiverOptions<String, byte[]> dltReplayReceiverOptions;
+    private final KafkaSendPipeline<String, byte[]> byteSendPipeline;
+    private final OrderEventJsonCodec orderEventJsonCodec;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.kafka.topic.order.dlt}")
+    private String dltTopic;
+
+    @Value("${app.kafka.topic.order}")
+    private String orderTopic;
+
+    @Value("${app.kafka.replay.default-rate:1000}")
+    private int defaultRate;
+
+    @Value("${app.kafka.replay.max-rate:20000}")
+    private int maxRate;
+
+    @Value("${app.kafka.replay.max-concurrent:1}")
+    private int maxConcurrent;
+
+    /**
+     * Pacing granularity: {@code rate * tick} records are sent per tick. Rates below one record per tick send
+     * one record every {@code 1s / rate} instead.
+     */
+    @Value("${app.kafka.replay.tick:PT0.1S}")
+    private Duration tick;
+
+    /**
+     * A replay whose receiver yields nothing for this long before the end of the range is stopped and marked
+     * failed; records already read are still sent.
+     */
+    @Value("${app.kafka.replay.idle-timeout:PT10S}")
+    private Duration idleTimeout;
+
+    @Value("${app.kafka.replay.history-size:20}")
+    private int historySize;
+
+    private final Map<String, ReplayJob> jobs = new LinkedHashMap<>();
+
+    enum State {RUNNING, COMPLETED, FAILED, CANCELLED}
+
+    record ReplayBounds(Map<TopicPartition, Long> start, Map<TopicPartition, Long> end) {
+
+        long total() {
+            return start.entrySet().stream()
+                    .mapToLong(entry -> end.get(entry.getKey()) - entry.getValue())
+                    .sum();
+        }
+    }
+
+    private static final class ReplayJob {
+        private final String id;
+        private final DltReplayRequest request;
+        private final int rate;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile State state = State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile Disposable subscription;
+
+        private ReplayJob(String id, DltReplayRequest request, int rate) {
+            this.id = id;
+            this.request = request;
+            this.rate = rate;
+        }
+
+        private void finish(State finalState, String reason) {
+            if (state == State.RUNNING) {
+                state = finalState;
+                error = reason;
+                finishedAt = Instant.now();
+            }
+        }
+
+        private DltReplayStatus toStatus() {
+            return new DltReplayStatus(id, state.name(), request, rate, total.get(), scanned.get(), matched.get(),
+                    replayed.get(), failed.get(), startedAt, finishedAt, error);
+        }
+    }
+
+    public DltReplayService(@Qualifier("dltReplayReceiverOptions") ReceiverOptions<String, byte[]> dltReplayReceiverOptions,
+                            @Qualifier("byteSendPipeline") KafkaSendPipeline<String, byte[]> byteSendPipeline,
+                            OrderEventJsonCodec orderEventJsonCodec,
+                            MeterRegistry meterRegistry) {
+        this.dltReplayReceiverOptions = dltReplayReceiverOptions;
+        this.byteSendPipeline = byteSendPipeline;
+        this.orderEventJsonCodec = orderEventJsonCodec;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronized (jobs) {
+            jobs.values().forEach(job -> cancel(job, "Service shutting down"));
+        }
+    }
+
+    /**
+     * Starts a replay in the background.
+     *
+     * @return its initial status; {@link IllegalArgumentException} for an invalid request and
+     * {@link IllegalStateException} when {@code max-concurrent} replays are already running
+     */
+    public Mono<DltReplayStatus> start(DltReplayRequest request) {
+        return Mono.defer(() -> {
+            int rate = request.getRatePerSecond() == null ? defaultRate : request.getRatePerSecond();
+            if (rate <= 0 || rate > maxRate) {
+                return Mono.error(new IllegalArgumentException("ratePerSecond must be between 1 and " + maxRate));
+            }
+            if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+                return Mono.error(new IllegalArgumentException("from must be before to"));
+            }
+
+            ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), request, rate);
+            synchronized (jobs) {
+                long running = jobs.values().stream().filter(existing -> existing.state == State.RUNNING).count();
+                if (running >= maxConcurrent) {
+                    return Mono.error(new IllegalStateException(running + " DLT replay(s) already running"));
+                }
+                jobs.put(job.id, job);
+                trimHistory();
+            }
+
+            log.info("🔁 Starting DLT replay {} of {} at {} event(s)/s: {}", job.id, dltTopic, rate, request);
+            job.subscription = bounds(request)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(bounds -> {
+                        job.total.set(bounds.total());
+                        return bounds.start().isEmpty() ? Mono.<Void>empty() : replay(job, bounds);
+                    })
+                    .doOnCancel(() -> job.finish(State.CANCELLED, null))
+                    .subscribe(
+                            null,
+                            ex -> {
+                                log.error("DLT replay {} failed: {}", job.id, ex.getMessage());
+                                job.finish(State.FAILED, ex.getMessage());
+                            },
+                            () -> {
+                                log.info("🔁 DLT replay {} finished: scanned={} matched={} replayed={} failed={}",
+                                        job.id, job.scanned.get(), job.matched.get(), job.replayed.get(), job.failed.get());
+                                job.finish(State.COMPLETED, null);
+                            });
+            return Mono.just(job.toStatus());
+        });
+    }
+
+    public Flux<DltReplayStatus> statuses() {
+        synchronized (jobs) {
+            return Flux.fromIterable(jobs.values().stream().map(ReplayJob::toStatus).toList());
+        }
+    }
+
+    public Mono<DltReplayStatus> status(String id) {
+        synchronized (jobs) {
+            return Mono.justOrEmpty(jobs.get(id)).map(ReplayJob::toStatus);
+        }
+    }
+
+    public Mono<DltReplayStatus> cancel(String id) {
+        synchronized (jobs) {
+            return Mono.justOrEmpty(jobs.get(id))
+                    .doOnNext(job -> cancel(job, "Cancelled"))
+                    .map(ReplayJob::toStatus);
+        }
+    }
+
+    private void cancel(ReplayJob job, String reason) {
+        if (job.state == State.RUNNING && job.subscription != null) {
+            log.info("Cancelling DLT replay {}: {}", job.id, reason);
+            job.subscription.dispose();
+        }
+    }
+
+    private Mono<Void> replay(ReplayJob job, ReplayBounds bounds) {
+        DltReplayRequest request = job.request;
+        Set<TopicPartition> pending = ConcurrentHashMap.newKeySet();
+        pending.addAll(bounds.start().keySet());
+        // The tick is stretched so that whole chunks add up to the rate, e.g. one record per 200ms at 5/s
+        int chunkSize = (int) Math.max(1, job.rate * tick.toNanos() / Duration.ofSeconds(1).toNanos());
+        Duration pace = Duration.ofNanos(chunkSize * Duration.ofSeconds(1).toNanos() / job.rate);
+        AtomicBoolean idle = new AtomicBoolean();
+
+        Flux<ReceiverRecord<String, byte[]>> inRange = receiver(bounds).receive()
+                .filter(record -> record.offset() < bounds.end().get(record.receiverOffset().topicPartition()))
+                .doOnNext(record -> {
+                    job.scanned.incrementAndGet();
+                    meterRegistry.counter("order.dlt.replay.records", "outcome", "scanned").increment();
+                    if (record.offset() + 1 >= bounds.end().get(record.receiverOffset().topicPartition())) {
+                        pending.remove(record.receiverOffset().topicPartition());
+                    }
+                })
+                .takeUntil(record -> pending.isEmpty())
+                .timeout(idleTimeout, Flux.defer(() -> {
+                    idle.set(true);
+                    return Flux.empty();
+                }));
+
+        Flux<ReceiverRecord<String, byte[]>> matching = inRange
+                .filter(record -> matches(request, record))
+                .doOnNext(record -> {
+                    job.matched.incrementAndGet();
+                    meterRegistry.counter("order.dlt.replay.records", "outcome", "matched").increment();
+                });
+        if (request.getLimit() != null) {
+            matching = matching.take(request.getLimit());
+        }
+        Mono<Void> done = Mono.defer(() -> idle.get()
+                ? Mono.error(new IllegalStateException("No DLT records for " + idleTimeout + " with "
+                + pending.size() + " partition(s) not read to the end of the range"))
+                : Mono.empty());
+        if (request.isDryRun()) {
+            return matching.then(done);
+        }
+
+        return matching
+                .bufferTimeout(chunkSize, pace)
+                // One chunk per tick; prefetch 1 so ticks missed while a chunk is slow don't turn into a burst
+                .zipWith(Flux.interval(Duration.ZERO, pace).onBackpressureDrop(), 1, (chunk, ignored) -> chunk)
+                .concatMap(chunk -> Flux.fromIterable(chunk)
+                        .flatMap(record -> send(job, record), chunk.size())
+                        .then())
+                .then(done);
+    }
+
+    private Mono<Void> send(ReplayJob job, ReceiverRecord<String, byte[]> record) {
+        String key;
+        try {
+            OrderEvent event = orderEventJsonCodec.decode(record.value());
+            key = event.eventId();
+        } catch (Exception e) {
+            log.warn("Skipping undecodable DLT record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+            return Mono.fromRunnable(() -> recordFailure(job));
+        }
+
+        ProducerRecord<String, byte[]> replayed = new ProducerRecord<>(orderTopic, key, record.value());
+        replayed.headers()
+                .add("content-type", OrderOutboxEntity.CONTENT_TYPE_JSON.getBytes(StandardCharsets.UTF_8))
+                .add(REPLAY_ID_HEADER, job.id.getBytes(StandardCharsets.UTF_8))
+                .add(REPLAYED_FROM_HEADER, (record.topic() + "-" + record.partition() + "@" + record.offset())
+                        .getBytes(StandardCharsets.UTF_8));
+
+        return byteSendPipeline.send(replayed)
+                .timeout(Duration.ofSeconds(10))
+                .doOnNext(metadata -> {
+                    job.replayed.incrementAndGet();
+                    meterRegistry.counter("order.dlt.replay.records", "outcome", "replayed").increment();
+                })
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Failed to replay DLT record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), ex.getMessage());
+                    recordFailure(job);
+                    return Mono.empty();
+                });
+    }
+
+    private void recordFailure(ReplayJob job) {
+        job.failed.incrementAndGet();
+        meterRegistry.counter("order.dlt.replay.records", "outcome", "failed").increment();
+    }
+
+    static boolean matches(DltReplayRequest request, ReceiverRecord<String, byte[]> record) {
+        if (request.getFrom() != null && record.timestamp() < request.getFrom().toEpochMilli()) {
+            return false;
+        }
+        if (request.getTo() != null && record.timestamp() >= request.getTo().toEpochMilli()) {
+            return false;
+        }
+        if (!matchesHeader(request.getFailureTypes(), record, "failure-type")
+                || !matchesHeader(request.getFailureReasons(), record, "failure-reason")
+                || !matchesHeader(request.getSourceTopics(), record, "source-topic")) {
+            return false;
+        }
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> expected : request.getHeaders().entrySet()) {
+                if (!expected.getValue().equals(header(record, expected.getKey()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesHeader(Collection<String> accepted, ReceiverRecord<String, byte[]> record, String name) {
+        return accepted == null || accepted.isEmpty() || accepted.contains(header(record, name));
+    }
+
+    private static String header(ReceiverRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Snapshots the offset range to replay per DLT partition; partitions with nothing in range are left out.
+     * Blocking, so it is subscribed on {@code boundedElastic}.
+     */
+    Mono<ReplayBounds> bounds(DltReplayRequest request) {
+        return Mono.fromCallable(() -> {
+            try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(dltReplayReceiverOptions.consumerProperties(),
+                    new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+                List<TopicPartition> partitions = consumer.partitionsFor(dltTopic).stream()
+                        .map(info -> new TopicPartition(info.topic(), info.partition()))
+                        .toList();
+                Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+                Map<TopicPartition, Long> start = new HashMap<>(consumer.beginningOffsets(partitions));
+                if (request.getFrom() != null) {
+                    Map<TopicPartition, OffsetAndTimestamp> fromOffsets = consumer.offsetsForTimes(partitions.stream()
+                            .collect(Collectors.toMap(partition -> partition, partition -> request.getFrom().toEpochMilli())));
+                    fromOffsets.forEach((partition, offset) ->
+                            start.put(partition, offset == null ? end.get(partition) : offset.offset()));
+                }
+                start.entrySet().removeIf(entry -> entry.getValue() >= end.get(entry.getKey()));
+                return new ReplayBounds(start, end);
+            }
+        });
+    }
+
+    KafkaReceiver<String, byte[]> receiver(ReplayBounds bounds) {
+        return KafkaReceiver.create(dltReplayReceiverOptions
+                .assignment(new ArrayList<>(bounds.start().keySet()))
+                .addAssignListener(partitions -> partitions.forEach(partition ->
+                        partition.seek(bounds.start().get(partition.topicPartition())))));
+    }
+
+    private void trimHistory() {
+        var finished = jobs.values().stream().filter(job -> job.state != State.RUNNING).iterator();
+        int excess = jobs.size() - historySize;
+        List<String> evicted = new ArrayList<>();
+        while (excess-- > 0 && finished.hasNext()) {
+            evicted.add(finished.next().id);
+        }
+        evicted.forEach(jobs::remove);
+    }
+}
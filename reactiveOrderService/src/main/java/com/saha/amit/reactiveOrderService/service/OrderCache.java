@@ -0,0 +1,110 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.model.OrderEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link OrderEntity} by order id. Entries are loaded on a miss (concurrent misses
+ * for the same id share one query), added when an order is placed, and dropped when an {@link OrderEvent}
+ * reports a status different from the cached one. Events come from a per-instance consumer group, so every
+ * replica sees every change. Size and TTL bound staleness if an event is missed.
+ */
+@Slf4j
+@Component
+public class OrderCache {
+
+    private final KafkaReceiver<String, OrderEvent> cacheKafkaReceiver;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.order.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.order.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.order.cache.ttl:PT30S}")
+    private Duration ttl;
+
+    private AsyncCache<String, OrderEntity> cache;
+
+    private Disposable subscription;
+
+    public OrderCache(@Qualifier("cacheKafkaReceiver") KafkaReceiver<String, OrderEvent> cacheKafkaReceiver,
+                      MeterRegistry meterRegistry) {
+        this.cacheKafkaReceiver = cacheKafkaReceiver;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Order cache disabled");
+            return;
+        }
+
+        log.info("Starting OrderCache with maxSize={} ttl={}", maxSize, ttl);
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "order.byId");
+
+        subscription = cacheKafkaReceiver.receive()
+                .doOnNext(record -> onEvent(record.value()))
+                .doOnError(ex -> log.error("Error consuming order events for cache invalidation", ex))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofSeconds(5)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Returns the cached order or loads it with {@code loader}. Empty results are not cached.
+     */
+    public Mono<OrderEntity> getOrLoad(String orderId, Function<String, Mono<OrderEntity>> loader) {
+        if (cache == null) {
+            return loader.apply(orderId);
+        }
+        // The load is shared with concurrent callers, so one subscriber cancelling must not cancel it
+        return Mono.fromFuture(() -> cache.get(orderId, (id, executor) -> loader.apply(id).toFuture()), true);
+    }
+
+    public void put(OrderEntity order) {
+        if (cache != null) {
+            cache.put(order.getOrderId(), CompletableFuture.completedFuture(order));
+        }
+    }
+
+    void onEvent(OrderEvent event) {
+        if (cache == null || event == null || event.orderId() == null) {
+            return;
+        }
+        // Only react to orders this instance holds; a status change means the cached row is outdated
+        cache.synchronous().asMap().computeIfPresent(event.orderId(),
+                (orderId, cached) -> cached.getStatus().equals(event.status()) ? cached : null);
+    }
+}
@@ -0,0 +1,130 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.saha.amit.reactiveOrderService.model.OrderEntity;
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.repository.CustomOrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Group commit for order placement. Concurrent placements are collected for a few milliseconds and written
+ * with one multi-row {@code INSERT} into {@code orders} and one into {@code order_outbox}, inside a single
+ * transaction, so N requests cost one commit instead of N. If a group fails, its orders are retried one by
+ * one so a single bad row only fails its own request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderGroupCommitter {
+
+    private final CustomOrderRepository customOrderRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.order.group-commit.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${app.order.group-commit.window:PT0.005S}")
+    private Duration window;
+
+    @Value("${app.order.group-commit.max-concurrent-commits:4}")
+    private int maxConcurrentCommits;
+
+    /**
+     * Fed by every request thread at once. The multi-producer queue makes concurrent {@code tryEmitNext} calls
+     * safe (the sink drains it under its own work-in-progress guard), so the serialization check of
+     * {@link Sinks#many()}, which fails an emission with {@code FAIL_NON_SERIALIZED} while another thread is
+     * emitting, is not needed and no request ever has to retry.
+     */
+    private final Sinks.Many<PendingOrder> pending = Sinks.unsafe().many().unicast()
+            .onBackpressureBuffer(Queues.<PendingOrder>unboundedMultiproducer().get());
+
+    private Disposable subscription;
+
+    private record PendingOrder(OrderEntity order, OrderOutboxEntity outbox, Sinks.Empty<Void> committed) {
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Starting OrderGroupCommitter with maxBatchSize={} window={} maxConcurrentCommits={}",
+                maxBatchSize, window, maxConcurrentCommits);
+        subscription = pending.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                .flatMap(this::commit, maxConcurrentCommits)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Completing the sink commits whatever is still buffered
+        pending.tryEmitComplete();
+    }
+
+    /**
+     * Queues the order and its outbox row for the next group commit.
+     *
+     * @return a {@link Mono} completing once the transaction containing both rows has committed
+     */
+    public Mono<Void> submit(OrderEntity order, OrderOutboxEntity outbox) {
+        return Mono.defer(() -> {
+            if (subscription == null || subscription.isDisposed()) {
+                return Mono.error(new IllegalStateException("OrderGroupCommitter is not running"));
+            }
+            Sinks.Empty<Void> committed = Sinks.empty();
+            PendingOrder pendingOrder = new PendingOrder(order, outbox, committed);
+            Sinks.EmitResult emitResult = pending.tryEmitNext(pendingOrder);
+            if (emitResult.isFailure()) {
+                return Mono.error(new IllegalStateException("OrderGroupCommitter rejected order: " + emitResult));
+            }
+            return committed.asMono();
+        });
+    }
+
+    private Mono<Void> commit(List<PendingOrder> group) {
+        List<OrderEntity> orders = group.stream().map(PendingOrder::order).toList();
+        List<OrderOutboxEntity> outboxes = group.stream().map(PendingOrder::outbox).toList();
+
+        return transactionalOperator.transactional(
+                        customOrderRepository.insertOrders(orders)
+                                .then(customOrderRepository.insertOutboxes(outboxes)))
+                .doOnSuccess(ignored -> {
+                    meterRegistry.summary("order.group-commit.size").record(group.size());
+                    group.forEach(pendingOrder -> pendingOrder.committed().tryEmitEmpty());
+                })
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Group commit of {} order(s) failed, committing individually: {}", group.size(), ex.getMessage());
+                    meterRegistry.counter("order.group-commit.fallbacks").increment();
+                    return Flux.fromIterable(group)
+                            .flatMap(this::commitSingle)
+                            .then();
+                });
+    }
+
+    private Mono<Void> commitSingle(PendingOrder pendingOrder) {
+        return transactionalOperator.transactional(
+                        customOrderRepository.insertOrder(pendingOrder.order())
+                                .then(customOrderRepository.insertOutbox(pendingOrder.outbox())))
+                .doOnSuccess(ignored -> pendingOrder.committed().tryEmitEmpty())
+                .then()
+                .onErrorResume(ex -> {
+                    log.error("Failed to persist order {}: {}", pendingOrder.order().getOrderId(), ex.getMessage());
+                    pendingOrder.committed().tryEmitError(ex);
+                    return Mono.empty();
+                });
+    }
+}
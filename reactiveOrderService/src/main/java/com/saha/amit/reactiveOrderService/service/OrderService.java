@@ -1,13 +1,24 @@
 package com.saha.amit.reactiveOrderService.service;
 
+import com.saha.amit.reactiveOrderService.dto.BulkOrderResult;
+import com.saha.amit.reactiveOrderService.dto.OrderCursor;
+import com.saha.amit.reactiveOrderService.dto.OrderPage;
+import com.saha.amit.reactiveOrderService.dto.OrderResponse;
+import com.saha.amit.reactiveOrderService.dto.OrderRequest;
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
 import com.saha.amit.reactiveOrderService.model.OrderEntity;
 import com.saha.amit.reactiveOrderService.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -16,9 +27,25 @@ public class OrderService {
 
     private final OutboxService outboxService;
     private final OrderRepository orderRepository;
+    private final OrderCache orderCache;
+
+    @Value("${app.order.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${app.order.bulk.concurrency:2}")
+    private int bulkConcurrency;
+
+    @Value("${app.order.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.order.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.order.stream.fetch-size:200}")
+    private int streamFetchSize;
 
     public Mono<OrderEvent> placeOrder(String customerId, Double amount) {
-        if (amount == null || amount <= 0) {
+        if (!isValidAmount(amount)) {
             log.error("Invalid amount provided: {}", amount);
             return Mono.error(new IllegalArgumentException("Amount must be greater than zero"));
         }
@@ -27,16 +54,110 @@ public class OrderService {
                 .doOnSuccess(event -> log.info("Order {} queued for publishing via outbox", event.orderId()));
     }
 
+    /**
+     * Places a stream of orders in chunks of {@code app.order.bulk.chunk-size}, each chunk in one transaction.
+     * Only {@code bulk-concurrency} chunks are in flight, so memory stays bounded whatever the size of the upload;
+     * results are emitted in line order. Invalid lines are rejected individually, and if a chunk fails as a whole
+     * its lines are retried one by one so only the offending lines are rejected.
+     */
+    public Flux<BulkOrderResult> placeOrders(Flux<OrderRequest> requests) {
+        return requests.index()
+                .buffer(bulkChunkSize)
+                .flatMapSequential(this::placeChunk, bulkConcurrency, 1);
+    }
+
+    private Flux<BulkOrderResult> placeChunk(List<Tuple2<Long, OrderRequest>> chunk) {
+        List<OrderRequest> valid = chunk.stream()
+                .map(Tuple2::getT2)
+                .filter(request -> isValidAmount(request.getAmount()))
+                .toList();
+
+        return outboxService.persistOrdersAndOutbox(valid)
+                .map(events -> {
+                    List<BulkOrderResult> results = new ArrayList<>(chunk.size());
+                    int next = 0;
+                    for (Tuple2<Long, OrderRequest> line : chunk) {
+                        results.add(isValidAmount(line.getT2().getAmount())
+                                ? placed(line.getT1(), events.get(next++))
+                                : rejected(line.getT1(), line.getT2(), "Amount must be greater than zero"));
+                    }
+                    return results;
+                })
+                .flatMapIterable(results -> results)
+                .onErrorResume(ex -> {
+                    log.warn("Bulk chunk of {} order(s) failed, placing individually: {}", chunk.size(), ex.getMessage());
+                    return Flux.fromIterable(chunk)
+                            .concatMap(line -> placeOrder(line.getT2().getCustomerId(), line.getT2().getAmount())
+                                    .map(event -> placed(line.getT1(), event))
+                                    .onErrorResume(lineError -> Mono.just(rejected(line.getT1(), line.getT2(), lineError.getMessage()))));
+                });
+    }
+
+    private BulkOrderResult placed(long line, OrderEvent event) {
+        return new BulkOrderResult(line, event.orderId(), event.customerId(), event.amount(), event.status(), null);
+    }
+
+    private BulkOrderResult rejected(long line, OrderRequest request, String error) {
+        return new BulkOrderResult(line, null, request.getCustomerId(), request.getAmount(), "REJECTED", error);
+    }
+
+    private boolean isValidAmount(Double amount) {
+        return amount != null && amount > 0;
+    }
+
     public Mono<OrderEntity> getOrderById(String orderId) {
-        return orderRepository.findById(orderId);
+        return orderCache.getOrLoad(orderId, orderRepository::findById);
     }
 
     public Flux<OrderEntity> getAllOrders() {
-        return orderRepository.findAll();
+        return streamOrders(null);
+    }
+
+    /**
+     * One keyset page ordered by {@code (created_at, order_id)}, optionally restricted to a customer.
+     * The page size defaults to {@code app.order.page.default-size} and is capped at {@code app.order.page.max-size}.
+     */
+    public Mono<OrderPage> getOrdersPage(String customerId, OrderCursor cursor, Integer size) {
+        int limit = Math.min(size == null || size <= 0 ? defaultPageSize : size, maxPageSize);
+        // One extra row tells whether another page exists without a trailing empty request
+        return findPage(customerId, cursor, limit + 1)
+                .map(orders -> {
+                    List<OrderEntity> page = orders.size() > limit ? orders.subList(0, limit) : orders;
+                    String nextCursor = orders.size() > limit ? OrderCursor.after(page.get(limit - 1)).encode() : null;
+                    return new OrderPage(
+                            page.stream()
+                                    .map(e -> new OrderResponse(e.getOrderId(), e.getCustomerId(), e.getAmount(), e.getStatus()))
+                                    .toList(),
+                            nextCursor);
+                });
+    }
+
+    /**
+     * Streams orders by walking keyset pages of {@code app.order.stream.fetch-size} rows. The next page is only
+     * queried once the previous one is being consumed, so a slow client holds at most two pages in memory
+     * and no long-running query.
+     */
+    public Flux<OrderEntity> streamOrders(String customerId) {
+        return findPage(customerId, OrderCursor.START, streamFetchSize)
+                .expand(page -> page.size() < streamFetchSize
+                        ? Mono.empty()
+                        : findPage(customerId, OrderCursor.after(page.get(page.size() - 1)), streamFetchSize))
+                .flatMapIterable(Function.identity(), 1);
+    }
+
+    private Mono<List<OrderEntity>> findPage(String customerId, OrderCursor cursor, int limit) {
+        Flux<OrderEntity> page = customerId == null
+                ? orderRepository.findPage(cursor.createdAt(), cursor.orderId(), limit)
+                : orderRepository.findPageByCustomerId(customerId, cursor.createdAt(), cursor.orderId(), limit);
+        return page.collectList();
     }
 
+    /**
+     * Legacy {@code GET /orders?customerId=} listing, served by the same on-demand keyset pages as
+     * {@link #streamOrders(String)}. Without a customer id it returns nothing, as it always has.
+     */
     public Flux<OrderEntity> getOrdersByCustomer(String customerId) {
         log.info("Inside getOrdersByCustomer for customerId: {}", customerId);
-        return orderRepository.findByCustomerId(customerId);
+        return customerId == null ? Flux.empty() : streamOrders(customerId);
     }
 }
@@ -0,0 +1,215 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.saha.amit.reactiveOrderService.model.OutboxStatus;
+import com.saha.amit.reactiveOrderService.repository.OutboxArchiveRepository;
+import com.saha.amit.reactiveOrderService.repository.OutboxLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps {@code order_outbox} small. Published rows older than the retention are moved to
+ * {@code order_outbox_archive} (mode {@code archive}) or deleted (mode {@code delete}) in bounded chunks,
+ * each chunk in its own short transaction so the dispatcher is never blocked for long. Archived rows are
+ * purged after {@code archive-retention}.
+ * <p>
+ * Only the instance holding the compaction lease ({@link OutboxLeaseRepository#COMPACTION_LEASE}) runs, so
+ * replicas don't compete for the same rows. It also refreshes the {@code order.outbox.rows} gauges every
+ * {@code stats-interval}; on other instances they report {@code NaN}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxCompactionService {
+
+    private final OutboxArchiveRepository outboxArchiveRepository;
+    private final OutboxLeaseRepository outboxLeaseRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.kafka.outbox.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.kafka.outbox.compaction.mode:archive}")
+    private String mode;
+
+    @Value("${app.kafka.outbox.compaction.retention:PT24H}")
+    private Duration retention;
+
+    @Value("${app.kafka.outbox.compaction.interval:PT1M}")
+    private Duration interval;
+
+    @Value("${app.kafka.outbox.compaction.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.kafka.outbox.compaction.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    /** Archived rows are deleted after this long; zero keeps them forever. */
+    @Value("${app.kafka.outbox.compaction.archive-retention:P7D}")
+    private Duration archiveRetention;
+
+    @Value("${app.kafka.outbox.compaction.stats-interval:PT5M}")
+    private Duration statsInterval;
+
+    @Value("${HOSTNAME:order-service}")
+    private String hostname;
+
+    private String runnerId;
+
+    /** Rows per status as last counted by this instance while it held the lease; empty otherwise. */
+    private volatile Map<String, Long> rowsByStatus = Map.of();
+
+    private volatile Instant statsRefreshedAt = Instant.EPOCH;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void start() {
+        for (OutboxStatus status : OutboxStatus.values()) {
+            Gauge.builder("order.outbox.rows", this, service -> service.rows(status))
+                    .tags(Tags.of("status", status.name()))
+                    .register(meterRegistry);
+        }
+
+        if (!enabled) {
+            log.info("Outbox compaction disabled");
+            return;
+        }
+
+        runnerId = hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+        log.info("Starting OutboxCompactionService runnerId={} mode={} retention={} archiveRetention={} interval={} chunkSize={}",
+                runnerId, mode, retention, archiveRetention, interval, chunkSize);
+        subscription = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> run()
+                        .onErrorResume(ex -> {
+                            log.error("Outbox compaction run failed: {}", ex.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (runnerId != null) {
+            outboxLeaseRepository.release(OutboxLeaseRepository.COMPACTION_LEASE, runnerId)
+                    .onErrorResume(ex -> Mono.empty())
+                    .block(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Claims or renews the compaction lease and, while held, compacts the outbox, purges the archive and
+     * refreshes the row gauges when due. The lease spans a few intervals so a live runner keeps it.
+     */
+    Mono<Void> run() {
+        Instant now = Instant.now();
+        return outboxLeaseRepository.tryAcquire(OutboxLeaseRepository.COMPACTION_LEASE, runnerId, now,
+                        now.plus(interval.multipliedBy(3)))
+                .flatMap(runner -> {
+                    if (!runner) {
+                        rowsByStatus = Map.of();
+                        return Mono.<Void>empty();
+                    }
+                    return compact()
+                            .then(purgeArchive())
+                            .then(now.isBefore(statsRefreshedAt.plus(statsInterval)) ? Mono.<Void>empty() : refreshTableSize(now));
+                })
+                .then();
+    }
+
+    /**
+     * Runs one compaction pass: chunks are processed until a partial chunk shows the backlog is cleared
+     * or {@code max-chunks-per-run} is reached.
+     *
+     * @return the number of rows removed from {@code order_outbox}
+     */
+    public Mono<Long> compact() {
+        Instant cutoff = Instant.now().minus(retention);
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        return Flux.range(0, maxChunksPerRun)
+                .concatMap(chunk -> compactChunk(cutoff), 1)
+                .takeUntil(removed -> removed < chunkSize)
+                .reduce(0L, Long::sum)
+                .doOnNext(removed -> {
+                    sample.stop(meterRegistry.timer("order.outbox.compaction.duration", "mode", mode));
+                    if (removed > 0) {
+                        log.info("Outbox compaction ({}) removed {} published row(s) older than {}", mode, removed, cutoff);
+                    }
+                });
+    }
+
+    private Mono<Long> compactChunk(Instant cutoff) {
+        return outboxArchiveRepository.findPublishedBefore(cutoff, chunkSize)
+                .collectList()
+                .flatMap(ids -> {
+                    if (ids.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+                    Mono<Long> removal = "delete".equalsIgnoreCase(mode)
+                            ? outboxArchiveRepository.deleteByIds(ids)
+                            : outboxArchiveRepository.copyToArchive(ids, Instant.now())
+                                    .then(outboxArchiveRepository.deleteByIds(ids));
+                    return transactionalOperator.transactional(removal);
+                })
+                .doOnNext(removed -> meterRegistry.counter("order.outbox.compacted", "mode", mode).increment(removed));
+    }
+
+    /**
+     * Deletes archived rows older than {@code archive-retention}, one chunk per statement.
+     *
+     * @return the number of archived rows deleted
+     */
+    public Mono<Long> purgeArchive() {
+        if (archiveRetention.isZero() || archiveRetention.isNegative()) {
+            return Mono.just(0L);
+        }
+        Instant cutoff = Instant.now().minus(archiveRetention);
+
+        return Flux.range(0, maxChunksPerRun)
+                .concatMap(chunk -> outboxArchiveRepository.purgeArchivedBefore(cutoff, chunkSize), 1)
+                .takeUntil(purged -> purged < chunkSize)
+                .reduce(0L, Long::sum)
+                .doOnNext(purged -> {
+                    meterRegistry.counter("order.outbox.archive.purged").increment(purged);
+                    if (purged > 0) {
+                        log.info("Outbox archive purge removed {} row(s) archived before {}", purged, cutoff);
+                    }
+                });
+    }
+
+    private Mono<Void> refreshTableSize(Instant now) {
+        return outboxArchiveRepository.countByStatus()
+                .doOnNext(counts -> {
+                    rowsByStatus = counts;
+                    statsRefreshedAt = now;
+                })
+                .then();
+    }
+
+    private double rows(OutboxStatus status) {
+        Long rows = rowsByStatus.get(status.name());
+        return rows != null ? rows : Double.NaN;
+    }
+}
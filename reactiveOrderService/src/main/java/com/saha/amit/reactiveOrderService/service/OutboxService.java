@@ -1,7 +1,10 @@
 package com.saha.amit.reactiveOrderService.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saha.amit.reactiveOrderService.dto.OrderRequest;
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventProtoMapper;
+import com.saha.amit.reactiveOrderService.messanger.OutboxNotifier;
 import com.saha.amit.reactiveOrderService.model.OrderEntity;
 import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
 import com.saha.amit.reactiveOrderService.repository.CustomOrderRepositoryImpl;
@@ -9,11 +12,14 @@ import com.saha.amit.reactiveOrderService.repository.OrderOutboxRepository;
 import com.saha.amit.reactiveOrderService.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -26,17 +32,34 @@ public class OutboxService {
     private final TransactionalOperator transactionalOperator;
     private final ObjectMapper objectMapper;
     private final CustomOrderRepositoryImpl customOrderRepository;
+    private final OutboxNotifier outboxNotifier;
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final OrderCache orderCache;
+
+    /**
+     * When true, placements are coalesced by {@link OrderGroupCommitter} into multi-row inserts
+     * sharing one transaction.
+     */
+    @Value("${app.order.group-commit.enabled:false}")
+    private boolean groupCommitEnabled;
+
+    @Value("${app.kafka.outbox.partitions:16}")
+    private int outboxPartitions;
+
+    /**
+     * When true, the outbox stores the final Kafka wire bytes (JSON or Protobuf, following
+     * {@code order.use-protobuf}) so the relay can forward them without re-serialising.
+     */
+    @Value("${app.kafka.outbox.store-wire-bytes:false}")
+    private boolean storeWireBytes;
+
+    @Value("${order.use-protobuf:false}")
+    private boolean useProtobuf;
 
     public Mono<OrderEvent> persistOrderAndOutbox(String customerId, Double amount) {
         String orderId = UUID.randomUUID().toString();
         OrderEvent event = OrderEvent.create(orderId, customerId, amount, "PLACED");
-
-        OrderEntity order = new OrderEntity();
-        order.setOrderId(orderId);
-        order.setCustomerId(customerId);
-        order.setAmount(amount);
-        order.setStatus(event.status());
-        order.setCreatedAt(Instant.now().toEpochMilli());
+        OrderEntity order = buildOrderEntity(event);
 
 //        return transactionalOperator.transactional(
 //                orderRepository.insert(order)
@@ -44,19 +67,75 @@ public class OutboxService {
 //                        .doOnSuccess(ignored -> log.info("Order {} persisted and added to outbox", orderId))
 //        ).thenReturn(event);
 
+        OrderOutboxEntity outbox = buildOutboxEntity(orderId, event);
+        Mono<Void> persisted = groupCommitEnabled
+                ? orderGroupCommitter.submit(order, outbox)
+                : transactionalOperator.transactional(
+                        customOrderRepository.insertOrder(order)
+                                .then(customOrderRepository.insertOutbox(outbox))).then();
+
+        return persisted
+                .doOnSuccess(ignored -> {
+                    log.info("✅ Order {} and Outbox {} persisted successfully", orderId, outbox.getId());
+                    orderCache.put(order);
+                    // Runs after the commit: let the outbox dispatcher pick the row up without waiting for its poll
+                    outboxNotifier.wakeUp();
+                })
+                .thenReturn(event);
+    }
+
+    /**
+     * Persists a chunk of orders and their outbox rows in one transaction using multi-row inserts.
+     *
+     * @return the placed events, in request order
+     */
+    public Mono<List<OrderEvent>> persistOrdersAndOutbox(List<OrderRequest> requests) {
+        if (requests.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        List<OrderEvent> events = new ArrayList<>(requests.size());
+        List<OrderEntity> orders = new ArrayList<>(requests.size());
+        List<OrderOutboxEntity> outboxes = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            OrderEvent event = OrderEvent.create(UUID.randomUUID().toString(), request.getCustomerId(), request.getAmount(), "PLACED");
+            events.add(event);
+            orders.add(buildOrderEntity(event));
+            outboxes.add(buildOutboxEntity(event.orderId(), event));
+        }
+
         return transactionalOperator.transactional(
-                customOrderRepository.insertOrder(order)
-                        .then(customOrderRepository.insertOutbox(buildOutboxEntity(orderId, event)))
-                        .doOnSuccess( orderOutboxEntity ->
-                                log.info("✅ Order {} and Outbox {} persisted successfully",
-                                        order.getOrderId(), orderOutboxEntity.getId()))
-        ).thenReturn(event);
+                        customOrderRepository.insertOrders(orders)
+                                .then(customOrderRepository.insertOutboxes(outboxes)))
+                .doOnSuccess(ignored -> {
+                    log.info("✅ {} orders and outbox rows persisted in one transaction", events.size());
+                    outboxNotifier.wakeUp();
+                })
+                .thenReturn(events);
+    }
+
+    private OrderEntity buildOrderEntity(OrderEvent event) {
+        OrderEntity order = new OrderEntity();
+        order.setOrderId(event.orderId());
+        order.setCustomerId(event.customerId());
+        order.setAmount(event.amount());
+        order.setStatus(event.status());
+        order.setCreatedAt(Instant.now().toEpochMilli());
+        return order;
     }
 
     private OrderOutboxEntity buildOutboxEntity(String aggregateId, OrderEvent event) {
+        String eventType = event.getClass().getSimpleName();
         try {
+            if (storeWireBytes) {
+                return useProtobuf
+                        ? OrderOutboxEntity.pendingBinary(aggregateId, eventType, OrderEventProtoMapper.toProto(event).toByteArray(),
+                                OrderOutboxEntity.CONTENT_TYPE_PROTOBUF, outboxPartitions)
+                        : OrderOutboxEntity.pendingBinary(aggregateId, eventType, objectMapper.writeValueAsBytes(event),
+                                OrderOutboxEntity.CONTENT_TYPE_JSON, outboxPartitions);
+            }
             String payload = objectMapper.writeValueAsString(event);
-            return OrderOutboxEntity.pending(aggregateId, event.getClass().getSimpleName(), payload);
+            return OrderOutboxEntity.pending(aggregateId, eventType, payload, outboxPartitions);
         } catch (Exception e) {
             throw new IllegalStateException("Failed to serialize order event for outbox", e);
         }
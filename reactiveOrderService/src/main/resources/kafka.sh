@@ -21,6 +21,9 @@ case "${1:-help}" in
   topic-create)
     create_topic "order.events"
     create_topic "order.events.retry" 3 3
+    create_topic "order.events.retry-5s" 3 3
+    create_topic "order.events.retry-30s" 3 3
+    create_topic "order.events.retry-60s" 3 3
     create_topic "order.events.dlt" 3 3
     create_topic "order.events.proto" 3 3
     ;;
@@ -8,21 +8,74 @@ CREATE TABLE IF NOT EXISTS orders (
     created_at BIGINT NOT NULL
 );
 
+CREATE INDEX idx_orders_customer_created
+    ON orders (customer_id, created_at, order_id);
+
+CREATE INDEX idx_orders_created
+    ON orders (created_at, order_id);
+
 CREATE TABLE IF NOT EXISTS order_outbox (
     id CHAR(36) NOT NULL PRIMARY KEY,
     aggregate_id CHAR(36) NOT NULL,
     event_type VARCHAR(100) NOT NULL,
-    payload TEXT NOT NULL,
+    payload TEXT NULL,
+    payload_bytes MEDIUMBLOB NULL,
+    content_type VARCHAR(100) NULL,
     status VARCHAR(20) NOT NULL,
     created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
     available_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
     last_error TEXT NULL,
-    attempts INT NOT NULL DEFAULT 0
+    attempts INT NOT NULL DEFAULT 0,
+    partition_key INT NOT NULL DEFAULT 0
 );
 
 CREATE INDEX idx_order_outbox_status_available
     ON order_outbox (status, available_at);
 
+CREATE INDEX idx_order_outbox_partition_status_available
+    ON order_outbox (partition_key, status, available_at);
+
+CREATE INDEX idx_order_outbox_aggregate_created
+    ON order_outbox (aggregate_id, created_at);
+
+CREATE TABLE IF NOT EXISTS order_outbox_archive (
+    id CHAR(36) NOT NULL PRIMARY KEY,
+    aggregate_id CHAR(36) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NULL,
+    payload_bytes MEDIUMBLOB NULL,
+    content_type VARCHAR(100) NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    available_at TIMESTAMP(6) NOT NULL,
+    last_error TEXT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    partition_key INT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE INDEX idx_order_outbox_archive_archived_at
+    ON order_outbox_archive (archived_at);
+
+CREATE TABLE IF NOT EXISTS order_outbox_lease (
+    partition_id INT NOT NULL PRIMARY KEY,
+    lease_owner VARCHAR(64) NULL,
+    lease_expires_at TIMESTAMP(6) NULL
+);
+
+CREATE TABLE IF NOT EXISTS order_outbox_worker (
+    worker_id VARCHAR(64) NOT NULL PRIMARY KEY,
+    heartbeat_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS processed_events (
+    event_id CHAR(36) NOT NULL PRIMARY KEY,
+    processed_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE INDEX idx_processed_events_processed_at
+    ON processed_events (processed_at);
+
 use `amit`;
 TRUNCATE `amit`.`order_outbox`;
 TRUNCATE `amit`.`orders`;
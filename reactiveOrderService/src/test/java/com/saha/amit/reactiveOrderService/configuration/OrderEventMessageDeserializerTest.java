@@ -0,0 +1,72 @@
+package com.saha.amit.reactiveOrderService.configuration;
+
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderEventMessageDeserializerTest {
+
+    @SuppressWarnings("unchecked")
+    private final Deserializer<OrderEventMessage> registryDeserializer = mock(Deserializer.class);
+    private final OrderEventMessageDeserializer deserializer = new OrderEventMessageDeserializer(registryDeserializer);
+
+    private final OrderEventMessage message = OrderEventMessage.newBuilder()
+            .setEventId("event-1")
+            .setOrderId("order-1")
+            .setAmount(10.0)
+            .build();
+
+    @Test
+    void plainProtobufFromOutboxIsParsedWithoutRegistry() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("content-type", OrderOutboxEntity.CONTENT_TYPE_PROTOBUF.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(deserializer.deserialize("order.events.proto", headers, message.toByteArray())).isEqualTo(message);
+        verifyNoInteractions(registryDeserializer);
+    }
+
+    @Test
+    void recordWithoutContentTypeGoesThroughRegistry() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] framed = {0, 0, 0, 0, 1};
+        when(registryDeserializer.deserialize(any(), any(), any(byte[].class))).thenReturn(message);
+
+        assertThat(deserializer.deserialize("order.events.proto", headers, framed)).isEqualTo(message);
+        verify(registryDeserializer).deserialize("order.events.proto", headers, framed);
+    }
+
+    @Test
+    void locallyFramedRecordRoundTripsWithoutRegistry() {
+        byte[] framed = new LocalProtobufSerializer().serialize("order.events.proto", message);
+
+        assertThat(framed).hasSize(LocalProtobufSchemas.HEADER_SIZE + message.getSerializedSize());
+        assertThat(LocalProtobufSchemas.readFingerprint(framed)).isEqualTo(LocalProtobufSchemas.ORDER_EVENT_FINGERPRINT);
+        assertThat(deserializer.deserialize("order.events.proto", new RecordHeaders(), framed)).isEqualTo(message);
+        verifyNoInteractions(registryDeserializer);
+    }
+
+    @Test
+    void unknownFingerprintIsReadWithBundledSchema() {
+        byte[] framed = new LocalProtobufSerializer().serialize("order.events.proto", message);
+        LocalProtobufSchemas.writeHeader(framed, 42L);
+
+        assertThat(deserializer.deserialize("order.events.proto", new RecordHeaders(), framed)).isEqualTo(message);
+    }
+
+    @Test
+    void registryFramedRecordIsRejectedWithoutRegistry() {
+        OrderEventMessageDeserializer localOnly = new OrderEventMessageDeserializer(null);
+
+        assertThatThrownBy(() -> localOnly.deserialize("order.events.proto", new RecordHeaders(), new byte[]{0, 0, 0, 0, 1}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
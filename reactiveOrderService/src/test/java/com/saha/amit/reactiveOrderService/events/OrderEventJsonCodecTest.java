@@ -0,0 +1,58 @@
+package com.saha.amit.reactiveOrderService.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderEventJsonCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrderEventJsonCodec codec = new OrderEventJsonCodec(objectMapper.getFactory());
+
+    @Test
+    void encodesExactlyLikeObjectMapper() throws Exception {
+        OrderEvent event = OrderEvent.create("order-1", "cust-\"1\"", 10.25, "PLACED");
+
+        assertThat(new String(codec.encode(event), StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(event));
+    }
+
+    @Test
+    void roundTripsNullFields() throws Exception {
+        OrderEvent event = new OrderEvent("event-1", null, null, "PLACED", null, null);
+
+        assertThat(codec.decode(codec.encode(event))).isEqualTo(event);
+        assertThat(objectMapper.readValue(codec.encode(event), OrderEvent.class)).isEqualTo(event);
+    }
+
+    @Test
+    void decodesLenientlyAndSkipsUnknownFields() throws Exception {
+        String json = """
+                {"extra":{"nested":[1,2]},"orderId":"order-1","amount":"12.5","timestamp":42,"tags":["a"],"status":"PAID"}
+                """;
+
+        OrderEvent event = codec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(event).isEqualTo(new OrderEvent(null, "order-1", null, "PAID", 12.5, 42L));
+    }
+
+    @Test
+    void rejectsNonObjectPayload() {
+        assertThatThrownBy(() -> codec.decode("[1]".getBytes(StandardCharsets.UTF_8)))
+                .hasMessageContaining("Expected an OrderEvent object");
+    }
+
+    @Test
+    void reusedBufferDoesNotLeakBetweenEvents() throws Exception {
+        OrderEvent longer = OrderEvent.create("order-with-a-much-longer-id", "customer", 99.0, "PLACED");
+        OrderEvent shorter = OrderEvent.create("o", "c", 1.0, "P");
+
+        codec.encode(longer);
+
+        assertThat(codec.decode(codec.encode(shorter))).isEqualTo(shorter);
+    }
+}
@@ -0,0 +1,108 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdaptiveConcurrencyControllerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("order.events.retry", 0);
+    private static final TopicPartition P1 = new TopicPartition("order.events.retry", 1);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private KafkaReceiver<String, String> receiver;
+    private Consumer<String, String> consumer;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        receiver = mock(KafkaReceiver.class);
+        consumer = mock(Consumer.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(consumer.assignment()).thenReturn(Set.of(P0, P1));
+        when(receiver.doOnConsumer(any())).thenAnswer(invocation ->
+                Mono.fromCallable(() -> ((Function<Consumer<String, String>, ?>) invocation.getArgument(0)).apply(consumer)));
+    }
+
+    @Test
+    void pausesAtLimitAndResumesAllButHeldPartitions() {
+        AdaptiveConcurrencyController controller = controller(Set.of(P1), 4);
+
+        for (int i = 0; i < 3; i++) {
+            controller.acquire();
+        }
+        verify(consumer, never()).pause(any());
+
+        controller.acquire();
+        verify(consumer).pause(Set.of(P0, P1));
+        assertThat(controller.isPaused()).isTrue();
+
+        controller.release(1, FAST, false);
+        verify(consumer).resume(Set.of(P0));
+        assertThat(controller.isPaused()).isFalse();
+        assertThat(meterRegistry.get("order.consumer.inflight").tag("receiver", "retry").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void slowOrFailedCompletionsShrinkLimitOncePerWindow() {
+        AdaptiveConcurrencyController controller = controller(Set.of(), 64);
+
+        controller.acquire();
+        controller.release(1, SLOW, false);
+        assertThat(controller.limit()).isEqualTo(32.0);
+
+        // A second slow completion inside the same latency window does not compound the decrease
+        controller.acquire();
+        controller.release(1, FAST, true);
+        assertThat(controller.limit()).isEqualTo(32.0);
+        assertThat(meterRegistry.get("order.consumer.concurrency").tag("receiver", "retry").gauge().value()).isEqualTo(32.0);
+    }
+
+    @Test
+    void fastCompletionsGrowLimitAdditivelyUpToMax() {
+        AdaptiveConcurrencyController controller = controller(Set.of(), 8);
+
+        controller.acquire();
+        controller.release(8, FAST, false);
+        assertThat(controller.limit()).isEqualTo(9.0);
+
+        for (int i = 0; i < 100; i++) {
+            controller.release(16, FAST, false);
+        }
+        assertThat(controller.limit()).isEqualTo(16.0);
+    }
+
+    @Test
+    void disabledControllerNeverPauses() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController("retry", receiver, Set.of(), false,
+                2, 1, 16, Duration.ofSeconds(1), 0.5, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            controller.acquire();
+        }
+        controller.release(1, SLOW, true);
+
+        verifyNoInteractions(consumer);
+        assertThat(controller.limit()).isEqualTo(2.0);
+    }
+
+    private AdaptiveConcurrencyController controller(Set<TopicPartition> held, int initialLimit) {
+        return new AdaptiveConcurrencyController("retry", receiver, held, true,
+                initialLimit, 2, Math.max(16, initialLimit), Duration.ofSeconds(1), 0.5, meterRegistry);
+    }
+}
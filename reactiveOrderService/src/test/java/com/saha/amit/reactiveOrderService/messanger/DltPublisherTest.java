@@ -4,12 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.reactivestreams.Publisher;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.springframework.test.util.ReflectionTestUtils;
-import reactor.core.publisher.Flux;
-import reactor.kafka.sender.KafkaSender;
-import reactor.kafka.sender.SenderRecord;
-import reactor.kafka.sender.SenderResult;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.concurrent.atomic.AtomicReference;
@@ -20,13 +18,13 @@ import static org.mockito.Mockito.*;
 
 class DltPublisherTest {
 
-    private KafkaSender<String, byte[]> kafkaSender;
+    private KafkaSendPipeline<String, byte[]> sendPipeline;
     private DltPublisher dltPublisher;
 
     @BeforeEach
     void setUp() {
-        kafkaSender = mock(KafkaSender.class);
-        dltPublisher = new DltPublisher(kafkaSender, new ObjectMapper());
+        sendPipeline = mock(KafkaSendPipeline.class);
+        dltPublisher = new DltPublisher(sendPipeline, new ObjectMapper());
         ReflectionTestUtils.setField(dltPublisher, "dltTopic", "order.events.dlt");
     }
 
@@ -34,22 +32,16 @@ class DltPublisherTest {
     void sendToDltPublishesSerializedPayloadWithHeaders() {
         OrderEvent event = OrderEvent.create("order-1", "cust-9", 55.0, "FAILED");
 
-        SenderResult<String> senderResult = mock(SenderResult.class);
-        when(senderResult.exception()).thenReturn(null);
-
-        AtomicReference<SenderRecord<String, byte[], String>> capturedRecord = new AtomicReference<>();
-        when(kafkaSender.send(any())).thenAnswer(invocation -> {
-            @SuppressWarnings("unchecked")
-            Publisher<SenderRecord<String, byte[], String>> publisher = invocation.getArgument(0);
-            return Flux.from(publisher)
-                    .doOnNext(capturedRecord::set)
-                    .map(r -> senderResult);
+        AtomicReference<ProducerRecord<String, byte[]>> capturedRecord = new AtomicReference<>();
+        when(sendPipeline.send(any())).thenAnswer(invocation -> {
+            capturedRecord.set(invocation.getArgument(0));
+            return Mono.just(mock(RecordMetadata.class));
         });
 
         StepVerifier.create(dltPublisher.sendToDlt(event, "consumer", "IllegalStateException", "order.events", 1, 10L))
                 .verifyComplete();
 
-        SenderRecord<String, byte[], String> senderRecord = capturedRecord.get();
+        ProducerRecord<String, byte[]> senderRecord = capturedRecord.get();
         assertThat(senderRecord).isNotNull();
 
         assertThat(senderRecord.topic()).isEqualTo("order.events.dlt");
@@ -0,0 +1,110 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class KafkaSendPipelineTest {
+
+    private KafkaSender<String, String> kafkaSender;
+    private RecordMetadata metadata;
+    private List<String> sentValues;
+    private KafkaSendPipeline<String, String> pipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaSender = mock(KafkaSender.class);
+        metadata = mock(RecordMetadata.class);
+        sentValues = new CopyOnWriteArrayList<>();
+
+        when(kafkaSender.send(any())).thenAnswer(invocation -> {
+            Publisher<SenderRecord<String, String, Sinks.One<RecordMetadata>>> records = invocation.getArgument(0);
+            return Flux.from(records).map(record -> {
+                sentValues.add(record.value());
+                if ("fatal".equals(record.value())) {
+                    throw new IllegalStateException("producer closed");
+                }
+                SenderResult<Sinks.One<RecordMetadata>> result = mock(SenderResult.class);
+                when(result.correlationMetadata()).thenReturn(record.correlationMetadata());
+                if ("poison".equals(record.value())) {
+                    when(result.exception()).thenReturn(new IllegalStateException("broker rejected"));
+                } else {
+                    when(result.recordMetadata()).thenReturn(metadata);
+                }
+                return result;
+            });
+        });
+
+        pipeline = new KafkaSendPipeline<>("test", kafkaSender, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.dispose();
+    }
+
+    @Test
+    void recordsFromManyCallersShareOneSendFlux() {
+        StepVerifier.create(Flux.range(0, 10)
+                        .flatMap(i -> pipeline.send(new ProducerRecord<>("topic", "key-" + i, "value-" + i))))
+                .expectNextCount(10)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(kafkaSender, times(1)).send(any());
+        assertThat(sentValues).hasSize(10);
+    }
+
+    @Test
+    void perRecordFailureDoesNotAffectOtherRecords() {
+        StepVerifier.create(pipeline.send(new ProducerRecord<>("topic", "key", "poison")))
+                .expectErrorMessage("broker rejected")
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(pipeline.send(new ProducerRecord<>("topic", "key", "value")))
+                .expectNext(metadata)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void inFlightRecordsFailWhenSendFluxErrors() {
+        StepVerifier.create(pipeline.send(new ProducerRecord<>("topic", "key", "fatal")))
+                .expectErrorMessage("producer closed")
+                .verify(Duration.ofSeconds(5));
+
+        // The pipeline resubscribes and keeps serving later records
+        StepVerifier.create(pipeline.send(new ProducerRecord<>("topic", "key", "value")))
+                .expectNext(metadata)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void recordsAreRejectedOnceDisposed() {
+        pipeline.dispose();
+
+        StepVerifier.create(pipeline.send(new ProducerRecord<>("topic", "key", "value")))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -1,11 +1,17 @@
 package com.saha.amit.reactiveOrderService.messanger;
 
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.proto.OrderEventMessage;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.reactivestreams.Publisher;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverOffset;
@@ -13,6 +19,12 @@ import reactor.kafka.receiver.ReceiverRecord;
 import reactor.test.StepVerifier;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,8 +34,10 @@ class OrderEventConsumerTest {
 
     private KafkaReceiver<String, OrderEvent> mainReceiver;
     private KafkaReceiver<String, OrderEvent> retryReceiver;
+    private KafkaReceiver<String, OrderEventMessage> protoReceiver;
     private DltPublisher dltPublisher;
     private RetryEventPublisher retryEventPublisher;
+    private ProcessedEventStore processedEventStore;
     private SimpleMeterRegistry meterRegistry;
     private OrderEventConsumer consumer;
 
@@ -31,11 +45,17 @@ class OrderEventConsumerTest {
     void setUp() {
         mainReceiver = mock(KafkaReceiver.class);
         retryReceiver = mock(KafkaReceiver.class);
+        protoReceiver = mock(KafkaReceiver.class);
         dltPublisher = mock(DltPublisher.class);
         retryEventPublisher = mock(RetryEventPublisher.class);
+        processedEventStore = mock(ProcessedEventStore.class);
+        when(processedEventStore.isDuplicate(any())).thenReturn(Mono.just(false));
         meterRegistry = new SimpleMeterRegistry();
-        consumer = new OrderEventConsumer(mainReceiver, retryReceiver, dltPublisher, retryEventPublisher, meterRegistry);
+        consumer = new OrderEventConsumer(mainReceiver, retryReceiver, protoReceiver, dltPublisher, retryEventPublisher,
+                processedEventStore, meterRegistry);
         ReflectionTestUtils.setField(consumer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(consumer, "adaptiveLatencyTarget", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(consumer, "adaptiveSampleInterval", Duration.ofSeconds(10));
     }
 
     //@Test
@@ -43,10 +63,13 @@ class OrderEventConsumerTest {
         OrderEvent event = OrderEvent.create("order-1", "cust", 10.0, "PLACED");
         ReceiverRecord<String, OrderEvent> record = mockRecord(event, false);
 
-        Method process = OrderEventConsumer.class.getDeclaredMethod("processRecord", ReceiverRecord.class, boolean.class);
+        Method process = OrderEventConsumer.class.getDeclaredMethod("processRecord",
+                ReceiverRecord.class, boolean.class, OrderedAcknowledger.class, AdaptiveConcurrencyController.class);
         process.setAccessible(true);
+        OrderedAcknowledger acknowledger = new OrderedAcknowledger();
+        acknowledger.register(record);
 
-        Mono<Void> result = (Mono<Void>) process.invoke(consumer, record, false);
+        Mono<Void> result = (Mono<Void>) process.invoke(consumer, record, false, acknowledger, controller());
 
         StepVerifier.create(result).verifyComplete();
         verify(record.receiverOffset()).acknowledge();
@@ -61,10 +84,13 @@ class OrderEventConsumerTest {
         ReceiverRecord<String, OrderEvent> record = mockRecord(event, true);
         when(retryEventPublisher.scheduleRetry(any(), anyInt())).thenReturn(Mono.empty());
 
-        Method process = OrderEventConsumer.class.getDeclaredMethod("processRecord", ReceiverRecord.class, boolean.class);
+        Method process = OrderEventConsumer.class.getDeclaredMethod("processRecord",
+                ReceiverRecord.class, boolean.class, OrderedAcknowledger.class, AdaptiveConcurrencyController.class);
         process.setAccessible(true);
+        OrderedAcknowledger acknowledger = new OrderedAcknowledger();
+        acknowledger.register(record);
 
-        Mono<Void> result = (Mono<Void>) process.invoke(consumer, record, false);
+        Mono<Void> result = (Mono<Void>) process.invoke(consumer, record, false, acknowledger, controller());
 
         StepVerifier.create(result).verifyComplete();
         verify(retryEventPublisher).scheduleRetry(eq(event), eq(0));
@@ -72,6 +98,239 @@ class OrderEventConsumerTest {
         assertThat(meterRegistry.counter("order.consumer.failed").count()).isEqualTo(1.0);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchModeCommitsLastOffsetOfEachPartitionOnce() {
+        ReceiverRecord<String, OrderEvent> p0First = mockBatchRecord(0, 1L, 10.0);
+        ReceiverRecord<String, OrderEvent> p1Only = mockBatchRecord(1, 7L, 10.0);
+        ReceiverRecord<String, OrderEvent> p0Failed = mockBatchRecord(0, 2L, -1.0);
+        when(retryEventPublisher.scheduleRetry(any(), anyInt())).thenReturn(Mono.empty());
+        when(mainReceiver.receive()).thenReturn(Flux.just(p0First, p1Only, p0Failed));
+        when(retryReceiver.receive()).thenReturn(Flux.never());
+
+        ReflectionTestUtils.setField(consumer, "batchEnabled", true);
+        ReflectionTestUtils.setField(consumer, "batchSize", 10);
+        ReflectionTestUtils.setField(consumer, "batchInterval", Duration.ofMillis(50));
+        consumer.start();
+
+        verify(p0Failed.receiverOffset(), timeout(2000)).commit();
+        verify(p1Only.receiverOffset(), timeout(2000)).commit();
+        verify(p0First.receiverOffset(), never()).commit();
+        verify(p0First.receiverOffset(), never()).acknowledge();
+        verify(retryEventPublisher).scheduleRetry(eq(p0Failed.value()), eq(0));
+        consumer.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adaptiveBatchModeFillsBatchesWithoutPausing() {
+        ReceiverRecord<String, OrderEvent>[] records = new ReceiverRecord[25];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = mockBatchRecord(0, i + 1, 10.0);
+        }
+        when(mainReceiver.receive()).thenReturn(Flux.concat(Flux.just(records), Flux.never()));
+        when(retryReceiver.receive()).thenReturn(Flux.never());
+        when(mainReceiver.doOnConsumer(any())).thenReturn(Mono.empty());
+        when(retryReceiver.doOnConsumer(any())).thenReturn(Mono.empty());
+
+        ReflectionTestUtils.setField(consumer, "batchEnabled", true);
+        ReflectionTestUtils.setField(consumer, "batchSize", 10);
+        // Long enough that only full batches can be committed within the verification timeout
+        ReflectionTestUtils.setField(consumer, "batchInterval", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(consumer, "adaptiveEnabled", true);
+        ReflectionTestUtils.setField(consumer, "adaptiveInitialLimit", 4);
+        ReflectionTestUtils.setField(consumer, "adaptiveMinLimit", 1);
+        ReflectionTestUtils.setField(consumer, "adaptiveMaxLimit", 16);
+        ReflectionTestUtils.setField(consumer, "adaptiveDecreaseRatio", 0.5);
+        consumer.start();
+
+        verify(records[9].receiverOffset(), timeout(2000)).commit();
+        verify(records[19].receiverOffset(), timeout(2000)).commit();
+        verify(records[24].receiverOffset(), never()).commit();
+        // 25 records are far beyond the limit of 4, yet two batches never exhaust it
+        verify(mainReceiver, never()).doOnConsumer(any());
+        assertThat(meterRegistry.summary("order.consumer.batch.size").max()).isEqualTo(10.0);
+        consumer.shutdown();
+    }
+
+    @Test
+    void retryRecordNotYetDuePausesItsPartitionInsteadOfWaitingInMemory() {
+        ReceiverRecord<String, OrderEvent> notDue = mockBatchRecord(0, 1L, -1.0);
+        ReceiverRecord<String, OrderEvent> behindNotDue = mockBatchRecord(0, 2L, -1.0);
+        ReceiverRecord<String, OrderEvent> due = mockBatchRecord(1, 5L, 10.0);
+        withRetryHeaders(notDue, System.currentTimeMillis() + 60_000);
+        withRetryHeaders(behindNotDue, System.currentTimeMillis() + 60_000);
+        withRetryHeaders(due, System.currentTimeMillis() - 1);
+        when(mainReceiver.receive()).thenReturn(Flux.never());
+        when(retryReceiver.receive()).thenReturn(Flux.just(notDue, behindNotDue, due));
+        when(retryReceiver.doOnConsumer(any())).thenReturn(Mono.never());
+
+        ReflectionTestUtils.setField(consumer, "parallelism", 2);
+        consumer.start();
+
+        verify(due.receiverOffset(), timeout(2000)).acknowledge();
+        verify(retryReceiver, times(1)).doOnConsumer(any());
+        verify(notDue.receiverOffset(), never()).acknowledge();
+        verify(behindNotDue.receiverOffset(), never()).acknowledge();
+        verifyNoInteractions(retryEventPublisher, dltPublisher);
+        assertThat(meterRegistry.counter("order.retry.deferred", "topic", "order.events").count()).isEqualTo(1.0);
+        consumer.shutdown();
+    }
+
+    @Test
+    void eventsOfOneOrderStayInOrderAcrossRecordKeys() {
+        ReceiverRecord<String, OrderEvent> first = mockBatchRecord(0, 1L, 10.0);
+        ReceiverRecord<String, OrderEvent> second = mockBatchRecord(0, 2L, 10.0);
+        OrderEvent placed = OrderEvent.create("order-1", "cust", 10.0, "PLACED");
+        OrderEvent confirmed = OrderEvent.create("order-1", "cust", 10.0, "CONFIRMED");
+        when(first.value()).thenReturn(placed);
+        when(second.value()).thenReturn(confirmed);
+        // Keyed by event id like every producer; with 2 rails these keys land on different rails
+        when(first.key()).thenReturn("a");
+        when(second.key()).thenReturn("b");
+        // The first event is slow, so a parallel rail would finish the second one first
+        when(processedEventStore.isDuplicate(placed.eventId()))
+                .thenReturn(Mono.delay(Duration.ofMillis(200)).thenReturn(false));
+        when(mainReceiver.receive()).thenReturn(Flux.just(first, second));
+        when(retryReceiver.receive()).thenReturn(Flux.never());
+
+        ReflectionTestUtils.setField(consumer, "parallelism", 2);
+        ReflectionTestUtils.setField(consumer, "ordering", "key");
+        consumer.start();
+
+        verify(second.receiverOffset(), timeout(2000)).acknowledge();
+        InOrder inOrder = inOrder(processedEventStore);
+        inOrder.verify(processedEventStore).markProcessed(placed.eventId());
+        inOrder.verify(processedEventStore).markProcessed(confirmed.eventId());
+        consumer.shutdown();
+    }
+
+    @Test
+    void retryRecordWithMalformedDueAtIsTreatedAsDue() {
+        ReceiverRecord<String, OrderEvent> malformed = mockBatchRecord(0, 1L, 10.0);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("retry-attempt", "x".getBytes(StandardCharsets.UTF_8));
+        headers.add("retry-due-at", "not-a-timestamp".getBytes(StandardCharsets.UTF_8));
+        when(malformed.headers()).thenReturn(headers);
+        when(mainReceiver.receive()).thenReturn(Flux.never());
+        when(retryReceiver.receive()).thenReturn(Flux.just(malformed));
+
+        consumer.start();
+
+        verify(malformed.receiverOffset(), timeout(2000)).acknowledge();
+        verify(retryReceiver, never()).doOnConsumer(any());
+        verify(retryReceiver, times(1)).receive();
+        assertThat(meterRegistry.counter("order.consumer.malformed.header", "header", "retry-due-at").count()).isEqualTo(1.0);
+        consumer.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedDeferralsOfAPartitionHoldOneTimer() throws Exception {
+        ReceiverRecord<String, OrderEvent> notDue = mockBatchRecord(0, 1L, 10.0);
+        withRetryHeaders(notDue, System.currentTimeMillis() + 60_000);
+        AtomicInteger cancelled = new AtomicInteger();
+        when(retryReceiver.doOnConsumer(any())).thenAnswer(invocation -> Mono.never().doOnCancel(cancelled::incrementAndGet));
+        Map<TopicPartition, Long> deferred = new HashMap<>();
+
+        Method isDue = OrderEventConsumer.class.getDeclaredMethod("isDue", KafkaReceiver.class, ReceiverRecord.class, Map.class);
+        isDue.setAccessible(true);
+        for (int i = 0; i < 5; i++) {
+            // As after a resume or a resubscription
+            deferred.clear();
+            assertThat((Boolean) isDue.invoke(consumer, retryReceiver, notDue, deferred)).isFalse();
+        }
+
+        assertThat((Map<TopicPartition, ?>) ReflectionTestUtils.getField(consumer, "retryDeferrals"))
+                .containsOnlyKeys(new TopicPartition("order.events", 0));
+        // Every superseded timer was cancelled
+        assertThat(cancelled).hasValue(4);
+        consumer.shutdown();
+    }
+
+    @Test
+    void duplicateEventIsAcknowledgedWithoutReprocessing() {
+        ReceiverRecord<String, OrderEvent> duplicate = mockBatchRecord(0, 1L, -1.0);
+        when(processedEventStore.isDuplicate(duplicate.value().eventId())).thenReturn(Mono.just(true));
+        when(mainReceiver.receive()).thenReturn(Flux.just(duplicate));
+        when(retryReceiver.receive()).thenReturn(Flux.never());
+
+        consumer.start();
+
+        verify(duplicate.receiverOffset(), timeout(2000)).acknowledge();
+        verify(processedEventStore, never()).markProcessed(any());
+        verifyNoInteractions(retryEventPublisher, dltPublisher);
+        assertThat(meterRegistry.counter("order.consumer.duplicates").count()).isEqualTo(1.0);
+        consumer.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void protobufRecordsShareProcessingAndRetryHandling() {
+        ReceiverRecord<String, OrderEventMessage> valid = mockProtoRecord(1L, 10.0);
+        ReceiverRecord<String, OrderEventMessage> invalid = mockProtoRecord(2L, -1.0);
+        when(retryEventPublisher.scheduleRetry(any(), anyInt())).thenReturn(Mono.empty());
+        when(mainReceiver.receive()).thenReturn(Flux.never());
+        when(retryReceiver.receive()).thenReturn(Flux.never());
+        when(protoReceiver.receive()).thenReturn(Flux.just(valid, invalid));
+
+        ReflectionTestUtils.setField(consumer, "protoEnabled", true);
+        ReflectionTestUtils.setField(consumer, "ordering", "partition");
+        consumer.start();
+
+        verify(invalid.receiverOffset(), timeout(2000)).acknowledge();
+        verify(valid.receiverOffset()).acknowledge();
+        verify(retryEventPublisher).scheduleRetry(argThat(event ->
+                "order-2".equals(event.orderId()) && event.amount() == -1.0), eq(0));
+        verify(processedEventStore).markProcessed(valid.value().getEventId());
+        consumer.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReceiverRecord<String, OrderEventMessage> mockProtoRecord(long offsetValue, double amount) {
+        OrderEventMessage message = OrderEventMessage.newBuilder()
+                .setEventId("event-" + offsetValue)
+                .setOrderId("order-" + offsetValue)
+                .setCustomerId("cust")
+                .setStatus("PLACED")
+                .setAmount(amount)
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+        when(offset.topicPartition()).thenReturn(new TopicPartition("order.events.proto", 0));
+        when(offset.offset()).thenReturn(offsetValue);
+        return new ReceiverRecord<>(
+                new ConsumerRecord<>("order.events.proto", 0, offsetValue, message.getOrderId(), message),
+                offset);
+    }
+
+    private AdaptiveConcurrencyController controller() {
+        return new AdaptiveConcurrencyController("main", mainReceiver, Set.of(), true,
+                64, 4, 1024, Duration.ofMillis(500), 0.5, meterRegistry);
+    }
+
+    private void withRetryHeaders(ReceiverRecord<String, OrderEvent> record, long dueAt) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("retry-attempt", "1".getBytes(StandardCharsets.UTF_8));
+        headers.add("retry-due-at", String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
+        when(record.headers()).thenReturn(headers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReceiverRecord<String, OrderEvent> mockBatchRecord(int partition, long offsetValue, double amount) {
+        ReceiverRecord<String, OrderEvent> record = mock(ReceiverRecord.class);
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+        when(record.value()).thenReturn(OrderEvent.create("order-" + offsetValue, "cust", amount, "PLACED"));
+        when(record.topic()).thenReturn("order.events");
+        when(record.partition()).thenReturn(partition);
+        when(record.offset()).thenReturn(offsetValue);
+        when(record.receiverOffset()).thenReturn(offset);
+        when(offset.topicPartition()).thenReturn(new TopicPartition("order.events", partition));
+        when(offset.offset()).thenReturn(offsetValue);
+        when(offset.commit()).thenReturn(Mono.empty());
+        return record;
+    }
+
     @SuppressWarnings("unchecked")
     private ReceiverRecord<String, OrderEvent> mockRecord(OrderEvent event, boolean includeHeader) {
         ReceiverRecord<String, OrderEvent> record = mock(ReceiverRecord.class);
@@ -81,6 +340,8 @@ class OrderEventConsumerTest {
         when(record.partition()).thenReturn(0);
         when(record.offset()).thenReturn(10L);
         when(record.receiverOffset()).thenReturn(offset);
+        when(offset.topicPartition()).thenReturn(new TopicPartition("order.events", 0));
+        when(offset.offset()).thenReturn(10L);
         doNothing().when(offset).acknowledge();
 
         if (includeHeader) {
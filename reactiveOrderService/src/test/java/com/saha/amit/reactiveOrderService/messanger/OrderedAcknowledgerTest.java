@@ -0,0 +1,58 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import static org.mockito.Mockito.*;
+
+class OrderedAcknowledgerTest {
+
+    private final OrderedAcknowledger acknowledger = new OrderedAcknowledger();
+
+    @Test
+    void laterRecordIsAcknowledgedOnlyAfterEarlierOnesComplete() {
+        ReceiverRecord<String, String> first = record(0, 1L);
+        ReceiverRecord<String, String> second = record(0, 2L);
+        ReceiverRecord<String, String> third = record(0, 3L);
+        acknowledger.register(first);
+        acknowledger.register(second);
+        acknowledger.register(third);
+
+        acknowledger.complete(third);
+        acknowledger.complete(second);
+        verify(third.receiverOffset(), never()).acknowledge();
+        verify(second.receiverOffset(), never()).acknowledge();
+
+        acknowledger.complete(first);
+        InOrder inOrder = inOrder(first.receiverOffset(), second.receiverOffset(), third.receiverOffset());
+        inOrder.verify(first.receiverOffset()).acknowledge();
+        inOrder.verify(second.receiverOffset()).acknowledge();
+        inOrder.verify(third.receiverOffset()).acknowledge();
+    }
+
+    @Test
+    void partitionsAreTrackedIndependently() {
+        ReceiverRecord<String, String> slow = record(0, 1L);
+        ReceiverRecord<String, String> fast = record(1, 1L);
+        acknowledger.register(slow);
+        acknowledger.register(fast);
+
+        acknowledger.complete(fast);
+
+        verify(fast.receiverOffset()).acknowledge();
+        verify(slow.receiverOffset(), never()).acknowledge();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReceiverRecord<String, String> record(int partition, long offsetValue) {
+        ReceiverRecord<String, String> record = mock(ReceiverRecord.class);
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+        when(offset.topicPartition()).thenReturn(new TopicPartition("order.events", partition));
+        when(offset.offset()).thenReturn(offsetValue);
+        when(record.receiverOffset()).thenReturn(offset);
+        return record;
+    }
+}
@@ -5,74 +5,267 @@ import com.saha.amit.reactiveOrderService.events.OrderEvent;
 import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
 import com.saha.amit.reactiveOrderService.model.OutboxStatus;
 import com.saha.amit.reactiveOrderService.repository.OrderOutboxRepository;
+import com.saha.amit.reactiveOrderService.repository.OutboxLeaseRepository;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class OutboxPublisherTest {
 
+    private static final String WORKER = "order-service-test";
+
     private OrderOutboxRepository outboxRepository;
+    private OutboxLeaseRepository outboxLeaseRepository;
     private OrderEventPublisher orderEventPublisher;
+    private OutboxStatusWriter outboxStatusWriter;
+    private OutboxNotifier outboxNotifier;
     private SimpleMeterRegistry meterRegistry;
     private OutboxPublisher outboxPublisher;
 
     @BeforeEach
     void setUp() {
         outboxRepository = mock(OrderOutboxRepository.class);
+        outboxLeaseRepository = mock(OutboxLeaseRepository.class);
         orderEventPublisher = mock(OrderEventPublisher.class);
+        outboxStatusWriter = mock(OutboxStatusWriter.class);
+        outboxNotifier = new OutboxNotifier();
         meterRegistry = new SimpleMeterRegistry();
-        outboxPublisher = new OutboxPublisher(outboxRepository, orderEventPublisher, new ObjectMapper(), meterRegistry);
+        outboxPublisher = new OutboxPublisher(outboxRepository, outboxLeaseRepository, orderEventPublisher, outboxStatusWriter, outboxNotifier, new ObjectMapper(), meterRegistry);
         ReflectionTestUtils.setField(outboxPublisher, "pollInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(outboxPublisher, "maxPollInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(outboxPublisher, "currentPollDelay", Duration.ofSeconds(1));
         ReflectionTestUtils.setField(outboxPublisher, "batchSize", 10);
         ReflectionTestUtils.setField(outboxPublisher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxPublisher, "partitions", 8);
+        ReflectionTestUtils.setField(outboxPublisher, "leaseDuration", Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(outboxPublisher, "workerId", WORKER);
+        ReflectionTestUtils.setField(outboxPublisher, "leaseExpiresAt", Instant.now().plusSeconds(15));
+    }
+
+    @Test
+    void claimsOnlyItsFairShareOfPartitions() throws Exception {
+        when(outboxLeaseRepository.heartbeat(eq(WORKER), any(), any())).thenReturn(Mono.just(3L));
+        when(outboxLeaseRepository.tryAcquire(anyInt(), eq(WORKER), any(), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(invokeOwnedPartitions())
+                .assertNext(owned -> assertThat(owned).hasSize(3).doesNotHaveDuplicates())
+                .verifyComplete();
+
+        verify(outboxLeaseRepository, times(3)).tryAcquire(anyInt(), eq(WORKER), any(), any());
+    }
+
+    @Test
+    void renewsOwnedPartitionsBeforeClaimingNewOnes() throws Exception {
+        ReflectionTestUtils.setField(outboxPublisher, "ownedPartitions", List.of(5, 2));
+        when(outboxLeaseRepository.heartbeat(eq(WORKER), any(), any())).thenReturn(Mono.just(2L));
+        when(outboxLeaseRepository.tryAcquire(anyInt(), eq(WORKER), any(), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(invokeOwnedPartitions())
+                .assertNext(owned -> assertThat(owned).hasSize(4).startsWith(5, 2).doesNotHaveDuplicates())
+                .verifyComplete();
+
+        InOrder inOrder = inOrder(outboxLeaseRepository);
+        inOrder.verify(outboxLeaseRepository).tryAcquire(eq(5), eq(WORKER), any(), any());
+        inOrder.verify(outboxLeaseRepository).tryAcquire(eq(2), eq(WORKER), any(), any());
+    }
+
+    @Test
+    void releasesPartitionsAboveFairShareWhenWorkersJoin() throws Exception {
+        ReflectionTestUtils.setField(outboxPublisher, "partitions", 4);
+        ReflectionTestUtils.setField(outboxPublisher, "ownedPartitions", List.of(0, 1, 2, 3));
+        when(outboxLeaseRepository.heartbeat(eq(WORKER), any(), any())).thenReturn(Mono.just(2L));
+        when(outboxLeaseRepository.release(anyInt(), eq(WORKER))).thenReturn(Mono.just(true));
+        when(outboxLeaseRepository.tryAcquire(anyInt(), eq(WORKER), any(), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(invokeOwnedPartitions())
+                .assertNext(owned -> assertThat(owned).containsExactly(0, 1))
+                .verifyComplete();
+
+        verify(outboxLeaseRepository).release(2, WORKER);
+        verify(outboxLeaseRepository).release(3, WORKER);
+        verify(outboxLeaseRepository, never()).tryAcquire(eq(2), any(), any(), any());
+        verify(outboxLeaseRepository, never()).tryAcquire(eq(3), any(), any(), any());
+    }
+
+    @Test
+    void dropsLostLeasesAndTakesOverExpiredOnes() throws Exception {
+        ReflectionTestUtils.setField(outboxPublisher, "partitions", 4);
+        ReflectionTestUtils.setField(outboxPublisher, "ownedPartitions", List.of(0, 1));
+        when(outboxLeaseRepository.heartbeat(eq(WORKER), any(), any())).thenReturn(Mono.just(2L));
+        when(outboxLeaseRepository.tryAcquire(anyInt(), eq(WORKER), any(), any()))
+                .thenAnswer(invocation -> Mono.just(List.of(1, 3).contains(invocation.<Integer>getArgument(0))));
+
+        StepVerifier.create(invokeOwnedPartitions())
+                .assertNext(owned -> assertThat(owned).containsExactly(1, 3))
+                .verifyComplete();
+
+        verify(outboxLeaseRepository, times(1)).tryAcquire(eq(0), eq(WORKER), any(), any());
+    }
+
+    @Test
+    void drainLeavesRowsOnceLeaseIsAboutToExpire() throws Exception {
+        ReflectionTestUtils.setField(outboxPublisher, "leaseExpiresAt", Instant.now());
+        when(outboxRepository.findNextBatchForPartition(eq(0), any(), anyInt())).thenReturn(Flux.just(sampleEntity()));
+
+        StepVerifier.create(invokeDrain(0))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verifyNoInteractions(orderEventPublisher, outboxStatusWriter);
     }
 
-    //@Test
+    @Test
     void publishOutboxRecordMarksEntryPublished() throws Exception {
         OrderOutboxEntity entity = sampleEntity();
-        //when(orderEventPublisher.publish(any())).thenReturn(Mono.empty());
-        when(outboxRepository.save(any(OrderOutboxEntity.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(orderEventPublisher.publish(any(), anyBoolean())).thenReturn(Mono.empty());
 
-        Mono<Void> result = invokePublish(entity);
-        StepVerifier.create(result).verifyComplete();
+        Mono<OrderOutboxEntity> result = invokePublish(entity);
+        StepVerifier.create(result)
+                .assertNext(published -> assertThat(published.getStatus()).isEqualTo(OutboxStatus.PUBLISHED))
+                .verifyComplete();
 
-        ArgumentCaptor<OrderOutboxEntity> captor = ArgumentCaptor.forClass(OrderOutboxEntity.class);
-        verify(outboxRepository, atLeastOnce()).save(captor.capture());
-        OrderOutboxEntity saved = captor.getValue();
-        assertThat(saved.getStatus()).isEqualTo(OutboxStatus.PUBLISHED);
+        verify(outboxRepository, never()).save(any(OrderOutboxEntity.class));
         assertThat(meterRegistry.counter("order.outbox.published").count()).isEqualTo(1.0);
     }
 
-    //@Test
+    @Test
     void publishOutboxRecordSchedulesRetryOnFailure() throws Exception {
         OrderOutboxEntity entity = sampleEntity();
-        //when(orderEventPublisher.publish(any())).thenReturn(Mono.error(new IllegalStateException("Kafka down")));
-        when(outboxRepository.save(any(OrderOutboxEntity.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-
-        Mono<Void> result = invokePublish(entity);
-        StepVerifier.create(result).verifyComplete();
-
-        ArgumentCaptor<OrderOutboxEntity> captor = ArgumentCaptor.forClass(OrderOutboxEntity.class);
-        verify(outboxRepository, atLeastOnce()).save(captor.capture());
-        OrderOutboxEntity retried = captor.getValue();
-        assertThat(retried.getStatus()).isEqualTo(OutboxStatus.FAILED);
-        assertThat(retried.getAttempts()).isGreaterThan(0);
-        assertThat(retried.getLastError()).contains("Kafka down");
-        assertThat(retried.getAvailableAt()).isAfter(Instant.now().minusSeconds(1));
+        when(orderEventPublisher.publish(any(), anyBoolean())).thenReturn(Mono.error(new IllegalStateException("Kafka down")));
+
+        Mono<OrderOutboxEntity> result = invokePublish(entity);
+        StepVerifier.create(result)
+                .assertNext(retried -> {
+                    assertThat(retried.getStatus()).isEqualTo(OutboxStatus.FAILED);
+                    assertThat(retried.getAttempts()).isGreaterThan(0);
+                    assertThat(retried.getLastError()).contains("Kafka down");
+                    assertThat(retried.getAvailableAt()).isAfter(Instant.now().minusSeconds(1));
+                })
+                .verifyComplete();
+
+        verify(outboxRepository, never()).save(any(OrderOutboxEntity.class));
         assertThat(meterRegistry.counter("order.outbox.failed").count()).isEqualTo(1.0);
     }
 
+    @Test
+    void publishOutboxRecordForwardsWireBytesUntouched() throws Exception {
+        OrderOutboxEntity entity = sampleEntity();
+        entity.setPayload(null);
+        entity.setPayloadBytes(new byte[]{1, 2, 3});
+        entity.setContentType("application/x-protobuf");
+        when(orderEventPublisher.publishSerialized(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(invokePublish(entity))
+                .assertNext(published -> assertThat(published.getStatus()).isEqualTo(OutboxStatus.PUBLISHED))
+                .verifyComplete();
+
+        verify(orderEventPublisher).publishSerialized("application/x-protobuf", "order-1", new byte[]{1, 2, 3});
+        verify(orderEventPublisher, never()).publish(any(), anyBoolean());
+    }
+
+    @Test
+    void drainMarksSentRowsThroughStatusWriter() throws Exception {
+        OrderOutboxEntity first = sampleEntity();
+        OrderOutboxEntity second = sampleEntity();
+        second.setAggregateId("order-2");
+        when(outboxRepository.findNextBatchForPartition(eq(0), any(), eq(10))).thenReturn(Flux.just(first, second));
+        when(orderEventPublisher.publish(any(), anyBoolean())).thenReturn(Mono.empty());
+        when(outboxStatusWriter.write(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(invokeDrain(0))
+                .expectNext(2L)
+                .verifyComplete();
+
+        ArgumentCaptor<OrderOutboxEntity> written = ArgumentCaptor.forClass(OrderOutboxEntity.class);
+        verify(outboxStatusWriter, times(2)).write(written.capture());
+        assertThat(written.getAllValues())
+                .extracting(OrderOutboxEntity::getStatus)
+                .containsOnly(OutboxStatus.PUBLISHED);
+        verify(outboxRepository, never()).save(any(OrderOutboxEntity.class));
+    }
+
+    @Test
+    void drainMarksFailedRowAndHoldsBackLaterRowsOfItsOrder() throws Exception {
+        OrderOutboxEntity first = sampleEntity();
+        OrderOutboxEntity second = sampleEntity();
+        when(outboxRepository.findNextBatchForPartition(eq(0), any(), eq(10))).thenReturn(Flux.just(first, second));
+        when(orderEventPublisher.publish(any(), anyBoolean())).thenReturn(Mono.error(new IllegalStateException("Kafka down")));
+        when(outboxStatusWriter.write(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(invokeDrain(0))
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(orderEventPublisher, times(1)).publish(any(), anyBoolean());
+        ArgumentCaptor<OrderOutboxEntity> written = ArgumentCaptor.forClass(OrderOutboxEntity.class);
+        verify(outboxStatusWriter).write(written.capture());
+        assertThat(written.getValue().getId()).isEqualTo(first.getId());
+        assertThat(written.getValue().getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(written.getValue().getLastError()).contains("Kafka down");
+    }
+
+    @Test
+    void drainDoesNotCountRowsWhoseStatusWasNotPersisted() throws Exception {
+        when(outboxRepository.findNextBatchForPartition(eq(0), any(), eq(10))).thenReturn(Flux.just(sampleEntity()));
+        when(orderEventPublisher.publish(any(), anyBoolean())).thenReturn(Mono.empty());
+        when(outboxStatusWriter.write(any())).thenReturn(Mono.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(invokeDrain(0))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void idlePollBacksOffNoFurtherThanMaxPollInterval() {
+        ReflectionTestUtils.setField(outboxPublisher, "pollInterval", Duration.ofMillis(250));
+        ReflectionTestUtils.setField(outboxPublisher, "currentPollDelay", Duration.ofMillis(250));
+
+        for (int i = 0; i < 5; i++) {
+            invokeAdaptPollDelay(0L);
+        }
+
+        assertThat(ReflectionTestUtils.getField(outboxPublisher, "currentPollDelay")).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void dispatchedRowsResetPollDelayAndWakeDispatcherAgain() {
+        ReflectionTestUtils.setField(outboxPublisher, "maxPollInterval", Duration.ofSeconds(8));
+        ReflectionTestUtils.setField(outboxPublisher, "currentPollDelay", Duration.ofSeconds(8));
+
+        StepVerifier.create(outboxNotifier.wakeUps().take(1))
+                .then(() -> invokeAdaptPollDelay(3L))
+                .expectNext(Boolean.TRUE)
+                .verifyComplete();
+
+        assertThat(ReflectionTestUtils.getField(outboxPublisher, "currentPollDelay")).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void emptyDispatchDoesNotWakeDispatcher() {
+        StepVerifier.create(outboxNotifier.wakeUps())
+                .then(() -> invokeAdaptPollDelay(0L))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+    }
+
     private OrderOutboxEntity sampleEntity() {
         OrderOutboxEntity entity = new OrderOutboxEntity();
         entity.setId(java.util.UUID.randomUUID().toString());
@@ -86,9 +279,27 @@ class OutboxPublisherTest {
         return entity;
     }
 
-    private Mono<Void> invokePublish(OrderOutboxEntity entity) throws Exception {
+    private void invokeAdaptPollDelay(long dispatched) {
+        ReflectionTestUtils.invokeMethod(outboxPublisher, "adaptPollDelay", dispatched);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<List<Integer>> invokeOwnedPartitions() throws Exception {
+        java.lang.reflect.Method owned = OutboxPublisher.class.getDeclaredMethod("ownedPartitions");
+        owned.setAccessible(true);
+        return (Mono<List<Integer>>) owned.invoke(outboxPublisher);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<Long> invokeDrain(int partition) throws Exception {
+        java.lang.reflect.Method drain = OutboxPublisher.class.getDeclaredMethod("drainPartition", int.class);
+        drain.setAccessible(true);
+        return (Mono<Long>) drain.invoke(outboxPublisher, partition);
+    }
+
+    private Mono<OrderOutboxEntity> invokePublish(OrderOutboxEntity entity) throws Exception {
         java.lang.reflect.Method publish = OutboxPublisher.class.getDeclaredMethod("publishOutboxRecord", OrderOutboxEntity.class);
         publish.setAccessible(true);
-        return (Mono<Void>) publish.invoke(outboxPublisher, entity);
+        return (Mono<OrderOutboxEntity>) publish.invoke(outboxPublisher, entity);
     }
 }
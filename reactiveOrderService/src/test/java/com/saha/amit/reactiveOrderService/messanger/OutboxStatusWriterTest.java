@@ -0,0 +1,103 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.model.OutboxStatus;
+import com.saha.amit.reactiveOrderService.repository.CustomOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxStatusWriterTest {
+
+    private CustomOrderRepository customOrderRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxStatusWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        customOrderRepository = mock(CustomOrderRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new OutboxStatusWriter(customOrderRepository, meterRegistry);
+        ReflectionTestUtils.setField(writer, "flushSize", 10);
+        ReflectionTestUtils.setField(writer, "flushInterval", Duration.ofMillis(200));
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishedRowsAreFlushedWithSingleUpdate() {
+        when(customOrderRepository.markOutboxPublished(any(), any())).thenReturn(Mono.just(2L));
+
+        OrderOutboxEntity first = entity(OutboxStatus.PUBLISHED, 1, null);
+        OrderOutboxEntity second = entity(OutboxStatus.PUBLISHED, 1, null);
+
+        StepVerifier.create(Mono.when(writer.write(first), writer.write(second)))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(customOrderRepository, times(1)).markOutboxPublished(ids.capture(), any(Instant.class));
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(first.getId(), second.getId());
+        verify(customOrderRepository, never()).markOutboxFailed(any(), anyInt(), any(), any());
+        assertThat(meterRegistry.counter("order.outbox.status.flushed", "status", "PUBLISHED").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void failedRowsAreGroupedByAttemptAndError() {
+        when(customOrderRepository.markOutboxFailed(any(), anyInt(), anyString(), any())).thenReturn(Mono.just(1L));
+
+        OrderOutboxEntity firstAttempt = entity(OutboxStatus.FAILED, 1, "Kafka down");
+        OrderOutboxEntity secondAttempt = entity(OutboxStatus.FAILED, 2, "Kafka down");
+
+        StepVerifier.create(Mono.when(writer.write(firstAttempt), writer.write(secondAttempt)))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(customOrderRepository).markOutboxFailed(any(), eq(1), eq("Kafka down"), any());
+        verify(customOrderRepository).markOutboxFailed(any(), eq(2), eq("Kafka down"), any());
+        verify(customOrderRepository, never()).markOutboxPublished(any(), any());
+    }
+
+    @Test
+    void flushErrorIsPropagatedToWriters() {
+        when(customOrderRepository.markOutboxPublished(any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(writer.write(entity(OutboxStatus.PUBLISHED, 1, null)))
+                .expectErrorMessage("db down")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private OrderOutboxEntity entity(OutboxStatus status, int attempts, String lastError) {
+        OrderOutboxEntity entity = new OrderOutboxEntity();
+        entity.setId(UUID.randomUUID().toString());
+        entity.setAggregateId("order-1");
+        entity.setStatus(status);
+        entity.setAttempts(attempts);
+        entity.setLastError(lastError);
+        entity.setAvailableAt(Instant.now());
+        return entity;
+    }
+}
@@ -0,0 +1,103 @@
+package com.saha.amit.reactiveOrderService.messanger;
+
+import com.saha.amit.reactiveOrderService.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProcessedEventStoreTest {
+
+    private ProcessedEventRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessedEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProcessedEventRepository.class);
+        when(repository.findProcessedSince(any())).thenReturn(Flux.just("processed-before-restart"));
+        when(repository.insertAll(any(), any())).thenAnswer(invocation -> Mono.just((long) ((Collection<?>) invocation.getArgument(0)).size()));
+        meterRegistry = new SimpleMeterRegistry();
+
+        store = new ProcessedEventStore(repository, meterRegistry);
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "cacheSize", 100L);
+        ReflectionTestUtils.setField(store, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(store, "flushSize", 10);
+        ReflectionTestUtils.setField(store, "flushInterval", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(store, "cleanupInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(store, "cleanupChunkSize", 100);
+        store.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.stop();
+    }
+
+    @Test
+    void processedEventIsDuplicateWithoutDatabaseLookup() {
+        store.markProcessed("event-1");
+
+        StepVerifier.create(store.isDuplicate("event-1")).expectNext(true).verifyComplete();
+        verify(repository, never()).exists(any());
+    }
+
+    @Test
+    void unseenEventIsRejectedByFilterWithoutDatabaseLookup() {
+        StepVerifier.create(store.isDuplicate("event-new")).expectNext(false).verifyComplete();
+        verify(repository, never()).exists(any());
+        assertThat(meterRegistry.counter("order.consumer.dedup.lookups", "tier", "filter").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void eventFromPreviousRunIsConfirmedByDatabaseOnce() {
+        when(repository.exists("processed-before-restart")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(store.isDuplicate("processed-before-restart")).expectNext(true).verifyComplete();
+        StepVerifier.create(store.isDuplicate("processed-before-restart")).expectNext(true).verifyComplete();
+        verify(repository, times(1)).exists("processed-before-restart");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processedIdsArePersistedInOneDistinctInsert() {
+        store.markProcessed("event-1");
+        store.markProcessed("event-2");
+        store.markProcessed("event-1");
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, timeout(2000)).insertAll(ids.capture(), any());
+        assertThat(ids.getValue()).containsExactly("event-1", "event-2");
+    }
+
+    @Test
+    void filterNeverForgetsInsertedIds() {
+        EventIdBloomFilter filter = new EventIdBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("event-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("event-" + i)).isTrue();
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
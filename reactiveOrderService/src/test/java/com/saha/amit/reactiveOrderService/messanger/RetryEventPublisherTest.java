@@ -2,18 +2,19 @@ package com.saha.amit.reactiveOrderService.messanger;
 
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.reactivestreams.Publisher;
+import org.mockito.ArgumentCaptor;
 import org.springframework.test.util.ReflectionTestUtils;
-import reactor.core.publisher.Flux;
-import reactor.kafka.sender.KafkaSender;
-import reactor.kafka.sender.SenderRecord;
-import reactor.kafka.sender.SenderResult;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import reactor.test.scheduler.VirtualTimeScheduler;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,29 +22,25 @@ import static org.mockito.Mockito.*;
 
 class RetryEventPublisherTest {
 
-    private KafkaSender<String, OrderEvent> kafkaSender;
+    private KafkaSendPipeline<String, OrderEvent> sendPipeline;
     private SimpleMeterRegistry meterRegistry;
     private RetryEventPublisher retryPublisher;
 
     @BeforeEach
     void setUp() {
-        kafkaSender = mock(KafkaSender.class);
+        sendPipeline = mock(KafkaSendPipeline.class);
         meterRegistry = new SimpleMeterRegistry();
-        retryPublisher = new RetryEventPublisher(kafkaSender, meterRegistry);
+        retryPublisher = new RetryEventPublisher(sendPipeline, meterRegistry);
         ReflectionTestUtils.setField(retryPublisher, "retryTopic", "order.events.retry");
         ReflectionTestUtils.setField(retryPublisher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryPublisher, "tiers",
+                List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(60)));
     }
 
     //@Test
     void scheduleRetryDelaysAndPublishes() {
         OrderEvent event = OrderEvent.create("order-1", "cust", 100.0, "FAILED");
-        SenderResult<OrderEvent> senderResult = mock(SenderResult.class);
-        when(senderResult.exception()).thenReturn(null);
-        when(kafkaSender.send(any())).thenAnswer(invocation -> {
-            @SuppressWarnings("unchecked")
-            Publisher<SenderRecord<String, OrderEvent, OrderEvent>> publisherParam = invocation.getArgument(0);
-            return Flux.from(publisherParam).map(record -> senderResult);
-        });
+        when(sendPipeline.send(any())).thenReturn(Mono.just(mock(RecordMetadata.class)));
 
         VirtualTimeScheduler.getOrSet();
 
@@ -51,7 +48,7 @@ class RetryEventPublisherTest {
                 .thenAwait(Duration.ofSeconds(2))
                 .verifyComplete();
 
-        verify(kafkaSender, times(1)).send(any());
+        verify(sendPipeline, times(1)).send(any());
         assertThat(meterRegistry.counter("order.retry.scheduled", "attempt", "1").count()).isEqualTo(1.0);
         assertThat(meterRegistry.counter("order.retry.published", "attempt", "1").count()).isEqualTo(1.0);
         assertThat(meterRegistry.counter("order.retry.publish.failure").count()).isZero();
@@ -63,7 +60,60 @@ class RetryEventPublisherTest {
         StepVerifier.create(retryPublisher.scheduleRetry(event, 3))
                 .verifyComplete();
 
-        verifyNoInteractions(kafkaSender);
+        verifyNoInteractions(sendPipeline);
         assertThat(meterRegistry.find("order.retry.scheduled").counter()).isNull();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scheduleRetryPublishesImmediatelyToTierTopicWithDueTime() {
+        OrderEvent event = OrderEvent.create("order-1", "cust", 100.0, "FAILED");
+        when(sendPipeline.send(any())).thenReturn(Mono.just(mock(RecordMetadata.class)));
+        long before = System.currentTimeMillis();
+
+        StepVerifier.create(retryPublisher.scheduleRetry(event, 1))
+                .verifyComplete();
+
+        ArgumentCaptor<ProducerRecord<String, OrderEvent>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(sendPipeline).send(captor.capture());
+        ProducerRecord<String, OrderEvent> record = captor.getValue();
+        assertThat(record.topic()).isEqualTo("order.events.retry-30s");
+        assertThat(header(record, "retry-attempt")).isEqualTo("2");
+        assertThat(Long.parseLong(header(record, "retry-due-at"))).isGreaterThanOrEqualTo(before + 30_000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void laterAttemptsReuseLastTier() {
+        ReflectionTestUtils.setField(retryPublisher, "maxAttempts", 10);
+        when(sendPipeline.send(any())).thenReturn(Mono.just(mock(RecordMetadata.class)));
+
+        StepVerifier.create(retryPublisher.scheduleRetry(OrderEvent.create("order-1", "cust", 1.0, "FAILED"), 6))
+                .verifyComplete();
+
+        ArgumentCaptor<ProducerRecord<String, OrderEvent>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(sendPipeline).send(captor.capture());
+        assertThat(captor.getValue().topic()).isEqualTo("order.events.retry-60s");
+    }
+
+    @Test
+    void publishFailureIsPropagatedSoTheRecordIsNotAcknowledged() {
+        when(sendPipeline.send(any())).thenReturn(Mono.error(new IllegalStateException("broker down")));
+
+        StepVerifier.create(retryPublisher.scheduleRetry(OrderEvent.create("order-1", "cust", 1.0, "FAILED"), 0))
+                .expectErrorMessage("broker down")
+                .verify();
+
+        assertThat(meterRegistry.counter("order.retry.publish.failure").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retryTopicsIncludeLegacyTopicAndTiers() {
+        assertThat(RetryEventPublisher.retryTopics("order.events.retry", List.of(Duration.ofSeconds(5), Duration.ofMinutes(1))))
+                .containsExactly("order.events.retry", "order.events.retry-5s", "order.events.retry-60s");
+    }
+
+    private String header(ProducerRecord<String, OrderEvent> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,240 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saha.amit.reactiveOrderService.dto.DltReplayRequest;
+import com.saha.amit.reactiveOrderService.dto.DltReplayStatus;
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.events.OrderEventJsonCodec;
+import com.saha.amit.reactiveOrderService.messanger.KafkaSendPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DltReplayServiceTest {
+
+    private static final TopicPartition DLT_PARTITION = new TopicPartition("order.events.dlt", 0);
+
+    private final OrderEventJsonCodec codec = new OrderEventJsonCodec(new ObjectMapper().getFactory());
+    private KafkaSendPipeline<String, byte[]> sendPipeline;
+    private KafkaReceiver<String, byte[]> receiver;
+    private DltReplayService dltReplayService;
+    private final List<ProducerRecord<String, byte[]>> sent = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sendPipeline = mock(KafkaSendPipeline.class);
+        receiver = mock(KafkaReceiver.class);
+        when(sendPipeline.send(any())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return Mono.just(mock(RecordMetadata.class));
+        });
+
+        dltReplayService = spy(new DltReplayService(mock(ReceiverOptions.class), sendPipeline, codec, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(dltReplayService, "dltTopic", "order.events.dlt");
+        ReflectionTestUtils.setField(dltReplayService, "orderTopic", "order.events");
+        ReflectionTestUtils.setField(dltReplayService, "defaultRate", 1000);
+        ReflectionTestUtils.setField(dltReplayService, "maxRate", 5000);
+        ReflectionTestUtils.setField(dltReplayService, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(dltReplayService, "historySize", 20);
+        ReflectionTestUtils.setField(dltReplayService, "tick", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(dltReplayService, "idleTimeout", Duration.ofSeconds(5));
+
+        doReturn(receiver).when(dltReplayService).receiver(any());
+    }
+
+    @Test
+    void matchesFiltersOnFailureHeadersAndTimeRange() {
+        ReceiverRecord<String, byte[]> record = dltRecord(0, "consumer", 1_000L);
+
+        DltReplayRequest request = new DltReplayRequest();
+        assertThat(DltReplayService.matches(request, record)).isTrue();
+
+        request.setFailureTypes(List.of("publisher"));
+        assertThat(DltReplayService.matches(request, record)).isFalse();
+        request.setFailureTypes(List.of("publisher", "consumer"));
+        assertThat(DltReplayService.matches(request, record)).isTrue();
+
+        request.setHeaders(Map.of("source-topic", "order.events"));
+        assertThat(DltReplayService.matches(request, record)).isTrue();
+        request.setHeaders(Map.of("source-topic", "order.events.retry"));
+        assertThat(DltReplayService.matches(request, record)).isFalse();
+        request.setHeaders(null);
+
+        request.setFrom(Instant.ofEpochMilli(1_000L));
+        request.setTo(Instant.ofEpochMilli(2_000L));
+        assertThat(DltReplayService.matches(request, record)).isTrue();
+        request.setTo(Instant.ofEpochMilli(1_000L));
+        assertThat(DltReplayService.matches(request, record)).isFalse();
+    }
+
+    @Test
+    void replaysMatchingRecordsUpToTheSnapshottedEndOffset() {
+        stubRange(0L, 3L);
+        // Offset 3 was dead-lettered after the replay started and the receiver never completes on its own
+        when(receiver.receive()).thenReturn(Flux.concat(
+                Flux.just(dltRecord(0, "consumer", 1L), dltRecord(1, "publisher", 1L),
+                        dltRecord(2, "consumer", 1L), dltRecord(3, "consumer", 1L)),
+                Flux.never()));
+
+        DltReplayRequest request = new DltReplayRequest();
+        request.setFailureTypes(List.of("consumer"));
+
+        DltReplayStatus status = awaitFinished(dltReplayService.start(request).block().getId());
+
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getTotal()).isEqualTo(3);
+        assertThat(status.getScanned()).isEqualTo(3);
+        assertThat(status.getMatched()).isEqualTo(2);
+        assertThat(status.getReplayed()).isEqualTo(2);
+        assertThat(sent).extracting(ProducerRecord::topic).containsOnly("order.events");
+        assertThat(sent).extracting(ProducerRecord::key).containsExactly("event-0", "event-2");
+        assertThat(header(sent.get(1), "replayed-from")).isEqualTo("order.events.dlt-0@2");
+        assertThat(header(sent.get(1), "replay-id")).isEqualTo(status.getId());
+    }
+
+    @Test
+    void replayIsPacedToTheRequestedRate() {
+        stubRange(0L, 10L);
+        when(receiver.receive()).thenReturn(Flux.range(0, 10).map(offset -> dltRecord(offset, "consumer", 1L)));
+
+        DltReplayRequest request = new DltReplayRequest();
+        // Two records per 10ms tick
+        request.setRatePerSecond(200);
+
+        long started = System.nanoTime();
+        DltReplayStatus status = awaitFinished(dltReplayService.start(request).block().getId());
+
+        assertThat(status.getReplayed()).isEqualTo(10);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+    }
+
+    @Test
+    void rateBelowOneRecordPerTickStretchesTheTick() {
+        stubRange(0L, 3L);
+        when(receiver.receive()).thenReturn(Flux.range(0, 3).map(offset -> dltRecord(offset, "consumer", 1L)));
+        ReflectionTestUtils.setField(dltReplayService, "tick", Duration.ofMillis(100));
+
+        DltReplayRequest request = new DltReplayRequest();
+        // Half a record per tick: one record every 200ms, not one per tick
+        request.setRatePerSecond(5);
+
+        long started = System.nanoTime();
+        DltReplayStatus status = awaitFinished(dltReplayService.start(request).block().getId());
+
+        assertThat(status.getReplayed()).isEqualTo(3);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+    }
+
+    @Test
+    void replayEndingIdleBeforeTheEndOfTheRangeFails() {
+        stubRange(0L, 3L);
+        when(receiver.receive()).thenReturn(Flux.concat(Flux.just(dltRecord(0, "consumer", 1L)), Flux.never()));
+        ReflectionTestUtils.setField(dltReplayService, "idleTimeout", Duration.ofMillis(100));
+
+        DltReplayStatus status = awaitFinished(dltReplayService.start(new DltReplayRequest()).block().getId());
+
+        assertThat(status.getState()).isEqualTo("FAILED");
+        assertThat(status.getError()).contains("1 partition(s) not read to the end");
+        // What was read before going idle is still sent
+        assertThat(status.getReplayed()).isEqualTo(1);
+    }
+
+    @Test
+    void dryRunCountsMatchesWithoutSending() {
+        stubRange(0L, 2L);
+        when(receiver.receive()).thenReturn(Flux.just(dltRecord(0, "consumer", 1L), dltRecord(1, "consumer", 1L)));
+
+        DltReplayRequest request = new DltReplayRequest();
+        request.setDryRun(true);
+
+        DltReplayStatus status = awaitFinished(dltReplayService.start(request).block().getId());
+
+        assertThat(status.getMatched()).isEqualTo(2);
+        assertThat(status.getReplayed()).isZero();
+        verify(sendPipeline, never()).send(any());
+    }
+
+    @Test
+    void rejectsInvalidRatesAndConcurrentReplays() {
+        stubRange(0L, 1L);
+        when(receiver.receive()).thenReturn(Flux.never());
+
+        DltReplayRequest tooFast = new DltReplayRequest();
+        tooFast.setRatePerSecond(10_000);
+        StepVerifier.create(dltReplayService.start(tooFast))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        String running = dltReplayService.start(new DltReplayRequest()).block().getId();
+        StepVerifier.create(dltReplayService.start(new DltReplayRequest()))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(dltReplayService.cancel(running))
+                .assertNext(status -> assertThat(status.getState()).isEqualTo("CANCELLED"))
+                .verifyComplete();
+    }
+
+    private void stubRange(long start, long end) {
+        doReturn(Mono.just(new DltReplayService.ReplayBounds(Map.of(DLT_PARTITION, start), Map.of(DLT_PARTITION, end))))
+                .when(dltReplayService).bounds(any());
+    }
+
+    private DltReplayStatus awaitFinished(String id) {
+        return dltReplayService.status(id)
+                .filter(status -> !"RUNNING".equals(status.getState()))
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private ReceiverRecord<String, byte[]> dltRecord(long offsetValue, String failureType, long timestamp) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("failure-type", failureType.getBytes(StandardCharsets.UTF_8));
+        headers.add("failure-reason", "IllegalStateException".getBytes(StandardCharsets.UTF_8));
+        headers.add("source-topic", "order.events".getBytes(StandardCharsets.UTF_8));
+        byte[] payload;
+        try {
+            payload = codec.encode(new OrderEvent("event-" + offsetValue, "order-" + offsetValue, "cust", "FAILED", 10.0, timestamp));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+        when(offset.topicPartition()).thenReturn(DLT_PARTITION);
+        when(offset.offset()).thenReturn(offsetValue);
+        return new ReceiverRecord<>(
+                new ConsumerRecord<>(DLT_PARTITION.topic(), DLT_PARTITION.partition(), offsetValue, timestamp,
+                        TimestampType.CREATE_TIME, -1, payload.length, null, payload, headers, Optional.empty()),
+                offset);
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.model.OrderEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class OrderCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderCache orderCache;
+    private AtomicInteger loads;
+    private Function<String, Mono<OrderEntity>> loader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        KafkaReceiver<String, OrderEvent> receiver = mock(KafkaReceiver.class);
+        when(receiver.receive()).thenReturn(Flux.never());
+        meterRegistry = new SimpleMeterRegistry();
+
+        orderCache = new OrderCache(receiver, meterRegistry);
+        ReflectionTestUtils.setField(orderCache, "enabled", true);
+        ReflectionTestUtils.setField(orderCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(orderCache, "ttl", Duration.ofMinutes(1));
+        orderCache.start();
+
+        loads = new AtomicInteger();
+        loader = orderId -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return order(orderId, "PLACED");
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderCache.stop();
+    }
+
+    @Test
+    void secondReadIsServedFromCache() {
+        StepVerifier.create(orderCache.getOrLoad("order-1", loader).then(orderCache.getOrLoad("order-1", loader)))
+                .assertNext(order -> assertThat(order.getOrderId()).isEqualTo("order-1"))
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "order.byId").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void placedOrderIsCachedWithoutLoading() {
+        orderCache.put(order("order-2", "PLACED"));
+
+        StepVerifier.create(orderCache.getOrLoad("order-2", loader))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void statusChangeEventEvictsEntry() {
+        orderCache.put(order("order-3", "PLACED"));
+
+        orderCache.onEvent(OrderEvent.create("order-3", "cust-1", 10.0, "PLACED"));
+        StepVerifier.create(orderCache.getOrLoad("order-3", loader)).expectNextCount(1).verifyComplete();
+        assertThat(loads).hasValue(0);
+
+        orderCache.onEvent(OrderEvent.create("order-3", "cust-1", 10.0, "CANCELLED"));
+        StepVerifier.create(orderCache.getOrLoad("order-3", loader)).expectNextCount(1).verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void missingOrderIsNotCached() {
+        StepVerifier.create(orderCache.getOrLoad("missing", orderId -> Mono.empty())).verifyComplete();
+
+        StepVerifier.create(orderCache.getOrLoad("missing", loader)).expectNextCount(1).verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    private OrderEntity order(String orderId, String status) {
+        OrderEntity order = new OrderEntity();
+        order.setOrderId(orderId);
+        order.setCustomerId("cust-1");
+        order.setAmount(10.0);
+        order.setStatus(status);
+        order.setCreatedAt(Instant.now().toEpochMilli());
+        return order;
+    }
+}
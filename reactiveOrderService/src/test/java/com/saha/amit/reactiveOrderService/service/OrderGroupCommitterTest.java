@@ -0,0 +1,135 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.saha.amit.reactiveOrderService.model.OrderEntity;
+import com.saha.amit.reactiveOrderService.model.OrderOutboxEntity;
+import com.saha.amit.reactiveOrderService.repository.CustomOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderGroupCommitterTest {
+
+    private CustomOrderRepository customOrderRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderGroupCommitter committer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        customOrderRepository = mock(CustomOrderRepository.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        meterRegistry = new SimpleMeterRegistry();
+
+        committer = new OrderGroupCommitter(customOrderRepository, transactionalOperator, meterRegistry);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(committer, "window", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(committer, "maxConcurrentCommits", 1);
+        committer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentOrdersShareOneMultiRowInsert() {
+        when(customOrderRepository.insertOrders(any())).thenReturn(Mono.just(2L));
+        when(customOrderRepository.insertOutboxes(any())).thenReturn(Mono.just(2L));
+
+        OrderEntity first = order();
+        OrderEntity second = order();
+
+        StepVerifier.create(Mono.when(
+                        committer.submit(first, outbox(first)),
+                        committer.submit(second, outbox(second))))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        ArgumentCaptor<List<OrderEntity>> orders = ArgumentCaptor.forClass(List.class);
+        verify(customOrderRepository, times(1)).insertOrders(orders.capture());
+        assertThat(orders.getValue()).containsExactly(first, second);
+        verify(customOrderRepository, times(1)).insertOutboxes(any());
+        verify(customOrderRepository, never()).insertOrder(any());
+        assertThat(meterRegistry.summary("order.group-commit.size").totalAmount()).isEqualTo(2.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ordersSubmittedFromManyThreadsAtOnceAreAllCommitted() {
+        when(customOrderRepository.insertOrders(any()))
+                .thenAnswer(invocation -> Mono.just((long) invocation.<List<OrderEntity>>getArgument(0).size()));
+        when(customOrderRepository.insertOutboxes(any()))
+                .thenAnswer(invocation -> Mono.just((long) invocation.<List<OrderOutboxEntity>>getArgument(0).size()));
+
+        StepVerifier.create(Flux.range(0, 400)
+                        .flatMap(i -> Mono.defer(() -> {
+                            OrderEntity order = order();
+                            return committer.submit(order, outbox(order));
+                        }).subscribeOn(Schedulers.parallel()), 400))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        ArgumentCaptor<List<OrderEntity>> orders = ArgumentCaptor.forClass(List.class);
+        verify(customOrderRepository, atLeastOnce()).insertOrders(orders.capture());
+        assertThat(orders.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(400);
+    }
+
+    @Test
+    void failedGroupFallsBackToSingleCommits() {
+        OrderEntity good = order();
+        OrderEntity bad = order();
+        when(customOrderRepository.insertOrders(any())).thenReturn(Mono.error(new IllegalStateException("duplicate")));
+        when(customOrderRepository.insertOutboxes(any())).thenReturn(Mono.just(2L));
+        when(customOrderRepository.insertOrder(good)).thenReturn(Mono.just(good));
+        when(customOrderRepository.insertOrder(bad)).thenReturn(Mono.error(new IllegalStateException("duplicate")));
+        when(customOrderRepository.insertOutbox(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        Mono<Void> goodCommit = committer.submit(good, outbox(good)).cache();
+        Mono<Void> badCommit = committer.submit(bad, outbox(bad)).cache();
+        goodCommit.onErrorResume(ex -> Mono.empty()).subscribe();
+        badCommit.onErrorResume(ex -> Mono.empty()).subscribe();
+
+        StepVerifier.create(goodCommit)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(badCommit)
+                .expectErrorMessage("duplicate")
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(meterRegistry.counter("order.group-commit.fallbacks").count()).isEqualTo(1.0);
+    }
+
+    private OrderEntity order() {
+        OrderEntity order = new OrderEntity();
+        order.setOrderId(UUID.randomUUID().toString());
+        order.setCustomerId("customer-1");
+        order.setAmount(10.0);
+        order.setStatus("PLACED");
+        order.setCreatedAt(Instant.now().toEpochMilli());
+        return order;
+    }
+
+    private OrderOutboxEntity outbox(OrderEntity order) {
+        return OrderOutboxEntity.pending(order.getOrderId(), "OrderEvent", "{}", 16);
+    }
+}
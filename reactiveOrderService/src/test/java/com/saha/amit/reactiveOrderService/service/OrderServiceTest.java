@@ -1,25 +1,46 @@
 package com.saha.amit.reactiveOrderService.service;
 
+import com.saha.amit.reactiveOrderService.dto.OrderCursor;
+import com.saha.amit.reactiveOrderService.dto.OrderRequest;
 import com.saha.amit.reactiveOrderService.events.OrderEvent;
+import com.saha.amit.reactiveOrderService.model.OrderEntity;
+import com.saha.amit.reactiveOrderService.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class OrderServiceTest {
 
     private OutboxService outboxService;
+    private OrderRepository orderRepository;
     private OrderService orderService;
 
     @BeforeEach
     void setUp() {
         outboxService = mock(OutboxService.class);
-        //orderService = new OrderService(outboxService);
+        orderRepository = mock(OrderRepository.class);
+        orderService = new OrderService(outboxService, orderRepository, mock(OrderCache.class));
+        ReflectionTestUtils.setField(orderService, "bulkChunkSize", 2);
+        ReflectionTestUtils.setField(orderService, "bulkConcurrency", 2);
+        ReflectionTestUtils.setField(orderService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 3);
+        ReflectionTestUtils.setField(orderService, "streamFetchSize", 2);
     }
 
     //@Test
@@ -47,4 +68,134 @@ class OrderServiceTest {
         assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder("cust-1", 0.0).block());
         verifyNoInteractions(outboxService);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void placeOrdersPersistsChunksAndReportsEveryLineInOrder() {
+        when(outboxService.persistOrdersAndOutbox(anyList())).thenAnswer(invocation -> Mono.just(
+                ((List<OrderRequest>) invocation.getArgument(0)).stream()
+                        .map(request -> OrderEvent.create("order-" + request.getCustomerId(), request.getCustomerId(), request.getAmount(), "PLACED"))
+                        .toList()));
+
+        StepVerifier.create(orderService.placeOrders(Flux.just(
+                        request("a", 10.0), request("b", -1.0), request("c", 30.0))))
+                .assertNext(result -> {
+                    assertThat(result.getLine()).isEqualTo(0);
+                    assertThat(result.getOrderId()).isEqualTo("order-a");
+                })
+                .assertNext(result -> {
+                    assertThat(result.getLine()).isEqualTo(1);
+                    assertThat(result.getStatus()).isEqualTo("REJECTED");
+                })
+                .assertNext(result -> {
+                    assertThat(result.getLine()).isEqualTo(2);
+                    assertThat(result.getOrderId()).isEqualTo("order-c");
+                })
+                .verifyComplete();
+
+        verify(outboxService, times(2)).persistOrdersAndOutbox(anyList());
+        verify(outboxService, never()).persistOrderAndOutbox(anyString(), anyDouble());
+    }
+
+    @Test
+    void failedChunkIsRetriedLineByLine() {
+        when(outboxService.persistOrdersAndOutbox(anyList())).thenReturn(Mono.error(new IllegalStateException("deadlock")));
+        when(outboxService.persistOrderAndOutbox("a", 10.0))
+                .thenReturn(Mono.just(OrderEvent.create("order-a", "a", 10.0, "PLACED")));
+        when(outboxService.persistOrderAndOutbox("b", 20.0))
+                .thenReturn(Mono.error(new IllegalStateException("duplicate")));
+
+        StepVerifier.create(orderService.placeOrders(Flux.just(request("a", 10.0), request("b", 20.0))))
+                .assertNext(result -> assertThat(result.getOrderId()).isEqualTo("order-a"))
+                .assertNext(result -> {
+                    assertThat(result.getStatus()).isEqualTo("REJECTED");
+                    assertThat(result.getError()).isEqualTo("duplicate");
+                })
+                .verifyComplete();
+
+        verify(outboxService, times(2)).persistOrderAndOutbox(anyString(), any());
+    }
+
+    @Test
+    void getOrdersPageCapsSizeAndReturnsCursorOfLastItem() {
+        when(orderRepository.findPageByCustomerId("cust-1", -1L, "", 4))
+                .thenReturn(Flux.fromIterable(orders(0, 4)));
+
+        StepVerifier.create(orderService.getOrdersPage("cust-1", OrderCursor.START, 100))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(3);
+                    assertThat(OrderCursor.decode(page.getNextCursor())).isEqualTo(new OrderCursor(2L, "order-2"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getOrdersPageHasNoCursorOnLastPage() {
+        when(orderRepository.findPage(5L, "order-5", 3)).thenReturn(Flux.fromIterable(orders(6, 1)));
+
+        StepVerifier.create(orderService.getOrdersPage(null, new OrderCursor(5L, "order-5"), null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void streamOrdersWalksKeysetPagesOnDemand() {
+        when(orderRepository.findPageByCustomerId("cust-1", -1L, "", 2)).thenReturn(Flux.fromIterable(orders(0, 2)));
+        when(orderRepository.findPageByCustomerId("cust-1", 1L, "order-1", 2)).thenReturn(Flux.fromIterable(orders(2, 2)));
+        when(orderRepository.findPageByCustomerId("cust-1", 3L, "order-3", 2)).thenReturn(Flux.fromIterable(orders(4, 1)));
+
+        StepVerifier.create(orderService.streamOrders("cust-1"), 1)
+                .expectNextMatches(order -> order.getOrderId().equals("order-0"))
+                // At most one page is fetched ahead of what the client has read
+                .then(() -> verify(orderRepository, never()).findPageByCustomerId("cust-1", 3L, "order-3", 2))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(4)
+                .verifyComplete();
+
+        verify(orderRepository, times(3)).findPageByCustomerId(eq("cust-1"), anyLong(), anyString(), eq(2));
+    }
+
+    @Test
+    void getOrdersByCustomerReadsKeysetPages() {
+        when(orderRepository.findPageByCustomerId("cust-1", -1L, "", 2)).thenReturn(Flux.fromIterable(orders(0, 2)));
+        when(orderRepository.findPageByCustomerId("cust-1", 1L, "order-1", 2)).thenReturn(Flux.fromIterable(orders(2, 1)));
+
+        StepVerifier.create(orderService.getOrdersByCustomer("cust-1"))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        verify(orderRepository, never()).findByCustomerId(any());
+    }
+
+    @Test
+    void getOrdersByCustomerWithoutCustomerReturnsNothing() {
+        StepVerifier.create(orderService.getOrdersByCustomer(null))
+                .verifyComplete();
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    private List<OrderEntity> orders(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> {
+                    OrderEntity order = new OrderEntity();
+                    order.setOrderId("order-" + i);
+                    order.setCustomerId("cust-1");
+                    order.setAmount(10.0);
+                    order.setStatus("PLACED");
+                    order.setCreatedAt((long) i);
+                    return order;
+                })
+                .toList();
+    }
+
+    private OrderRequest request(String customerId, Double amount) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(amount);
+        return request;
+    }
 }
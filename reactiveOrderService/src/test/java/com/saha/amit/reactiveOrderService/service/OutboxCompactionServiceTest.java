@@ -0,0 +1,143 @@
+package com.saha.amit.reactiveOrderService.service;
+
+import com.saha.amit.reactiveOrderService.repository.OutboxArchiveRepository;
+import com.saha.amit.reactiveOrderService.repository.OutboxLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class OutboxCompactionServiceTest {
+
+    private OutboxArchiveRepository outboxArchiveRepository;
+    private OutboxLeaseRepository outboxLeaseRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxCompactionService compactionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxArchiveRepository = mock(OutboxArchiveRepository.class);
+        outboxLeaseRepository = mock(OutboxLeaseRepository.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        meterRegistry = new SimpleMeterRegistry();
+
+        compactionService = new OutboxCompactionService(outboxArchiveRepository, outboxLeaseRepository, transactionalOperator, meterRegistry);
+        ReflectionTestUtils.setField(compactionService, "runnerId", "runner-1");
+        ReflectionTestUtils.setField(compactionService, "interval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(compactionService, "archiveRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(compactionService, "statsInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(compactionService, "mode", "archive");
+        ReflectionTestUtils.setField(compactionService, "retention", Duration.ofHours(1));
+        ReflectionTestUtils.setField(compactionService, "chunkSize", 2);
+        ReflectionTestUtils.setField(compactionService, "maxChunksPerRun", 10);
+    }
+
+    @Test
+    void archivesChunksUntilBacklogIsCleared() {
+        when(outboxArchiveRepository.findPublishedBefore(any(Instant.class), anyInt()))
+                .thenReturn(Flux.just("a", "b"), Flux.just("c"));
+        when(outboxArchiveRepository.copyToArchive(any(), any())).thenReturn(Mono.just(2L), Mono.just(1L));
+        when(outboxArchiveRepository.deleteByIds(any())).thenReturn(Mono.just(2L), Mono.just(1L));
+
+        StepVerifier.create(compactionService.compact())
+                .expectNext(3L)
+                .verifyComplete();
+
+        verify(outboxArchiveRepository, times(2)).findPublishedBefore(any(Instant.class), eq(2));
+        verify(outboxArchiveRepository).copyToArchive(eq(List.of("a", "b")), any());
+        verify(outboxArchiveRepository).deleteByIds(List.of("c"));
+        assertThat(meterRegistry.counter("order.outbox.compacted", "mode", "archive").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void deleteModeSkipsArchive() {
+        ReflectionTestUtils.setField(compactionService, "mode", "delete");
+        when(outboxArchiveRepository.findPublishedBefore(any(Instant.class), anyInt())).thenReturn(Flux.just("a"));
+        when(outboxArchiveRepository.deleteByIds(any())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(compactionService.compact())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(outboxArchiveRepository, never()).copyToArchive(any(), any());
+    }
+
+    @Test
+    void emptyOutboxRemovesNothing() {
+        when(outboxArchiveRepository.findPublishedBefore(any(Instant.class), anyInt())).thenReturn(Flux.empty());
+
+        StepVerifier.create(compactionService.compact())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(outboxArchiveRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    void purgesArchiveInChunks() {
+        when(outboxArchiveRepository.purgeArchivedBefore(any(Instant.class), anyInt()))
+                .thenReturn(Mono.just(2L), Mono.just(2L), Mono.just(1L));
+
+        StepVerifier.create(compactionService.purgeArchive())
+                .expectNext(5L)
+                .verifyComplete();
+
+        verify(outboxArchiveRepository, times(3)).purgeArchivedBefore(any(Instant.class), eq(2));
+    }
+
+    @Test
+    void zeroArchiveRetentionKeepsArchive() {
+        ReflectionTestUtils.setField(compactionService, "archiveRetention", Duration.ZERO);
+
+        StepVerifier.create(compactionService.purgeArchive())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(outboxArchiveRepository, never()).purgeArchivedBefore(any(), anyInt());
+    }
+
+    @Test
+    void onlyLeaseHolderCompactsAndCountsRows() {
+        compactionService.start();
+        when(outboxLeaseRepository.tryAcquire(eq(OutboxLeaseRepository.COMPACTION_LEASE), eq("runner-1"), any(), any()))
+                .thenReturn(Mono.just(false));
+
+        StepVerifier.create(compactionService.run()).verifyComplete();
+
+        verifyNoInteractions(outboxArchiveRepository);
+        assertThat(meterRegistry.get("order.outbox.rows").tag("status", "PUBLISHED").gauge().value()).isNaN();
+    }
+
+    @Test
+    void leaseHolderRefreshesRowGaugesOncePerStatsInterval() {
+        compactionService.start();
+        when(outboxLeaseRepository.tryAcquire(eq(OutboxLeaseRepository.COMPACTION_LEASE), eq("runner-1"), any(), any()))
+                .thenReturn(Mono.just(true));
+        when(outboxArchiveRepository.findPublishedBefore(any(Instant.class), anyInt())).thenReturn(Flux.empty());
+        when(outboxArchiveRepository.purgeArchivedBefore(any(Instant.class), anyInt())).thenReturn(Mono.just(0L));
+        when(outboxArchiveRepository.countByStatus()).thenReturn(Mono.just(Map.of("PENDING", 3L, "PUBLISHED", 7L, "FAILED", 0L)));
+
+        StepVerifier.create(compactionService.run()).verifyComplete();
+        StepVerifier.create(compactionService.run()).verifyComplete();
+
+        verify(outboxArchiveRepository, times(1)).countByStatus();
+        verify(outboxArchiveRepository, times(2)).purgeArchivedBefore(any(Instant.class), anyInt());
+        assertThat(meterRegistry.get("order.outbox.rows").tag("status", "PUBLISHED").gauge().value()).isEqualTo(7.0);
+    }
+}